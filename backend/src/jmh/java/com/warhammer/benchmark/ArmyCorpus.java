@@ -0,0 +1,67 @@
+package com.warhammer.benchmark;
+
+import com.warhammer.dto.CalculationRequestDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Built-in corpus of army lists used to drive the benchmark suite.
+ * <p>
+ * Armies are described by a shape string of the form {@code "<units>x<models>"}, ranging from a
+ * single 5-model squad ({@code "1x5"}) up to a 20-unit horde of 30-model units ({@code "20x30"}).
+ * The profile ({@code "D6"} or {@code "D6+1"}) is used for both the attacks and the damage
+ * characteristic, so the width of every stage scales with the shape of the army.
+ * <p>
+ * Special rules are rotated deterministically across unit slots to mirror the mix of
+ * Sustained, Lethal and Devastating profiles that players actually submit.
+ */
+public final class ArmyCorpus {
+
+    private ArmyCorpus() {}
+
+    /**
+     * Builds an army from a shape string such as {@code "10x20"}.
+     *
+     * @param shape The number of units and models per unit, separated by an 'x'.
+     * @param profile The dice expression used for attacks and damage.
+     * @return A list of unit requests ready for the calculation pipeline.
+     */
+    public static List<CalculationRequestDTO> army(String shape, String profile) {
+        String[] parts = shape.toLowerCase().split("x");
+        int units = Integer.parseInt(parts[0]);
+        int models = Integer.parseInt(parts[1]);
+
+        List<CalculationRequestDTO> army = new ArrayList<>(units);
+        for (int slot = 0; slot < units; slot++) {
+            army.add(unit(slot, models, profile));
+        }
+        return army;
+    }
+
+    /**
+     * Builds a single unit for the given slot in the corpus.
+     *
+     * @param slot The position of the unit in the army, used to rotate special rules.
+     * @param models The number of models in the unit.
+     * @param profile The dice expression used for attacks and damage.
+     * @return The unit request.
+     */
+    public static CalculationRequestDTO unit(int slot, int models, String profile) {
+        CalculationRequestDTO unit = new CalculationRequestDTO();
+        unit.setUnitName("Corpus Unit " + (slot + 1));
+        unit.setNumberOfModels(models);
+        unit.setAttacksPerModel(profile);
+        unit.setDamageValue(profile);
+        unit.setBsValue(3 + slot % 2);
+        unit.setStrength(4 + slot % 3);
+        unit.setAp(slot % 3);
+        unit.setRerollType(slot % 4 == 3 ? "ONES" : "NONE");
+
+        unit.setSustainedHits(slot % 3 == 0);
+        unit.setSustainedValue("1");
+        unit.setLethalHits(slot % 4 == 1);
+        unit.setDevastatingWounds(slot % 5 == 2);
+        return unit;
+    }
+}
@@ -0,0 +1,59 @@
+package com.warhammer.benchmark;
+
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.dto.CalculationResultDTO;
+import com.warhammer.service.CalculatorService;
+import com.warhammer.service.DistributionCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a complete {@link CalculatorService#calculateArmyHits(List)} request: the hit stage,
+ * the T4 baseline, the toughness sweep and the save sweep for a corpus army.
+ * <p>
+ * The service shares per-unit results across requests through its {@link DistributionCache}. A cold
+ * run clears it before every invocation, so it measures the whole pipeline; a warm run measures cache
+ * lookups and the army-level convolutions only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CalculatorServiceBenchmark {
+
+    @Param({"1x5", "5x10", "10x20", "20x30"})
+    public String army;
+
+    @Param({"D6", "D6+1"})
+    public String profile;
+
+    @Param({"cold", "warm"})
+    public String cache;
+
+    private DistributionCache distributionCache;
+    private CalculatorService service;
+    private List<CalculationRequestDTO> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        distributionCache = new DistributionCache();
+        service = new CalculatorService(distributionCache);
+        requests = ArmyCorpus.army(army, profile);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        if ("cold".equals(cache)) {
+            distributionCache.clear();
+        }
+    }
+
+    @Benchmark
+    public CalculationResultDTO calculateArmyHits() {
+        return service.calculateArmyHits(requests);
+    }
+}
@@ -0,0 +1,63 @@
+package com.warhammer.benchmark;
+
+import com.warhammer.util.FftConvolution;
+import com.warhammer.util.ProbabilityMath;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the direct and FFT convolution kernels across input widths. The crossover observed
+ * here is what {@code ProbabilityMath} uses to pick a kernel automatically.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ConvolutionKernelBenchmark {
+
+    @Param({"64", "256", "1024", "4096"})
+    public int existingLength;
+
+    @Param({"7", "64", "256", "1024"})
+    public int newLength;
+
+    private double[] existing;
+    private double[] source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(40_000);
+        existing = randomDistribution(random, existingLength);
+        source = randomDistribution(random, newLength);
+    }
+
+    @Benchmark
+    public double[] direct() {
+        return ProbabilityMath.convolveDirect(existing, source);
+    }
+
+    @Benchmark
+    public double[] fft() {
+        return FftConvolution.convolve(existing, source);
+    }
+
+    @Benchmark
+    public double[] automatic() {
+        return ProbabilityMath.convolve(existing, source);
+    }
+
+    private static double[] randomDistribution(Random random, int length) {
+        double[] dist = new double[length];
+        double total = 0;
+        for (int i = 0; i < length; i++) {
+            dist[i] = random.nextDouble();
+            total += dist[i];
+        }
+        for (int i = 0; i < length; i++) dist[i] /= total;
+        return dist;
+    }
+}
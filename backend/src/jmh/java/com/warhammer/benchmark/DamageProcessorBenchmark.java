@@ -0,0 +1,43 @@
+package com.warhammer.benchmark;
+
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.util.DamageProcessor;
+import com.warhammer.util.HitProcessor;
+import com.warhammer.util.WoundProcessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the damage stage for a single corpus unit, expanding its T4 wound distribution
+ * by the unit's damage characteristic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class DamageProcessorBenchmark {
+
+    @Param({"5", "10", "20", "30"})
+    public int models;
+
+    @Param({"D6", "D6+1"})
+    public String profile;
+
+    private CalculationRequestDTO unit;
+    private double[] totalWounds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        unit = ArmyCorpus.unit(0, models, profile);
+        double[] standardHits = HitProcessor.calculateUnitDistribution(unit).getStandardHits();
+        totalWounds = WoundProcessor.calculateWoundDistribution(standardHits, 4, unit).totalWounds();
+    }
+
+    @Benchmark
+    public double[] calculateDamageDistribution() {
+        return DamageProcessor.calculateDamageDistribution(totalWounds, unit.getDamageValue());
+    }
+}
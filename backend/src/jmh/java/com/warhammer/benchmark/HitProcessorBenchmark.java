@@ -0,0 +1,39 @@
+package com.warhammer.benchmark;
+
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.util.HitProcessor;
+import com.warhammer.util.HitResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hit stage for a single corpus unit, from the attack characteristic to the
+ * partitioned standard, lethal and total hit distributions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class HitProcessorBenchmark {
+
+    @Param({"5", "10", "20", "30"})
+    public int models;
+
+    @Param({"D6", "D6+1"})
+    public String profile;
+
+    private CalculationRequestDTO unit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        unit = ArmyCorpus.unit(0, models, profile);
+    }
+
+    @Benchmark
+    public HitResult calculateUnitDistribution() {
+        return HitProcessor.calculateUnitDistribution(unit);
+    }
+}
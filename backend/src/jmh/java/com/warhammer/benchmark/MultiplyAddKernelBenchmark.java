@@ -0,0 +1,60 @@
+package com.warhammer.benchmark;
+
+import com.warhammer.util.MultiplyAddKernel;
+import com.warhammer.util.ProbabilityMath;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and the Vector API multiply-add kernels on the direct convolution loop.
+ * The {@code vector} runs fail at setup if the JVM was started without {@code jdk.incubator.vector}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class MultiplyAddKernelBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String kernelName;
+
+    @Param({"64", "256", "1024"})
+    public int existingLength;
+
+    @Param({"7", "64", "256"})
+    public int newLength;
+
+    private MultiplyAddKernel kernel;
+    private double[] existing;
+    private double[] source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernel = "vector".equals(kernelName)
+                ? MultiplyAddKernel.vector().orElseThrow(() -> new IllegalStateException("jdk.incubator.vector is not available"))
+                : MultiplyAddKernel.scalar();
+        Random random = new Random(40_000);
+        existing = randomDistribution(random, existingLength);
+        source = randomDistribution(random, newLength);
+    }
+
+    @Benchmark
+    public double[] direct() {
+        return ProbabilityMath.convolveDirect(existing, source, kernel);
+    }
+
+    private static double[] randomDistribution(Random random, int length) {
+        double[] dist = new double[length];
+        double total = 0;
+        for (int i = 0; i < length; i++) {
+            dist[i] = random.nextDouble();
+            total += dist[i];
+        }
+        for (int i = 0; i < length; i++) dist[i] /= total;
+        return dist;
+    }
+}
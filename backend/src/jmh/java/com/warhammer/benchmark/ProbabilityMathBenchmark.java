@@ -0,0 +1,48 @@
+package com.warhammer.benchmark;
+
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.util.HitProcessor;
+import com.warhammer.util.ProbabilityMath;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the raw convolution kernel by folding every unit hit distribution of a corpus army
+ * into a single army distribution, exactly as the service aggregates its hit stage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ProbabilityMathBenchmark {
+
+    @Param({"1x5", "5x10", "10x20", "20x30"})
+    public String army;
+
+    @Param({"D6", "D6+1"})
+    public String profile;
+
+    private double[][] unitHitDistributions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<CalculationRequestDTO> requests = ArmyCorpus.army(army, profile);
+        unitHitDistributions = new double[requests.size()][];
+        for (int i = 0; i < requests.size(); i++) {
+            unitHitDistributions[i] = HitProcessor.calculateUnitDistribution(requests.get(i)).getTotalVisualHits();
+        }
+    }
+
+    @Benchmark
+    public double[] convolveArmyHits() {
+        double[] armyDist = {1.0};
+        for (double[] unitDist : unitHitDistributions) {
+            armyDist = ProbabilityMath.convolve(armyDist, unitDist);
+        }
+        return armyDist;
+    }
+}
@@ -0,0 +1,42 @@
+package com.warhammer.benchmark;
+
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.util.HitProcessor;
+import com.warhammer.util.WoundProcessor;
+import com.warhammer.util.WoundResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the wound stage for a single corpus unit against the T4 baseline target.
+ * The hit distribution feeding the stage is prepared once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class WoundProcessorBenchmark {
+
+    @Param({"5", "10", "20", "30"})
+    public int models;
+
+    @Param({"D6", "D6+1"})
+    public String profile;
+
+    private CalculationRequestDTO unit;
+    private double[] standardHits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        unit = ArmyCorpus.unit(0, models, profile);
+        standardHits = HitProcessor.calculateUnitDistribution(unit).getStandardHits();
+    }
+
+    @Benchmark
+    public WoundResult calculateWoundDistribution() {
+        return WoundProcessor.calculateWoundDistribution(standardHits, 4, unit);
+    }
+}
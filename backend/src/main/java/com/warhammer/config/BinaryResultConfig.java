@@ -0,0 +1,29 @@
+package com.warhammer.config;
+
+import com.warhammer.controller.BinaryResultConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+/**
+ * Adds the binary result encoding to the end of the message converters. Content negotiation
+ * picks the first converter that can produce an accepted type, so only clients that ask for
+ * {@value BinaryResultConverter#MEDIA_TYPE_VALUE} explicitly get it; clients that accept any type stay on JSON.
+ */
+@Configuration
+public class BinaryResultConfig implements WebMvcConfigurer {
+
+    private final JsonMapper jsonMapper;
+
+    public BinaryResultConfig(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new BinaryResultConverter(jsonMapper));
+    }
+}
@@ -0,0 +1,28 @@
+package com.warhammer.config;
+
+import com.warhammer.controller.LiveSessionHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registers the live army session WebSocket and the scheduler that evicts idle sessions.
+ */
+@Configuration
+@EnableWebSocket
+@EnableScheduling
+public class LiveSessionConfig implements WebSocketConfigurer {
+
+    private final LiveSessionHandler liveSessionHandler;
+
+    public LiveSessionConfig(LiveSessionHandler liveSessionHandler) {
+        this.liveSessionHandler = liveSessionHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(liveSessionHandler, "/api/calculate/live").setAllowedOrigins("*");
+    }
+}
@@ -0,0 +1,159 @@
+package com.warhammer.controller;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.warhammer.dto.CalculationResultDTO;
+import com.warhammer.util.ProbabilityList;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a {@link CalculationResultDTO} in a compact binary form for clients that send
+ * {@code Accept: application/vnd.warhammer.calc+binary}. JSON stays the default for everyone else.
+ * <p>
+ * The hit, wound and damage arrays make up most of a JSON result and most of its serialization
+ * work. Here they are sent as packed blocks that start at their first non-zero outcome, and every
+ * other field goes into a small JSON header. All numbers are little-endian:
+ * <pre>
+ * "WHCR"  u8 version (1)  u8 block count  u16 reserved
+ * u32 header length, followed by the UTF-8 JSON result without its three probability arrays
+ * per block: u8 field (0 hits, 1 wounds, 2 damage)  u8 encoding (0 float64, 1 float32, 2 uint16)
+ *            u16 reserved  u32 offset  u32 count, followed by count values
+ * </pre>
+ * The encoding is chosen with a media type parameter, e.g. {@code ...+binary;encoding=uint16}, and
+ * defaults to float32. uint16 values are probabilities quantized to {@code round(p * 65535)}, finer
+ * than the four decimals of the JSON lists. Float blocks carry the unrounded probabilities.
+ * <p>
+ * Registered by {@link com.warhammer.config.BinaryResultConfig} after the JSON converter, so clients
+ * that accept any type still get JSON.
+ */
+public class BinaryResultConverter extends AbstractHttpMessageConverter<CalculationResultDTO> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.warhammer.calc+binary";
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+    private static final byte[] MAGIC = {'W', 'H', 'C', 'R'};
+    private static final int VERSION = 1;
+    private static final int BLOCK_HEADER_BYTES = 12;
+
+    private final JsonMapper headerMapper;
+
+    /**
+     * Which of the packed encodings a block uses, with its wire code.
+     */
+    enum Encoding {
+        FLOAT64(0, Double.BYTES),
+        FLOAT32(1, Float.BYTES),
+        UINT16(2, Short.BYTES);
+
+        private final int code;
+        private final int bytes;
+
+        Encoding(int code, int bytes) {
+            this.code = code;
+            this.bytes = bytes;
+        }
+
+        static Encoding fromParameter(String value) {
+            if (value == null) return FLOAT32;
+            return switch (value.toLowerCase()) {
+                case "float64" -> FLOAT64;
+                case "uint16" -> UINT16;
+                default -> FLOAT32;
+            };
+        }
+    }
+
+    /**
+     * Keeps the probability arrays out of the JSON header; they follow as packed blocks.
+     */
+    private interface WithoutProbabilities {
+        @JsonIgnore List<Double> getProbabilities();
+        @JsonIgnore List<Double> getWoundProbabilities();
+        @JsonIgnore List<Double> getDamageProbabilities();
+    }
+
+    public BinaryResultConverter(JsonMapper jsonMapper) {
+        super(MEDIA_TYPE);
+        this.headerMapper = jsonMapper.rebuild().addMixIn(CalculationResultDTO.class, WithoutProbabilities.class).build();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CalculationResultDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected CalculationResultDTO readInternal(Class<? extends CalculationResultDTO> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Binary results are response-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(CalculationResultDTO result, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        Encoding encoding = Encoding.fromParameter(contentType == null ? null : contentType.getParameter("encoding"));
+        write(result, encoding, outputMessage.getBody());
+    }
+
+    /**
+     * Encodes a result onto a stream.
+     */
+    void write(CalculationResultDTO result, Encoding encoding, OutputStream body) throws IOException {
+        List<List<Double>> arrays = new ArrayList<>(3);
+        arrays.add(result.getProbabilities());
+        arrays.add(result.getWoundProbabilities());
+        arrays.add(result.getDamageProbabilities());
+        int blockCount = (int) arrays.stream().filter(array -> array != null).count();
+
+        byte[] header = headerMapper.writeValueAsBytes(result);
+        ByteBuffer prefix = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        prefix.put(MAGIC).put((byte) VERSION).put((byte) blockCount).putShort((short) 0).putInt(header.length);
+        body.write(prefix.array());
+        body.write(header);
+
+        for (int field = 0; field < arrays.size(); field++) {
+            if (arrays.get(field) != null) {
+                body.write(encodeBlock(field, arrays.get(field), encoding));
+            }
+        }
+        body.flush();
+    }
+
+    private static byte[] encodeBlock(int field, List<Double> probabilities, Encoding encoding) {
+        int offset;
+        double[] values;
+        if (probabilities instanceof ProbabilityList packed) {
+            offset = packed.offset();
+            values = packed.body();
+        } else {
+            offset = 0;
+            values = probabilities.stream().mapToDouble(Double::doubleValue).toArray();
+        }
+
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + values.length * encoding.bytes).order(ByteOrder.LITTLE_ENDIAN);
+        block.put((byte) field).put((byte) encoding.code).putShort((short) 0).putInt(offset).putInt(values.length);
+        for (double value : values) {
+            switch (encoding) {
+                case FLOAT64 -> block.putDouble(value);
+                case FLOAT32 -> block.putFloat((float) value);
+                case UINT16 -> block.putShort((short) Math.round(Math.min(1.0, Math.max(0.0, value)) * 0xFFFF));
+            }
+        }
+        return block.array();
+    }
+}
@@ -1,9 +1,30 @@
 package com.warhammer.controller;
 
+import com.warhammer.dto.BatchArmyDTO;
+import com.warhammer.dto.BatchResultDTO;
+import com.warhammer.dto.CacheStatsDTO;
 import com.warhammer.dto.CalculationRequestDTO;
 import com.warhammer.dto.CalculationResultDTO;
+import com.warhammer.dto.ComparisonResultDTO;
+import com.warhammer.dto.PreviewResultDTO;
+import com.warhammer.dto.SimulationResultDTO;
+import com.warhammer.service.BatchCalculationService;
 import com.warhammer.service.CalculatorService;
+import com.warhammer.service.ComparisonService;
+import com.warhammer.service.PreviewService;
+import com.warhammer.service.ResultFields;
+import com.warhammer.service.SimulationService;
+import com.warhammer.service.TargetUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List; 
 
 @RestController
@@ -12,13 +33,160 @@ import java.util.List;
 public class CalculatorController {
 
     private final CalculatorService calculatorService;
+    private final BatchCalculationService batchCalculationService;
+    private final ComparisonService comparisonService;
+    private final SimulationService simulationService;
+    private final PreviewService previewService;
+    private final long batchTimeoutMs;
+    private final long streamTimeoutMs;
 
-    public CalculatorController(CalculatorService calculatorService) {
+    public CalculatorController(CalculatorService calculatorService, BatchCalculationService batchCalculationService,
+                                ComparisonService comparisonService,
+                                SimulationService simulationService,
+                                PreviewService previewService,
+                                @Value("${calculator.batch.timeout-ms:3600000}") long batchTimeoutMs,
+                                @Value("${calculator.stream.timeout-ms:300000}") long streamTimeoutMs) {
         this.calculatorService = calculatorService;
+        this.batchCalculationService = batchCalculationService;
+        this.comparisonService = comparisonService;
+        this.simulationService = simulationService;
+        this.previewService = previewService;
+        this.batchTimeoutMs = batchTimeoutMs;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
 
+    /**
+     * Calculates an army. With {@code grid=true} the result also holds the damage grid across
+     * T1-T12, armour saves 2+ to None and invulnerable saves 2+ to None.
+     * <p>
+     * {@code fields} selects result sections by name (for example {@code fields=damage,saveScaling}) and
+     * only their stages are run; by default every section is returned. With {@code summary=true} the hit,
+     * wound and damage cards leave out their probability arrays.
+     * <p>
+     * Armies whose exact distributions would be very wide are approximated instead; their result is
+     * flagged {@code approximate} and carries a bound on the error of its cumulative probabilities.
+     * <p>
+     * {@code feelNoPain} gives the target a Feel No Pain roll (2 to 6, 7 for none) against every damage figure.
+     * With {@code targetModels} and {@code targetWounds} the result also counts the models of such a target
+     * unit that the army slays.
+     */
     @PostMapping
-    public CalculationResultDTO calculate(@RequestBody List<CalculationRequestDTO> requests) {
-        return calculatorService.calculateArmyHits(requests);
+    public CalculationResultDTO calculate(@RequestBody List<CalculationRequestDTO> requests,
+                                          @RequestParam(defaultValue = "false") boolean grid,
+                                          @RequestParam(required = false) List<String> fields,
+                                          @RequestParam(defaultValue = "false") boolean summary,
+                                          @RequestParam(defaultValue = "7") int feelNoPain,
+                                          @RequestParam(required = false) Integer targetModels,
+                                          @RequestParam(required = false) Integer targetWounds) {
+        try {
+            return calculatorService.calculateArmyHits(requests, grid, ResultFields.parse(fields, !summary), feelNoPain,
+                    TargetUnit.of(targetModels, targetWounds));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Calculates many named armies in one call and streams one {@link BatchResultDTO} per line
+     * (newline-delimited JSON) as each army finishes.
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter calculateBatch(@RequestBody List<BatchArmyDTO> armies) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchTimeoutMs);
+        try {
+            batchCalculationService.calculateBatch(armies, result -> sendLine(emitter, result))
+                    .whenComplete((ignored, error) -> {
+                        if (error == null) {
+                            emitter.complete();
+                        } else {
+                            emitter.completeWithError(error);
+                        }
+                    });
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return emitter;
+    }
+
+    /**
+     * Calculates two or more armies against the same target sweep and compares every pair.
+     */
+    @PostMapping("/compare")
+    public ComparisonResultDTO compare(@RequestBody List<BatchArmyDTO> armies) {
+        try {
+            return comparisonService.compare(armies);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Estimates an army against one target by Monte Carlo simulation, as a cross-check of the
+     * analytic result. Pass a {@code seed} to reproduce an earlier run.
+     */
+    @PostMapping("/simulate")
+    public SimulationResultDTO simulate(@RequestBody List<CalculationRequestDTO> requests,
+                                        @RequestParam(defaultValue = "4") int toughness,
+                                        @RequestParam(defaultValue = "7") int save,
+                                        @RequestParam(required = false) Long seed) {
+        try {
+            return simulationService.simulate(requests, toughness, save, seed);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Previews an army: the exact mean and variance of every card and graph node, with normal 80% ranges,
+     * computed from unit moments in microseconds. Meant to be called on every edit, with the full
+     * calculation following once the input settles.
+     */
+    @PostMapping("/preview")
+    public PreviewResultDTO preview(@RequestBody List<CalculationRequestDTO> requests,
+                                    @RequestParam(defaultValue = "7") int feelNoPain) {
+        try {
+            return previewService.preview(requests, feelNoPain);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams an army calculation as server-sent events, one per section: the hit, wound and damage cards
+     * first, then each toughness and save node as it is computed, then the unit contributions. The stream
+     * always returns the default sections and takes none of the options of the plain calculation.
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter calculateStream(@RequestBody List<CalculationRequestDTO> requests) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        SseProgressListener listener = new SseProgressListener(emitter);
+        try {
+            calculatorService.streamArmyHits(requests, listener)
+                    .thenRun(listener::onComplete)
+                    .whenComplete((ignored, error) -> {
+                        if (error == null) {
+                            emitter.complete();
+                        } else {
+                            emitter.completeWithError(error);
+                        }
+                    });
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return emitter;
+    }
+
+    @GetMapping("/cache")
+    public CacheStatsDTO cacheStats() {
+        return calculatorService.getCacheStats();
+    }
+
+    private static void sendLine(ResponseBodyEmitter emitter, Object line) {
+        try {
+            emitter.send(line, MediaType.APPLICATION_JSON);
+            emitter.send("\n", MediaType.TEXT_PLAIN);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package com.warhammer.controller;
+
+import com.warhammer.dto.LiveDeltaDTO;
+import com.warhammer.dto.LiveUpdateDTO;
+import com.warhammer.service.LiveSessionService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+
+/**
+ * WebSocket endpoint for live army sessions.
+ * <p>
+ * The client sends one {@link LiveDeltaDTO} per message and receives one {@link LiveUpdateDTO}
+ * holding only the result sections that changed. A rejected delta is answered with an update
+ * carrying an error and leaves the session unchanged.
+ */
+@Component
+public class LiveSessionHandler extends TextWebSocketHandler {
+
+    private final LiveSessionService liveSessionService;
+    private final JsonMapper jsonMapper;
+
+    public LiveSessionHandler(LiveSessionService liveSessionService, JsonMapper jsonMapper) {
+        this.liveSessionService = liveSessionService;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        boolean opened = liveSessionService.open(session.getId(),
+                () -> closeQuietly(session, CloseStatus.GOING_AWAY.withReason("Session idle")));
+        if (!opened) {
+            session.close(CloseStatus.SERVICE_OVERLOAD.withReason("Too many live sessions"));
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        LiveUpdateDTO update;
+        try {
+            LiveDeltaDTO delta = jsonMapper.readValue(message.getPayload(), LiveDeltaDTO.class);
+            update = liveSessionService.apply(session.getId(), delta);
+        } catch (JacksonException | IllegalArgumentException e) {
+            update = LiveUpdateDTO.error(e.getMessage());
+        }
+        session.sendMessage(new TextMessage(jsonMapper.writeValueAsString(update)));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        liveSessionService.close(session.getId());
+    }
+
+    private static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException ignored) {
+            // The transport is already gone; the session state has been dropped either way.
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.warhammer.controller;
+
+import com.warhammer.dto.CalculationResultDTO;
+import com.warhammer.dto.LiveUpdateDTO;
+import com.warhammer.service.CalculationProgressListener;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Forwards the sections of a streamed calculation as named server-sent events:
+ * {@code hits}, {@code wounds}, {@code damage}, one {@code toughness} or {@code save} event per node,
+ * {@code contributions} and a final {@code complete}.
+ */
+class SseProgressListener implements CalculationProgressListener {
+
+    private final SseEmitter emitter;
+
+    SseProgressListener(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void onHits(LiveUpdateDTO.Section hits) {
+        send("hits", hits);
+    }
+
+    @Override
+    public void onWounds(LiveUpdateDTO.Section wounds) {
+        send("wounds", wounds);
+    }
+
+    @Override
+    public void onDamage(LiveUpdateDTO.Section damage) {
+        send("damage", damage);
+    }
+
+    @Override
+    public void onToughnessNode(CalculationResultDTO.ToughnessNode node) {
+        send("toughness", node);
+    }
+
+    @Override
+    public void onSaveNode(CalculationResultDTO.SaveNode node) {
+        send("save", node);
+    }
+
+    @Override
+    public void onUnitContributions(List<CalculationResultDTO.UnitContribution> contributions) {
+        send("contributions", contributions);
+    }
+
+    void onComplete() {
+        send("complete", "");
+    }
+
+    private void send(String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.warhammer.dto;
+
+import java.util.List;
+
+/**
+ * One named army of a batch calculation or a comparison.
+ */
+public class BatchArmyDTO {
+
+    private String name;
+    private List<CalculationRequestDTO> units;
+
+    public BatchArmyDTO() {}
+
+    public BatchArmyDTO(String name, List<CalculationRequestDTO> units) {
+        this.name = name;
+        this.units = units;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public List<CalculationRequestDTO> getUnits() { return units; }
+    public void setUnits(List<CalculationRequestDTO> units) { this.units = units; }
+}
@@ -0,0 +1,39 @@
+package com.warhammer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The outcome of one army of a batch calculation, streamed as soon as that army finishes.
+ * <p>
+ * Results arrive in completion order, so {@code index} gives the position of the army in the
+ * submitted batch. Exactly one of {@code result} and {@code error} is set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResultDTO {
+
+    private int index;
+    private String name;
+    private CalculationResultDTO result;
+    private String error;
+
+    public BatchResultDTO() {}
+
+    public BatchResultDTO(int index, String name, CalculationResultDTO result, String error) {
+        this.index = index;
+        this.name = name;
+        this.result = result;
+        this.error = error;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public CalculationResultDTO getResult() { return result; }
+    public void setResult(CalculationResultDTO result) { this.result = result; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,34 @@
+package com.warhammer.dto;
+
+/**
+ * Snapshot of the per-unit distribution cache counters.
+ */
+public class CacheStatsDTO {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int entries;
+    private final long currentBytes;
+    private final long maxBytes;
+
+    public CacheStatsDTO(long hits, long misses, long evictions, int entries, long currentBytes, long maxBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.currentBytes = currentBytes;
+        this.maxBytes = maxBytes;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public int getEntries() { return entries; }
+    public long getCurrentBytes() { return currentBytes; }
+    public long getMaxBytes() { return maxBytes; }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
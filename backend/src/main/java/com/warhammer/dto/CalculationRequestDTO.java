@@ -22,6 +22,32 @@ public class CalculationRequestDTO {
 
     public CalculationRequestDTO() {}
 
+    /**
+     * @return A copy of this profile with a different number of models.
+     */
+    public CalculationRequestDTO withNumberOfModels(int numberOfModels) {
+        CalculationRequestDTO copy = new CalculationRequestDTO();
+        copy.unitName = unitName;
+        copy.numberOfModels = numberOfModels;
+        copy.attacksPerModel = attacksPerModel;
+        copy.bsValue = bsValue;
+        copy.strength = strength;
+        copy.ap = ap;
+        copy.sustainedHits = sustainedHits;
+        copy.sustainedValue = sustainedValue;
+        copy.rerollType = rerollType;
+        copy.critHitValue = critHitValue;
+        copy.damageValue = damageValue;
+        copy.lethalHits = lethalHits;
+        copy.woundRerollType = woundRerollType;
+        copy.critWoundValue = critWoundValue;
+        copy.devastatingWounds = devastatingWounds;
+        copy.plusOneToHit = plusOneToHit;
+        copy.plusOneToWound = plusOneToWound;
+        copy.torrent = torrent;
+        return copy;
+    }
+
     public String getUnitName() { return unitName; }
     public void setUnitName(String unitName) { this.unitName = unitName; }
 
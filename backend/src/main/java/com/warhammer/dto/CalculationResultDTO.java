@@ -1,32 +1,38 @@
 package com.warhammer.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 import java.util.ArrayList;
 
+/**
+ * The result of an army calculation. Sections the caller did not select are null and left out of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class CalculationResultDTO {
     // --- Hit Fields ---
     private List<Double> probabilities; 
-    private int maxHits;
-    private double avgValue;
-    private double avgProb;
+    private Integer maxHits;
+    private Double avgValue = 0.0;
+    private Double avgProb = 0.0;
     private String range80;     
     private String rangeStd;
-    private double probAtLeastAvg; 
+    private Double probAtLeastAvg = 0.0; 
     private String rangeTop5;
 
     // --- Wound Fields ---
     private List<Double> woundProbabilities;
-    private double woundAvgValue;
+    private Double woundAvgValue = 0.0;
     private String woundRange80;
     private String woundRangeTop5;
-    private double woundProbAtLeastAvg;
+    private Double woundProbAtLeastAvg = 0.0;
 
     // --- Damage Fields ---
     private List<Double> damageProbabilities;
-    private double damageAvgValue;
+    private Double damageAvgValue = 0.0;
     private String damageRange80;
     private String damageRangeTop5;
-    private double damageProbAtLeastAvg;
+    private Double damageProbAtLeastAvg = 0.0;
 
     // --- Toughness Analysis Fields ---
     private List<ToughnessNode> toughnessScaling = new ArrayList<>();
@@ -34,7 +40,20 @@ public class CalculationResultDTO {
     // --- Damage Analysis Fields ---
     private List<SaveNode> saveScaling = new ArrayList<>();
 
-    public CalculationResultDTO(List<Double> probabilities, int maxHits) {
+    // --- Unit Contribution Fields ---
+    private List<UnitContribution> unitContributions = new ArrayList<>();
+
+    // --- Damage Grid Fields (only when requested) ---
+    private List<DamageGridCell> damageGrid;
+
+    // --- Models Slain Fields (only against a target unit) ---
+    private ModelsSlain modelsSlain;
+
+    // --- Approximation Fields (only for approximate results) ---
+    private Boolean approximate;
+    private Double approximationError;
+
+    public CalculationResultDTO(List<Double> probabilities, Integer maxHits) {
         this.probabilities = probabilities;
         this.maxHits = maxHits;
     }
@@ -68,47 +87,114 @@ public class CalculationResultDTO {
         }
     }
 
+    /**
+     * How much the army damage distribution changes when a single unit is left out.
+     */
+    public static class UnitContribution {
+        public int unitIndex;
+        public String unitName;
+        public double averageWithout;
+        public double averageDrop;
+        public double probAtLeastAvgWithout;
+        public double probAtLeastAvgDrop;
+
+        public UnitContribution(int index, String name, double avgWithout, double avgDrop, double probWithout, double probDrop) {
+            this.unitIndex = index;
+            this.unitName = name;
+            this.averageWithout = avgWithout;
+            this.averageDrop = avgDrop;
+            this.probAtLeastAvgWithout = probWithout;
+            this.probAtLeastAvgDrop = probDrop;
+        }
+    }
+
+    /**
+     * Damage statistics against one toughness, armour save and invulnerable save combination.
+     * The better of the two saves applies; invulnerable saves ignore AP.
+     */
+    public static class DamageGridCell {
+        public int toughness;
+        public String saveLabel;
+        public String invulnLabel;
+        public double average;
+        public double lower80;
+        public double upper80;
+
+        public DamageGridCell(int t, String save, String invuln, double avg, double low, double high) {
+            this.toughness = t;
+            this.saveLabel = save;
+            this.invulnLabel = invuln;
+            this.average = avg;
+            this.lower80 = low;
+            this.upper80 = high;
+        }
+    }
+
+    /**
+     * How many models of the target unit the army slays, once damage is allocated model by model.
+     * Damage beyond what a model has left is lost, so these figures can fall short of damage / wounds.
+     * The probabilities and the card figures are against no save; the save nodes count models slain.
+     */
+    public static class ModelsSlain {
+        public int models;
+        public int woundsPerModel;
+        public List<Double> probabilities;
+        public double average;
+        public double probAllSlain;
+        public List<SaveNode> saveScaling;
+
+        public ModelsSlain(int models, int woundsPerModel, List<Double> probabilities, double average,
+                           double probAllSlain, List<SaveNode> saveScaling) {
+            this.models = models;
+            this.woundsPerModel = woundsPerModel;
+            this.probabilities = probabilities;
+            this.average = average;
+            this.probAllSlain = probAllSlain;
+            this.saveScaling = saveScaling;
+        }
+    }
+
     // --- Hit Getters and Setters ---
     public List<Double> getProbabilities() { return probabilities; }
     public void setProbabilities(List<Double> probabilities) { this.probabilities = probabilities; }
-    public int getMaxHits() { return maxHits; }
-    public void setMaxHits(int maxHits) { this.maxHits = maxHits; }
-    public double getAvgValue() { return avgValue; }
-    public void setAvgValue(double avgValue) { this.avgValue = avgValue; }
-    public double getAvgProb() { return avgProb; }
-    public void setAvgProb(double avgProb) { this.avgProb = avgProb; }
+    public Integer getMaxHits() { return maxHits; }
+    public void setMaxHits(Integer maxHits) { this.maxHits = maxHits; }
+    public Double getAvgValue() { return avgValue; }
+    public void setAvgValue(Double avgValue) { this.avgValue = avgValue; }
+    public Double getAvgProb() { return avgProb; }
+    public void setAvgProb(Double avgProb) { this.avgProb = avgProb; }
     public String getRange80() { return range80; }
     public void setRange80(String range80) { this.range80 = range80; }
     public String getRangeStd() { return rangeStd; }
     public void setRangeStd(String rangeStd) { this.rangeStd = rangeStd; }
-    public double getProbAtLeastAvg() { return probAtLeastAvg; }
-    public void setProbAtLeastAvg(double probAtLeastAvg) { this.probAtLeastAvg = probAtLeastAvg; }
+    public Double getProbAtLeastAvg() { return probAtLeastAvg; }
+    public void setProbAtLeastAvg(Double probAtLeastAvg) { this.probAtLeastAvg = probAtLeastAvg; }
     public String getRangeTop5() { return rangeTop5; }
     public void setRangeTop5(String rangeTop5) { this.rangeTop5 = rangeTop5; }
 
     // --- Wound Getters and Setters ---
     public List<Double> getWoundProbabilities() { return woundProbabilities; }
     public void setWoundProbabilities(List<Double> woundProbabilities) { this.woundProbabilities = woundProbabilities; }
-    public double getWoundAvgValue() { return woundAvgValue; }
-    public void setWoundAvgValue(double woundAvgValue) { this.woundAvgValue = woundAvgValue; }
+    public Double getWoundAvgValue() { return woundAvgValue; }
+    public void setWoundAvgValue(Double woundAvgValue) { this.woundAvgValue = woundAvgValue; }
     public String getWoundRange80() { return woundRange80; }
     public void setWoundRange80(String woundRange80) { this.woundRange80 = woundRange80; }
     public String getWoundRangeTop5() { return woundRangeTop5; }
     public void setWoundRangeTop5(String woundRangeTop5) { this.woundRangeTop5 = woundRangeTop5; }
-    public double getWoundProbAtLeastAvg() { return woundProbAtLeastAvg; }
-    public void setWoundProbAtLeastAvg(double woundProbAtLeastAvg) { this.woundProbAtLeastAvg = woundProbAtLeastAvg; }
+    public Double getWoundProbAtLeastAvg() { return woundProbAtLeastAvg; }
+    public void setWoundProbAtLeastAvg(Double woundProbAtLeastAvg) { this.woundProbAtLeastAvg = woundProbAtLeastAvg; }
 
     // --- Damage Getters and Setters ---
     public List<Double> getDamageProbabilities() { return damageProbabilities; } 
     public void setDamageProbabilities(List<Double> damageProbabilities) { this.damageProbabilities = damageProbabilities; }
-    public double getDamageAvgValue() { return damageAvgValue; }
-    public void setDamageAvgValue(double damageAvgValue) { this.damageAvgValue = damageAvgValue; }
+    public Double getDamageAvgValue() { return damageAvgValue; }
+    public void setDamageAvgValue(Double damageAvgValue) { this.damageAvgValue = damageAvgValue; }
     public String getDamageRange80() { return damageRange80; }
     public void setDamageRange80(String damageRange80) { this.damageRange80 = damageRange80; }
     public String getDamageRangeTop5() { return damageRangeTop5; }
     public void setDamageRangeTop5(String damageRangeTop5) { this.damageRangeTop5 = damageRangeTop5; }
-    public double getDamageProbAtLeastAvg() { return damageProbAtLeastAvg; }
-    public void setDamageProbAtLeastAvg(double damageProbAtLeastAvg) { this.damageProbAtLeastAvg = damageProbAtLeastAvg; }
+    public Double getDamageProbAtLeastAvg() { return damageProbAtLeastAvg; }
+    public void setDamageProbAtLeastAvg(Double damageProbAtLeastAvg) { this.damageProbAtLeastAvg = damageProbAtLeastAvg; }
 
     // --- Toughness Analysis Getters and Setters ---
     public List<ToughnessNode> getToughnessScaling() { return toughnessScaling; }
@@ -117,4 +203,22 @@ public class CalculationResultDTO {
     // --- Damage Analysis Getters and Setters ---
     public List<SaveNode> getSaveScaling() { return saveScaling; }
     public void setSaveScaling(List<SaveNode> saveScaling) { this.saveScaling = saveScaling; }
-}
\ No newline at end of file
+
+    // --- Unit Contribution Getters and Setters ---
+    public List<UnitContribution> getUnitContributions() { return unitContributions; }
+    public void setUnitContributions(List<UnitContribution> unitContributions) { this.unitContributions = unitContributions; }
+
+    // --- Damage Grid Getters and Setters ---
+    public List<DamageGridCell> getDamageGrid() { return damageGrid; }
+    public void setDamageGrid(List<DamageGridCell> damageGrid) { this.damageGrid = damageGrid; }
+
+    // --- Models Slain Getters and Setters ---
+    public ModelsSlain getModelsSlain() { return modelsSlain; }
+    public void setModelsSlain(ModelsSlain modelsSlain) { this.modelsSlain = modelsSlain; }
+
+    // --- Approximation Getters and Setters ---
+    public Boolean getApproximate() { return approximate; }
+    public void setApproximate(Boolean approximate) { this.approximate = approximate; }
+    public Double getApproximationError() { return approximationError; }
+    public void setApproximationError(Double approximationError) { this.approximationError = approximationError; }
+}
@@ -0,0 +1,110 @@
+package com.warhammer.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of evaluating several armies against the same target sweep.
+ * <p>
+ * {@code armies} holds the full result of every army in submission order; {@code comparisons} holds
+ * one entry per pair of armies, with the first army always the one submitted earlier. Chances are
+ * in percent and differences are first minus second.
+ */
+public class ComparisonResultDTO {
+
+    private List<ArmyResult> armies = new ArrayList<>();
+    private List<ArmyComparison> comparisons = new ArrayList<>();
+
+    public ComparisonResultDTO() {}
+
+    public ComparisonResultDTO(List<ArmyResult> armies, List<ArmyComparison> comparisons) {
+        this.armies = armies;
+        this.comparisons = comparisons;
+    }
+
+    public static class ArmyResult {
+        public String name;
+        public CalculationResultDTO result;
+
+        public ArmyResult(String name, CalculationResultDTO result) {
+            this.name = name;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Head-to-head statistics of two armies, computed from their distributions rather than from
+     * their summary figures. The baseline fields compare the damage cards (T4, no save).
+     */
+    public static class ArmyComparison {
+        public int firstIndex;
+        public String firstName;
+        public int secondIndex;
+        public String secondName;
+        public double probFirstMoreDamage;
+        public double probSecondMoreDamage;
+        public double probEqualDamage;
+        public double averageDifference;
+        public int lower80Difference;
+        public int medianDifference;
+        public int upper80Difference;
+        public List<ToughnessComparison> toughnessScaling = new ArrayList<>();
+        public List<SaveComparison> saveScaling = new ArrayList<>();
+
+        public ArmyComparison(int firstIndex, String firstName, int secondIndex, String secondName,
+                              double probFirst, double probSecond, double probEqual,
+                              double avgDiff, int lowDiff, int medianDiff, int highDiff) {
+            this.firstIndex = firstIndex;
+            this.firstName = firstName;
+            this.secondIndex = secondIndex;
+            this.secondName = secondName;
+            this.probFirstMoreDamage = probFirst;
+            this.probSecondMoreDamage = probSecond;
+            this.probEqualDamage = probEqual;
+            this.averageDifference = avgDiff;
+            this.lower80Difference = lowDiff;
+            this.medianDifference = medianDiff;
+            this.upper80Difference = highDiff;
+        }
+    }
+
+    /**
+     * Compares the wounds of two armies against one toughness value.
+     */
+    public static class ToughnessComparison {
+        public int toughness;
+        public double probFirstMoreWounds;
+        public double probSecondMoreWounds;
+        public double averageDifference;
+
+        public ToughnessComparison(int t, double probFirst, double probSecond, double avgDiff) {
+            this.toughness = t;
+            this.probFirstMoreWounds = probFirst;
+            this.probSecondMoreWounds = probSecond;
+            this.averageDifference = avgDiff;
+        }
+    }
+
+    /**
+     * Compares the damage of two armies against one save characteristic.
+     */
+    public static class SaveComparison {
+        public String saveLabel;
+        public double probFirstMoreDamage;
+        public double probSecondMoreDamage;
+        public double averageDifference;
+
+        public SaveComparison(String label, double probFirst, double probSecond, double avgDiff) {
+            this.saveLabel = label;
+            this.probFirstMoreDamage = probFirst;
+            this.probSecondMoreDamage = probSecond;
+            this.averageDifference = avgDiff;
+        }
+    }
+
+    public List<ArmyResult> getArmies() { return armies; }
+    public void setArmies(List<ArmyResult> armies) { this.armies = armies; }
+
+    public List<ArmyComparison> getComparisons() { return comparisons; }
+    public void setComparisons(List<ArmyComparison> comparisons) { this.comparisons = comparisons; }
+}
@@ -0,0 +1,33 @@
+package com.warhammer.dto;
+
+/**
+ * A single change to the army of a live calculation session.
+ * <p>
+ * {@code ADD} and {@code UPDATE} both insert or replace the unit stored under {@code unitId};
+ * {@code REMOVE} drops it and ignores {@code unit}.
+ */
+public class LiveDeltaDTO {
+
+    public enum Operation { ADD, UPDATE, REMOVE }
+
+    private Operation op;
+    private String unitId;
+    private CalculationRequestDTO unit;
+
+    public LiveDeltaDTO() {}
+
+    public LiveDeltaDTO(Operation op, String unitId, CalculationRequestDTO unit) {
+        this.op = op;
+        this.unitId = unitId;
+        this.unit = unit;
+    }
+
+    public Operation getOp() { return op; }
+    public void setOp(Operation op) { this.op = op; }
+
+    public String getUnitId() { return unitId; }
+    public void setUnitId(String unitId) { this.unitId = unitId; }
+
+    public CalculationRequestDTO getUnit() { return unit; }
+    public void setUnit(CalculationRequestDTO unit) { this.unit = unit; }
+}
@@ -0,0 +1,83 @@
+package com.warhammer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The result sections of a live calculation session that changed after a delta.
+ * <p>
+ * Sections that are unaffected by the delta are left {@code null} and omitted from the message,
+ * so the client keeps its previous copy. The first update of a session carries every section.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LiveUpdateDTO {
+
+    /**
+     * Headline statistics and the rounded distribution of one pipeline stage.
+     */
+    public static class Section {
+        public List<Double> probabilities;
+        public double average;
+        public String range80;
+        public String rangeTop5;
+        public double probAtLeastAvg;
+
+        public Section(List<Double> probabilities, double average, String range80, String rangeTop5, double probAtLeastAvg) {
+            this.probabilities = probabilities;
+            this.average = average;
+            this.range80 = range80;
+            this.rangeTop5 = rangeTop5;
+            this.probAtLeastAvg = probAtLeastAvg;
+        }
+    }
+
+    private long revision;
+    private int unitCount;
+    private Section hits;
+    private Section wounds;
+    private Section damage;
+    private List<CalculationResultDTO.ToughnessNode> toughnessScaling;
+    private List<CalculationResultDTO.SaveNode> saveScaling;
+    private String error;
+
+    public LiveUpdateDTO() {}
+
+    public LiveUpdateDTO(long revision, int unitCount) {
+        this.revision = revision;
+        this.unitCount = unitCount;
+    }
+
+    /**
+     * @return An update that only reports a rejected delta; the session state is unchanged.
+     */
+    public static LiveUpdateDTO error(String message) {
+        LiveUpdateDTO update = new LiveUpdateDTO();
+        update.error = message;
+        return update;
+    }
+
+    public long getRevision() { return revision; }
+    public void setRevision(long revision) { this.revision = revision; }
+
+    public int getUnitCount() { return unitCount; }
+    public void setUnitCount(int unitCount) { this.unitCount = unitCount; }
+
+    public Section getHits() { return hits; }
+    public void setHits(Section hits) { this.hits = hits; }
+
+    public Section getWounds() { return wounds; }
+    public void setWounds(Section wounds) { this.wounds = wounds; }
+
+    public Section getDamage() { return damage; }
+    public void setDamage(Section damage) { this.damage = damage; }
+
+    public List<CalculationResultDTO.ToughnessNode> getToughnessScaling() { return toughnessScaling; }
+    public void setToughnessScaling(List<CalculationResultDTO.ToughnessNode> toughnessScaling) { this.toughnessScaling = toughnessScaling; }
+
+    public List<CalculationResultDTO.SaveNode> getSaveScaling() { return saveScaling; }
+    public void setSaveScaling(List<CalculationResultDTO.SaveNode> saveScaling) { this.saveScaling = saveScaling; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,56 @@
+package com.warhammer.dto;
+
+import java.util.List;
+
+/**
+ * A quick preview of an army's result: the mean, variance and a rough 80% range of every card and
+ * graph node of {@link CalculationResultDTO}, without any probability arrays.
+ * <p>
+ * Means and variances are exact. The 80% ranges are taken from a normal curve with the same mean and
+ * variance, so unlike the percentiles of the full result they are not whole numbers and can be off
+ * for small, skewed outcomes.
+ */
+public class PreviewResultDTO {
+
+    /**
+     * The moments of one pipeline stage.
+     */
+    public static class Card {
+        public double average;
+        public double variance;
+        public double standardDeviation;
+        public double lower80;
+        public double upper80;
+
+        public Card(double average, double variance, double standardDeviation, double lower80, double upper80) {
+            this.average = average;
+            this.variance = variance;
+            this.standardDeviation = standardDeviation;
+            this.lower80 = lower80;
+            this.upper80 = upper80;
+        }
+    }
+
+    private Card hits;
+    private Card wounds;
+    private Card damage;
+    private List<CalculationResultDTO.ToughnessNode> toughnessScaling;
+    private List<CalculationResultDTO.SaveNode> saveScaling;
+
+    public PreviewResultDTO() {}
+
+    public Card getHits() { return hits; }
+    public void setHits(Card hits) { this.hits = hits; }
+
+    public Card getWounds() { return wounds; }
+    public void setWounds(Card wounds) { this.wounds = wounds; }
+
+    public Card getDamage() { return damage; }
+    public void setDamage(Card damage) { this.damage = damage; }
+
+    public List<CalculationResultDTO.ToughnessNode> getToughnessScaling() { return toughnessScaling; }
+    public void setToughnessScaling(List<CalculationResultDTO.ToughnessNode> toughnessScaling) { this.toughnessScaling = toughnessScaling; }
+
+    public List<CalculationResultDTO.SaveNode> getSaveScaling() { return saveScaling; }
+    public void setSaveScaling(List<CalculationResultDTO.SaveNode> saveScaling) { this.saveScaling = saveScaling; }
+}
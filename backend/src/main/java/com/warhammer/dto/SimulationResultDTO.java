@@ -0,0 +1,61 @@
+package com.warhammer.dto;
+
+/**
+ * The result of a Monte Carlo simulation of one army against one target.
+ * <p>
+ * The damage card holds unsaved damage with each unit using its own damage characteristic, like
+ * the save scaling nodes of {@link CalculationResultDTO}. {@code damageMeanHalfWidth} is the
+ * half-width of the confidence interval on the mean damage; {@code converged} is false when the
+ * trial limit was reached first.
+ */
+public class SimulationResultDTO {
+
+    private int toughness;
+    private String saveLabel;
+    private long seed;
+    private long trials;
+    private double damageMeanHalfWidth;
+    private boolean converged;
+    private LiveUpdateDTO.Section hits;
+    private LiveUpdateDTO.Section wounds;
+    private LiveUpdateDTO.Section damage;
+
+    public SimulationResultDTO() {}
+
+    public SimulationResultDTO(int toughness, String saveLabel, long seed, long trials, double damageMeanHalfWidth,
+                               boolean converged) {
+        this.toughness = toughness;
+        this.saveLabel = saveLabel;
+        this.seed = seed;
+        this.trials = trials;
+        this.damageMeanHalfWidth = damageMeanHalfWidth;
+        this.converged = converged;
+    }
+
+    public int getToughness() { return toughness; }
+    public void setToughness(int toughness) { this.toughness = toughness; }
+
+    public String getSaveLabel() { return saveLabel; }
+    public void setSaveLabel(String saveLabel) { this.saveLabel = saveLabel; }
+
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public long getTrials() { return trials; }
+    public void setTrials(long trials) { this.trials = trials; }
+
+    public double getDamageMeanHalfWidth() { return damageMeanHalfWidth; }
+    public void setDamageMeanHalfWidth(double damageMeanHalfWidth) { this.damageMeanHalfWidth = damageMeanHalfWidth; }
+
+    public boolean isConverged() { return converged; }
+    public void setConverged(boolean converged) { this.converged = converged; }
+
+    public LiveUpdateDTO.Section getHits() { return hits; }
+    public void setHits(LiveUpdateDTO.Section hits) { this.hits = hits; }
+
+    public LiveUpdateDTO.Section getWounds() { return wounds; }
+    public void setWounds(LiveUpdateDTO.Section wounds) { this.wounds = wounds; }
+
+    public LiveUpdateDTO.Section getDamage() { return damage; }
+    public void setDamage(LiveUpdateDTO.Section damage) { this.damage = damage; }
+}
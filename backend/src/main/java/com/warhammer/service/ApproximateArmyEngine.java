@@ -0,0 +1,277 @@
+package com.warhammer.service;
+
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.dto.CalculationResultDTO;
+import com.warhammer.util.Cumulants;
+import com.warhammer.util.DamageProcessor;
+import com.warhammer.util.Distribution;
+import com.warhammer.util.DistributionAnalyzer;
+import com.warhammer.util.EdgeworthApproximation;
+import com.warhammer.util.HitProcessor;
+import com.warhammer.util.HitResult;
+import com.warhammer.util.ModelsSlainProcessor;
+import com.warhammer.util.ScratchArena;
+import com.warhammer.util.StagePlan;
+import com.warhammer.util.WoundProcessor;
+import com.warhammer.util.WoundResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Evaluates an army from the cumulants of its models instead of convolving unit distributions.
+ * <p>
+ * The models of a unit roll independently and identically, so every army-level distribution of
+ * {@link CalculatorService} is a sum of independent per-model outcomes. Each distinct per-model
+ * outcome is computed exactly by the usual unit stages run for a single model, and the army's
+ * cumulants are the per-model cumulants times the model counts, summed over units. Distributions
+ * are then rebuilt by {@link EdgeworthApproximation}. Only the per-model stages touch arrays whose
+ * size depends on the profile, so the cost does not grow with the number of models.
+ * <p>
+ * Results come back as an already completed {@link CalculatorService.ArmyPipeline}, so they are
+ * assembled, streamed and compared exactly like exact ones. The pipeline carries the largest error
+ * bound of any distribution it holds.
+ */
+final class ApproximateArmyEngine {
+
+    private static final int BASELINE_WOUND_ROLL = 4;
+
+    private final CalculatorService calculator;
+    private final List<CalculationRequestDTO> requests;
+    private final List<CalculationRequestDTO> models;
+    private final double epsilon;
+    private final ScratchArena arena;
+
+    private final Map<Integer, HitResult> modelHits = new HashMap<>();
+    private final Map<List<Integer>, WoundResult> modelWounds = new HashMap<>();
+    private final Map<ArmyKey, EdgeworthApproximation.Approximation> armyApproximations = new HashMap<>();
+    private double errorBound;
+
+    /**
+     * Identifies an army-level distribution: the wound roll of every unit for wounds, or the planned
+     * stages of every unit for damage.
+     */
+    private record ArmyKey(List<Integer> woundRolls, List<StagePlan> plans) {}
+
+    ApproximateArmyEngine(CalculatorService calculator, List<CalculationRequestDTO> requests, double epsilon,
+                          ScratchArena arena) {
+        this.calculator = calculator;
+        this.requests = requests;
+        this.models = requests.stream().map(request -> request.withNumberOfModels(1)).toList();
+        this.epsilon = epsilon;
+        this.arena = arena;
+    }
+
+    /**
+     * Estimates the width of the widest exact army array: the unsaved damage, or the hits if those
+     * can run higher, at their per-model maximum times the model count. The single-model stages run
+     * outside the cache, so the estimate leaves the cache statistics of exact requests untouched.
+     */
+    static long estimateSupport(List<CalculationRequestDTO> requests, ScratchArena arena) {
+        long hits = 0;
+        long damage = 0;
+        for (CalculationRequestDTO request : requests) {
+            int count = request.getNumberOfModels();
+            if (count <= 0) {
+                continue;
+            }
+            CalculationRequestDTO model = request.withNumberOfModels(1);
+            HitResult modelHits = HitProcessor.calculateUnitDistribution(model, arena);
+            WoundResult modelWounds = WoundProcessor.calculateUnitWounds(modelHits, BASELINE_WOUND_ROLL, model, arena);
+            double[] modelDamage = DamageProcessor.calculateDamageDistribution(
+                    modelWounds.unsavedWounds(1.0, arena), model.getDamageValue(), arena);
+            hits += (long) count * Distribution.of(modelHits.getTotalVisualHits()).max();
+            damage += (long) count * Distribution.of(modelDamage).max();
+        }
+        return Math.max(hits, damage) + 1;
+    }
+
+    /**
+     * Builds the selected sections from per-model cumulants, mirroring the stages of
+     * {@link CalculatorService#startPipeline(List, UnitWorkMemo)}.
+     */
+    CalculatorService.ArmyPipeline pipeline(boolean includeDamageGrid, ResultFields fields, int feelNoPain,
+                                            TargetUnit target) {
+        int[] baselineRolls = new int[requests.size()];
+        Arrays.fill(baselineRolls, BASELINE_WOUND_ROLL);
+
+        CompletableFuture<Distribution> hits = null;
+        if (fields.includes(ResultFields.Section.HITS)) {
+            Cumulants army = Cumulants.ZERO;
+            for (int i = 0; i < requests.size(); i++) {
+                army = army.plus(scaled(i, calculator.trim(modelHits(i).getTotalVisualHits())));
+            }
+            hits = CompletableFuture.completedFuture(approximate(army));
+        }
+
+        // The baseline damage card applies the first unit's damage characteristic to every wound
+        CompletableFuture<Distribution> wounds = null;
+        CompletableFuture<Distribution> damage = null;
+        if (fields.includes(ResultFields.Section.WOUNDS) || fields.includes(ResultFields.Section.DAMAGE)) {
+            wounds = CompletableFuture.completedFuture(armyWounds(baselineRolls));
+            if (fields.includes(ResultFields.Section.DAMAGE)) {
+                StagePlan baseline = StagePlan.of(requests.get(0), BASELINE_WOUND_ROLL,
+                        CalculatorService.MAX_SAVE_GRAPH, CalculatorService.MAX_SAVE_GRAPH, feelNoPain);
+                Cumulants army = Cumulants.ZERO;
+                for (int i = 0; i < requests.size(); i++) {
+                    Distribution woundsPerModel = calculator.trim(modelWounds(i, BASELINE_WOUND_ROLL).totalWounds());
+                    army = army.plus(scaled(i, DamageProcessor.calculateDamageDistribution(woundsPerModel,
+                            baseline.damageExpression(), baseline.feelNoPainFailProbability(), arena)));
+                }
+                damage = CompletableFuture.completedFuture(approximate(army));
+            }
+        }
+
+        List<CompletableFuture<Distribution>> toughnessWounds = null;
+        List<CompletableFuture<CalculationResultDTO.ToughnessNode>> toughnessScaling = null;
+        if (fields.includes(ResultFields.Section.TOUGHNESS_SCALING)) {
+            toughnessWounds = new ArrayList<>();
+            toughnessScaling = new ArrayList<>();
+            for (int t = 1; t <= CalculatorService.MAX_TOUGHNESS_GRAPH; t++) {
+                Distribution army = armyWounds(woundRolls(t));
+                toughnessWounds.add(CompletableFuture.completedFuture(army));
+                toughnessScaling.add(CompletableFuture.completedFuture(calculator.extractNodeStats(t, army)));
+            }
+        }
+
+        List<CompletableFuture<Distribution>> saveDamage = null;
+        List<CompletableFuture<CalculationResultDTO.SaveNode>> saveScaling = null;
+        if (fields.includes(ResultFields.Section.SAVE_SCALING)) {
+            saveDamage = new ArrayList<>();
+            saveScaling = new ArrayList<>();
+            for (int s = CalculatorService.MIN_SAVE_GRAPH; s <= CalculatorService.MAX_SAVE_GRAPH; s++) {
+                Distribution army = armyDamage(CalculatorService.plans(requests, baselineRolls, s,
+                        CalculatorService.MAX_SAVE_GRAPH, feelNoPain));
+                saveDamage.add(CompletableFuture.completedFuture(army));
+                saveScaling.add(CompletableFuture.completedFuture(
+                        calculator.extractSaveNodeStats(CalculatorService.saveLabel(s), army)));
+            }
+        }
+
+        // Leaving a unit out subtracts its cumulants from the army's. A contribution only needs the mean
+        // and one tail probability of what is left, so no distribution is built per unit.
+        CompletableFuture<List<CalculationResultDTO.UnitContribution>> unitContributions = null;
+        if (fields.includes(ResultFields.Section.UNIT_CONTRIBUTIONS)) {
+            List<StagePlan> plans = CalculatorService.plans(requests, baselineRolls, CalculatorService.MAX_SAVE_GRAPH,
+                    CalculatorService.MAX_SAVE_GRAPH, feelNoPain);
+            Cumulants army = Cumulants.ZERO;
+            List<Cumulants> units = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                Cumulants unit = scaled(i, modelDamage(i, plans.get(i)));
+                units.add(unit);
+                army = army.plus(unit);
+            }
+            Distribution armyDamage = armyDamage(plans);
+            List<CalculationResultDTO.UnitContribution> contributions = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                Cumulants without = army.minus(units.get(i));
+                EdgeworthApproximation.Probability reachesMean =
+                        EdgeworthApproximation.probabilityAtLeast(without, armyDamage.mean());
+                errorBound = Math.max(errorBound, reachesMean.errorBound());
+                contributions.add(DistributionAnalyzer.analyzeContribution(i, requests.get(i).getUnitName(),
+                        armyDamage, without.mean(), reachesMean.value()));
+            }
+            unitContributions = CompletableFuture.completedFuture(contributions);
+        }
+
+        CompletableFuture<List<CalculationResultDTO.DamageGridCell>> damageGrid = null;
+        if (includeDamageGrid) {
+            List<CalculationResultDTO.DamageGridCell> cells = new ArrayList<>();
+            for (int t = 1; t <= CalculatorService.MAX_TOUGHNESS_GRAPH; t++) {
+                int[] requiredRolls = woundRolls(t);
+                for (int s = CalculatorService.MIN_SAVE_GRAPH; s <= CalculatorService.MAX_SAVE_GRAPH; s++) {
+                    for (int inv = CalculatorService.MIN_SAVE_GRAPH; inv <= CalculatorService.MAX_SAVE_GRAPH; inv++) {
+                        cells.add(calculator.extractGridCell(t, CalculatorService.saveLabel(s),
+                                CalculatorService.saveLabel(inv),
+                                armyDamage(CalculatorService.plans(requests, requiredRolls, s, inv, feelNoPain))));
+                    }
+                }
+            }
+            damageGrid = CompletableFuture.completedFuture(cells);
+        }
+
+        // Models slain stay exact: allocating every model's wounds in turn is the same chain as allocating
+        // the unit's at once, and the chain is absorbed long before a very large army runs out of models.
+        CompletableFuture<CalculationResultDTO.ModelsSlain> modelsSlain = null;
+        if (target != null) {
+            List<Distribution> saveSlain = new ArrayList<>();
+            for (int s = CalculatorService.MIN_SAVE_GRAPH; s <= CalculatorService.MAX_SAVE_GRAPH; s++) {
+                List<StagePlan> plans = CalculatorService.plans(requests, baselineRolls, s,
+                        CalculatorService.MAX_SAVE_GRAPH, feelNoPain);
+                List<ModelsSlainProcessor.Volley> volleys = new ArrayList<>();
+                for (int i = 0; i < requests.size(); i++) {
+                    ModelsSlainProcessor.Volley perModel = plans.get(i).volley(modelWounds(i, BASELINE_WOUND_ROLL), arena);
+                    volleys.add(new ModelsSlainProcessor.Volley(perModel.wounds(), perModel.damagePerWound(),
+                            requests.get(i).getNumberOfModels()));
+                }
+                saveSlain.add(calculator.modelsSlain(volleys, target));
+            }
+            modelsSlain = CompletableFuture.completedFuture(calculator.extractModelsSlain(target, saveSlain));
+        }
+
+        return new CalculatorService.ArmyPipeline(fields, hits, wounds, damage, toughnessWounds, toughnessScaling,
+                saveDamage, saveScaling, unitContributions, damageGrid, modelsSlain, errorBound);
+    }
+
+    private int[] woundRolls(int toughness) {
+        int[] rolls = new int[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            rolls[i] = CalculatorService.getWoundRoll(requests.get(i).getStrength(), toughness);
+        }
+        return rolls;
+    }
+
+    private Distribution armyWounds(int[] woundRolls) {
+        ArmyKey key = new ArmyKey(Arrays.stream(woundRolls).boxed().toList(), null);
+        return armyApproximations.computeIfAbsent(key, ignored -> {
+            Cumulants army = Cumulants.ZERO;
+            for (int i = 0; i < woundRolls.length; i++) {
+                army = army.plus(scaled(i, calculator.trim(modelWounds(i, woundRolls[i]).totalWounds())));
+            }
+            return approximateWithBound(army);
+        }).distribution();
+    }
+
+    private Distribution armyDamage(List<StagePlan> plans) {
+        return armyApproximations.computeIfAbsent(new ArmyKey(null, plans), ignored -> {
+            Cumulants army = Cumulants.ZERO;
+            for (int i = 0; i < plans.size(); i++) {
+                army = army.plus(scaled(i, modelDamage(i, plans.get(i))));
+            }
+            return approximateWithBound(army);
+        }).distribution();
+    }
+
+    private HitResult modelHits(int unitIndex) {
+        return modelHits.computeIfAbsent(unitIndex,
+                ignored -> calculator.calculateUnitHits(models.get(unitIndex), arena));
+    }
+
+    private WoundResult modelWounds(int unitIndex, int woundRoll) {
+        return modelWounds.computeIfAbsent(List.of(unitIndex, woundRoll), ignored ->
+                calculator.calculateUnitWounds(modelHits(unitIndex), woundRoll, models.get(unitIndex), arena));
+    }
+
+    private Distribution modelDamage(int unitIndex, StagePlan plan) {
+        return calculator.calculateUnitDamage(modelWounds(unitIndex, plan.woundRoll()), plan,
+                models.get(unitIndex), arena);
+    }
+
+    private Cumulants scaled(int unitIndex, Distribution perModel) {
+        return Cumulants.of(perModel).times(requests.get(unitIndex).getNumberOfModels());
+    }
+
+    private Distribution approximate(Cumulants cumulants) {
+        return approximateWithBound(cumulants).distribution();
+    }
+
+    private EdgeworthApproximation.Approximation approximateWithBound(Cumulants cumulants) {
+        EdgeworthApproximation.Approximation approximation = EdgeworthApproximation.approximate(cumulants, epsilon);
+        errorBound = Math.max(errorBound, approximation.errorBound());
+        return approximation;
+    }
+}
@@ -0,0 +1,102 @@
+package com.warhammer.service;
+
+import com.warhammer.dto.BatchArmyDTO;
+import com.warhammer.dto.BatchResultDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Calculates many independent armies in one call, for tooling that evaluates whole tournaments.
+ * <p>
+ * Armies run concurrently, up to {@code calculator.batch.max-concurrent-armies} at a time, and share
+ * one {@link UnitWorkMemo}: a unit profile that appears in several lists is computed once, even when
+ * those armies are in flight together. Armies that start later read it from the distribution cache,
+ * so a batch stays within {@code calculator.cache.max-bytes} however many armies it holds. Each result is reported as soon as
+ * its army finishes, so the caller can stream it out instead of waiting for the slowest army.
+ */
+@Service
+public class BatchCalculationService {
+
+    private final CalculatorService calculator;
+    private final PipelineExecutor executor;
+    private final int maxConcurrentArmies;
+    private final int maxArmies;
+
+    public BatchCalculationService(CalculatorService calculator, PipelineExecutor executor,
+                                   @Value("${calculator.batch.max-concurrent-armies:4}") int maxConcurrentArmies,
+                                   @Value("${calculator.batch.max-armies:1000}") int maxArmies) {
+        this.calculator = calculator;
+        this.executor = executor;
+        this.maxConcurrentArmies = Math.max(1, maxConcurrentArmies);
+        this.maxArmies = maxArmies;
+    }
+
+    /**
+     * Calculates every army of a batch.
+     * <p>
+     * An army that fails is reported with an error and does not stop the others. If the consumer
+     * throws (e.g., because the client went away), armies that have not started yet are skipped.
+     *
+     * @param armies The named armies, in submission order.
+     * @param onResult Receives one result per army, in completion order. Calls never overlap.
+     * @return A future that completes once every army has been reported.
+     * @throws IllegalArgumentException if the batch is empty or larger than {@code calculator.batch.max-armies}.
+     */
+    public CompletableFuture<Void> calculateBatch(List<BatchArmyDTO> armies, Consumer<BatchResultDTO> onResult) {
+        if (armies == null || armies.isEmpty()) {
+            throw new IllegalArgumentException("A batch needs at least one army");
+        }
+        if (armies.size() > maxArmies) {
+            throw new IllegalArgumentException("A batch holds at most " + maxArmies + " armies, got " + armies.size());
+        }
+
+        UnitWorkMemo unitWork = new UnitWorkMemo();
+        Semaphore running = new Semaphore(maxConcurrentArmies, true);
+        AtomicBoolean aborted = new AtomicBoolean();
+        Object reportLock = new Object();
+
+        List<CompletableFuture<Void>> reported = new ArrayList<>(armies.size());
+        for (int i = 0; i < armies.size(); i++) {
+            int index = i;
+            BatchArmyDTO army = armies.get(i);
+            reported.add(executor.orchestrate(() -> {
+                running.acquireUninterruptibly();
+                try {
+                    if (aborted.get()) {
+                        return null;
+                    }
+                    BatchResultDTO result = calculate(index, army, unitWork);
+                    synchronized (reportLock) {
+                        onResult.accept(result);
+                    }
+                    return null;
+                } catch (RuntimeException e) {
+                    aborted.set(true);
+                    throw e;
+                } finally {
+                    running.release();
+                }
+            }));
+        }
+        return CompletableFuture.allOf(reported.toArray(CompletableFuture[]::new));
+    }
+
+    private BatchResultDTO calculate(int index, BatchArmyDTO army, UnitWorkMemo unitWork) {
+        String name = army == null ? null : army.getName();
+        if (army == null || army.getUnits() == null || army.getUnits().isEmpty()) {
+            return new BatchResultDTO(index, name, null, "Army has no units");
+        }
+        try {
+            return new BatchResultDTO(index, name, calculator.calculateArmyHits(army.getUnits(), unitWork), null);
+        } catch (RuntimeException e) {
+            return new BatchResultDTO(index, name, null, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+    }
+}
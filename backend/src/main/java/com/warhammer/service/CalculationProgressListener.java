@@ -0,0 +1,25 @@
+package com.warhammer.service;
+
+import com.warhammer.dto.CalculationResultDTO;
+import com.warhammer.dto.LiveUpdateDTO;
+
+import java.util.List;
+
+/**
+ * Receives the sections of a streamed calculation as {@link CalculatorService#streamArmyHits(List, CalculationProgressListener)}
+ * produces them. Calls never overlap, and an exception thrown here fails the whole stream.
+ */
+public interface CalculationProgressListener {
+
+    void onHits(LiveUpdateDTO.Section hits);
+
+    void onWounds(LiveUpdateDTO.Section wounds);
+
+    void onDamage(LiveUpdateDTO.Section damage);
+
+    void onToughnessNode(CalculationResultDTO.ToughnessNode node);
+
+    void onSaveNode(CalculationResultDTO.SaveNode node);
+
+    void onUnitContributions(List<CalculationResultDTO.UnitContribution> contributions);
+}
@@ -1,14 +1,20 @@
 package com.warhammer.service;
 
+import com.warhammer.dto.CacheStatsDTO;
 import com.warhammer.dto.CalculationRequestDTO;
 import com.warhammer.dto.CalculationResultDTO;
+import com.warhammer.dto.LiveUpdateDTO;
 import com.warhammer.util.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Orchestrates the multi-stage probability pipeline for Warhammer 40,000 combat analysis.
@@ -19,14 +25,61 @@ import java.util.stream.Collectors;
  * <li><b>Baseline Analysis:</b> Projects wounds and damage against a standard baseline target (T4).</li>
  * <li><b>Toughness Scaling:</b> Iteratively calculates performance across the Toughness spectrum (T1-T12).</li>
  * <li><b>Save Scaling:</b> Recalculates damage distributions across target armor profiles (2+ to 6+).</li>
+ * <li><b>Unit Contribution:</b> Measures how much unsaved army damage drops when each unit is left out.</li>
  * </ol>
+ * Per-unit hit, wound and damage results are shared across requests through a {@link DistributionCache}.
+ * The baseline, toughness and save stages are independent and run concurrently on a {@link PipelineExecutor};
+ * their nodes are assembled in a fixed order. Armies whose exact arrays would be very wide are evaluated
+ * from per-model cumulants by an {@link ApproximateArmyEngine} instead, and flagged as approximate.
  */
 @Service
 public class CalculatorService {
 
-    private static final double ROUNDING_PRECISION = 10000.0;
-    private static final double[] INITIAL_STATE = {1.0};
-    private static final int MAX_TOUGHNESS_GRAPH = 12;
+    static final int MAX_TOUGHNESS_GRAPH = 12;
+    static final int MIN_SAVE_GRAPH = 2;
+    static final int MAX_SAVE_GRAPH = 7;
+
+    /**
+     * A Feel No Pain roll that stands for none, like a save of 7.
+     */
+    public static final int NO_FEEL_NO_PAIN = 7;
+
+    /**
+     * Estimated exact support above which armies are approximated from cumulants.
+     */
+    static final long DEFAULT_APPROXIMATION_THRESHOLD = 50_000;
+
+    private final DistributionCache cache;
+    private final PipelineExecutor executor;
+    private final double epsilon;
+    private final long approximationThreshold;
+
+    public CalculatorService() {
+        this(new DistributionCache());
+    }
+
+    public CalculatorService(DistributionCache cache) {
+        this(cache, new PipelineExecutor());
+    }
+
+    public CalculatorService(DistributionCache cache, PipelineExecutor executor) {
+        this(cache, executor, Distribution.DEFAULT_EPSILON, DEFAULT_APPROXIMATION_THRESHOLD);
+    }
+
+    /**
+     * @param epsilon Tail mass that army-level distributions may prune per operation.
+     * @param approximationThreshold Estimated width of the widest exact army array above which an army
+     *                               is evaluated approximately; see {@link ApproximateArmyEngine}.
+     */
+    @Autowired
+    public CalculatorService(DistributionCache cache, PipelineExecutor executor,
+                             @Value("${calculator.distribution.epsilon:1e-12}") double epsilon,
+                             @Value("${calculator.approximate.support-threshold:50000}") long approximationThreshold) {
+        this.cache = cache;
+        this.executor = executor;
+        this.epsilon = epsilon;
+        this.approximationThreshold = approximationThreshold;
+    }
 
     /**
      * Primary entry point for calculating the aggregate outcome of an army list.
@@ -34,66 +87,497 @@ public class CalculatorService {
      * @return A {@link CalculationResultDTO} containing statistical averages, range data, and trend nodes.
      */
     public CalculationResultDTO calculateArmyHits(List<CalculationRequestDTO> requests) {
+        return calculateArmyHits(requests, false);
+    }
+
+    /**
+     * Calculates an army, optionally adding the full toughness x save x invulnerable save damage grid.
+     */
+    public CalculationResultDTO calculateArmyHits(List<CalculationRequestDTO> requests, boolean includeDamageGrid) {
+        return calculateArmyHits(requests, includeDamageGrid, ResultFields.ALL);
+    }
+
+    /**
+     * Calculates only the selected result sections, running just the stages they need. Sections that
+     * were not selected, and the probability arrays when only summaries are wanted, are null.
+     */
+    public CalculationResultDTO calculateArmyHits(List<CalculationRequestDTO> requests, boolean includeDamageGrid,
+                                                  ResultFields fields) {
+        return calculateArmyHits(requests, includeDamageGrid, fields, NO_FEEL_NO_PAIN);
+    }
+
+    /**
+     * Calculates the selected sections against a target with a Feel No Pain roll, which every damage
+     * figure goes through. Wound figures are unaffected.
+     *
+     * @param feelNoPain The Feel No Pain roll, 2 to 6, or {@link #NO_FEEL_NO_PAIN}.
+     * @throws IllegalArgumentException if the Feel No Pain roll is out of range.
+     */
+    public CalculationResultDTO calculateArmyHits(List<CalculationRequestDTO> requests, boolean includeDamageGrid,
+                                                  ResultFields fields, int feelNoPain) {
+        return calculateArmyHits(requests, includeDamageGrid, fields, feelNoPain, null);
+    }
+
+    /**
+     * Calculates the selected sections and, against a target unit, how many of its models the army slays.
+     * Damage is allocated model by model against the baseline wound roll and each save of the sweep.
+     *
+     * @param target The defending unit, or {@code null} to leave out the models-slain section.
+     * @throws IllegalArgumentException if the Feel No Pain roll is out of range.
+     */
+    public CalculationResultDTO calculateArmyHits(List<CalculationRequestDTO> requests, boolean includeDamageGrid,
+                                                  ResultFields fields, int feelNoPain, TargetUnit target) {
+        if (feelNoPain < MIN_SAVE_GRAPH || feelNoPain > NO_FEEL_NO_PAIN) {
+            throw new IllegalArgumentException("Feel No Pain must be between 2 and 7 (none)");
+        }
+        if (isRequestInvalid(requests)) {
+            return createBaseResult(Distribution.neutral());
+        }
+        return assemble(startPipeline(requests, new UnitWorkMemo(), includeDamageGrid, fields, feelNoPain, target));
+    }
+
+    /**
+     * Calculates an army while sharing per-unit stages with every other army that uses the same memo.
+     */
+    CalculationResultDTO calculateArmyHits(List<CalculationRequestDTO> requests, UnitWorkMemo unitWork) {
+        if (isRequestInvalid(requests)) {
+            return createBaseResult(Distribution.neutral());
+        }
+        return assemble(startPipeline(requests, unitWork));
+    }
+
+    /**
+     * Waits for every stage of a pipeline and builds the result from the sections it was started with.
+     */
+    CalculationResultDTO assemble(ArmyPipeline pipeline) {
+        // 8. ASSEMBLY
+        // Nodes are collected in submission order, so the result does not depend on task scheduling.
+        ResultFields fields = pipeline.fields();
+        CalculationResultDTO resultDTO = new CalculationResultDTO(null, null);
+        if (fields.includes(ResultFields.Section.HITS)) {
+            Distribution hitDist = PipelineExecutor.await(pipeline.hits());
+            resultDTO.setProbabilities(fields.probabilities() ? convertToRoundedList(hitDist) : null);
+            resultDTO.setMaxHits(hitDist.max());
+            DistributionAnalyzer.enrichHits(resultDTO, hitDist);
+        } else {
+            omitHits(resultDTO);
+        }
+        if (fields.includes(ResultFields.Section.WOUNDS)) {
+            Distribution woundDist = PipelineExecutor.await(pipeline.wounds());
+            resultDTO.setWoundProbabilities(fields.probabilities() ? convertToRoundedList(woundDist) : null);
+            DistributionAnalyzer.enrichWounds(resultDTO, woundDist);
+        } else {
+            omitWounds(resultDTO);
+        }
+        if (fields.includes(ResultFields.Section.DAMAGE)) {
+            Distribution damageDist = PipelineExecutor.await(pipeline.damage());
+            resultDTO.setDamageProbabilities(fields.probabilities() ? convertToRoundedList(damageDist) : null);
+            DistributionAnalyzer.enrichDamage(resultDTO, damageDist);
+        } else {
+            omitDamage(resultDTO);
+        }
+        resultDTO.setToughnessScaling(pipeline.toughnessScaling() == null ? null : awaitAll(pipeline.toughnessScaling()));
+        resultDTO.setSaveScaling(pipeline.saveScaling() == null ? null : awaitAll(pipeline.saveScaling()));
+        resultDTO.setUnitContributions(pipeline.unitContributions() == null ? null
+                : PipelineExecutor.await(pipeline.unitContributions()));
+        if (pipeline.damageGrid() != null) {
+            resultDTO.setDamageGrid(PipelineExecutor.await(pipeline.damageGrid()));
+        }
+        if (pipeline.modelsSlain() != null) {
+            resultDTO.setModelsSlain(PipelineExecutor.await(pipeline.modelsSlain()));
+        }
+        if (pipeline.approximationError() != null) {
+            resultDTO.setApproximate(true);
+            // Rounded up, so the reported figure stays a bound
+            resultDTO.setApproximationError(Math.ceil(pipeline.approximationError() * 10000.0) / 10000.0);
+        }
+        
+        return resultDTO;
+    }
+
+    private static void omitHits(CalculationResultDTO res) {
+        res.setAvgValue(null);
+        res.setAvgProb(null);
+        res.setProbAtLeastAvg(null);
+    }
+
+    private static void omitWounds(CalculationResultDTO res) {
+        res.setWoundAvgValue(null);
+        res.setWoundProbAtLeastAvg(null);
+    }
+
+    private static void omitDamage(CalculationResultDTO res) {
+        res.setDamageAvgValue(null);
+        res.setDamageProbAtLeastAvg(null);
+    }
+
+    /**
+     * Calculates an army and reports each result section to the listener as soon as it is ready.
+     * <p>
+     * The hit, wound and damage cards are reported in that order; toughness and save nodes follow in
+     * completion order, each only after the damage card. The listener is called from one thread at a
+     * time, on a virtual thread, so it may block on network writes.
+     *
+     * @return A future that completes once every section has been reported, or fails with the first
+     * stage or listener error.
+     * @throws IllegalArgumentException if the army is empty.
+     */
+    public CompletableFuture<Void> streamArmyHits(List<CalculationRequestDTO> requests,
+                                                  CalculationProgressListener listener) {
         if (isRequestInvalid(requests)) {
-            return createBaseResult(INITIAL_STATE);
+            throw new IllegalArgumentException("An army needs at least one unit");
+        }
+        ArmyPipeline pipeline = startPipeline(requests, new UnitWorkMemo());
+        Object reportLock = new Object();
+
+        CompletableFuture<Void> hitsReported = executor.deliver(pipeline.hits(),
+                hits -> report(reportLock, () -> listener.onHits(hitSection(hits))));
+        CompletableFuture<Void> woundsReported = executor.deliver(after(hitsReported, pipeline.wounds()),
+                wounds -> report(reportLock, () -> listener.onWounds(woundSection(wounds))));
+        CompletableFuture<Void> damageReported = executor.deliver(after(woundsReported, pipeline.damage()),
+                damage -> report(reportLock, () -> listener.onDamage(damageSection(damage))));
+
+        List<CompletableFuture<Void>> reported = new ArrayList<>(List.of(damageReported));
+        for (CompletableFuture<CalculationResultDTO.ToughnessNode> node : pipeline.toughnessScaling()) {
+            reported.add(executor.deliver(after(damageReported, node),
+                    toughness -> report(reportLock, () -> listener.onToughnessNode(toughness))));
+        }
+        for (CompletableFuture<CalculationResultDTO.SaveNode> node : pipeline.saveScaling()) {
+            reported.add(executor.deliver(after(damageReported, node),
+                    save -> report(reportLock, () -> listener.onSaveNode(save))));
+        }
+        reported.add(executor.deliver(after(damageReported, pipeline.unitContributions()),
+                contributions -> report(reportLock, () -> listener.onUnitContributions(contributions))));
+        return CompletableFuture.allOf(reported.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * The in-flight stages of one army calculation. The army-level wounds at each toughness and the
+     * damage at each save are exposed alongside their nodes, in sweep order, for comparisons. Stages
+     * that no selected section needs are null; the damage grid is only present when it was requested,
+     * and the models slain only against a target unit.
+     * Approximate pipelines carry the largest error bound of their distributions, exact ones {@code null}.
+     */
+    record ArmyPipeline(
+            ResultFields fields,
+            CompletableFuture<Distribution> hits,
+            CompletableFuture<Distribution> wounds,
+            CompletableFuture<Distribution> damage,
+            List<CompletableFuture<Distribution>> toughnessWounds,
+            List<CompletableFuture<CalculationResultDTO.ToughnessNode>> toughnessScaling,
+            List<CompletableFuture<Distribution>> saveDamage,
+            List<CompletableFuture<CalculationResultDTO.SaveNode>> saveScaling,
+            CompletableFuture<List<CalculationResultDTO.UnitContribution>> unitContributions,
+            CompletableFuture<List<CalculationResultDTO.DamageGridCell>> damageGrid,
+            CompletableFuture<CalculationResultDTO.ModelsSlain> modelsSlain,
+            Double approximationError) {}
+
+    /**
+     * Submits every stage of the pipeline without waiting for any of them. Armies started with the
+     * same memo share their common per-unit stages. Armies whose exact arrays would be wider than the
+     * approximation threshold are evaluated from cumulants instead, and come back already completed.
+     */
+    ArmyPipeline startPipeline(List<CalculationRequestDTO> requests, UnitWorkMemo unitWork) {
+        return startPipeline(requests, unitWork, false, ResultFields.ALL, NO_FEEL_NO_PAIN, null);
+    }
+
+    private ArmyPipeline startPipeline(List<CalculationRequestDTO> requests, UnitWorkMemo unitWork,
+                                       boolean includeDamageGrid, ResultFields fields, int feelNoPain,
+                                       TargetUnit target) {
+        // Intermediate arrays of every stage are borrowed from one request-scoped arena, so the young
+        // generation only sees the per-unit results, the army partial sums and the response.
+        ScratchArena arena = new ScratchArena();
+
+        if (ApproximateArmyEngine.estimateSupport(requests, arena) > approximationThreshold) {
+            return new ApproximateArmyEngine(this, requests, epsilon, arena)
+                    .pipeline(includeDamageGrid, fields, feelNoPain, target);
         }
 
         // 1. PRE-CALCULATE HITS
         // Hit distributions are independent of the target and are calculated once for the entire method scope.
-        List<HitResult> allUnitHits = new ArrayList<>();
-        double[] armyHitDist = INITIAL_STATE;
-
+        // Each unit is computed in parallel; army totals are reduced in a balanced tree in request order.
+        List<CompletableFuture<HitResult>> allUnitHits = new ArrayList<>();
         for (CalculationRequestDTO request : requests) {
-            HitResult unitHits = HitProcessor.calculateUnitDistribution(request);
-            allUnitHits.add(unitHits);
-            armyHitDist = ProbabilityMath.convolve(armyHitDist, unitHits.getTotalVisualHits());
+            allUnitHits.add(unitWork.hits(request, () -> executor.compute(() -> calculateUnitHits(request, arena))));
         }
+        CompletableFuture<Distribution> armyHitDist = !fields.includes(ResultFields.Section.HITS) ? null
+                : executor.then(allOf(allUnitHits), hits -> ProbabilityMath.convolveAllDistributions(
+                        hits.stream().map(unit -> trim(unit.getTotalVisualHits())).toList(), true, arena));
+
+        // Wound results and army-level wound convolutions only depend on the required wound roll,
+        // so they are memoized for the rest of this request and shared by every pipeline below.
+        WoundMemo woundMemo = new WoundMemo(requests, allUnitHits, unitWork, arena);
 
         // 2. STANDARD PIPELINE (Baseline T4 Analysis)
-        // Calculates standard outcomes for the main statistical cards.
-        double[] standardArmyWounds = INITIAL_STATE;
-        for (int i = 0; i < requests.size(); i++) {
-            WoundResult unitWoundResult = calculateUnitWounds(allUnitHits.get(i), 4, requests.get(i));
-            standardArmyWounds = ProbabilityMath.convolve(standardArmyWounds, unitWoundResult.totalWounds());
+        // Calculates standard outcomes for the main statistical cards. The baseline damage card
+        // uses the damage characteristic of the first unit in the army, and the target's Feel No Pain.
+        int[] baselineRolls = new int[requests.size()];
+        Arrays.fill(baselineRolls, 4);
+        CompletableFuture<Distribution> baselineWounds = null;
+        CompletableFuture<Distribution> baselineDamage = null;
+        if (fields.includes(ResultFields.Section.WOUNDS) || fields.includes(ResultFields.Section.DAMAGE)) {
+            baselineWounds = woundMemo.armyWounds(baselineRolls);
+            StagePlan baseline = StagePlan.of(requests.get(0), 4, MAX_SAVE_GRAPH, MAX_SAVE_GRAPH, feelNoPain);
+            baselineDamage = !fields.includes(ResultFields.Section.DAMAGE) ? null : executor.then(baselineWounds,
+                    wounds -> DamageProcessor.calculateDamageDistribution(wounds, baseline.damageExpression(),
+                            baseline.feelNoPainFailProbability(), arena));
         }
-        
-        CalculationResultDTO resultDTO = finalizeResults(requests, armyHitDist, standardArmyWounds);
 
         // 3. TOUGHNESS SCALING PIPELINE (Trend Analysis: T1 - T12)
-        // Generates the Toughness Analysis graph data.
-        List<CalculationResultDTO.ToughnessNode> toughnessScalingData = new ArrayList<>();
-        for (int t = 1; t <= MAX_TOUGHNESS_GRAPH; t++) {
-            double[] iterationArmyWounds = INITIAL_STATE;
-
-            for (int i = 0; i < requests.size(); i++) {
-                int requiredRoll = getWoundRoll(requests.get(i).getStrength(), t);
-                WoundResult unitWoundResult = calculateUnitWounds(allUnitHits.get(i), requiredRoll, requests.get(i));
-                iterationArmyWounds = ProbabilityMath.convolve(iterationArmyWounds, unitWoundResult.totalWounds());
+        // Generates the Toughness Analysis graph data. Toughness values that give every unit the
+        // same wound roll reuse one army convolution, so there are at most 5 distinct ones per unit mix.
+        List<CompletableFuture<Distribution>> toughnessWounds = null;
+        List<CompletableFuture<CalculationResultDTO.ToughnessNode>> toughnessScalingData = null;
+        if (fields.includes(ResultFields.Section.TOUGHNESS_SCALING)) {
+            toughnessWounds = new ArrayList<>();
+            toughnessScalingData = new ArrayList<>();
+            for (int t = 1; t <= MAX_TOUGHNESS_GRAPH; t++) {
+                int toughness = t;
+                int[] requiredRolls = new int[requests.size()];
+                for (int i = 0; i < requests.size(); i++) {
+                    requiredRolls[i] = getWoundRoll(requests.get(i).getStrength(), toughness);
+                }
+                CompletableFuture<Distribution> iterationArmyWounds = woundMemo.armyWounds(requiredRolls);
+                toughnessWounds.add(iterationArmyWounds);
+                toughnessScalingData.add(executor.orchestrate(
+                        () -> extractNodeStats(toughness, PipelineExecutor.await(iterationArmyWounds))));
             }
-            toughnessScalingData.add(extractNodeStats(t, iterationArmyWounds));
         }
-        resultDTO.setToughnessScaling(toughnessScalingData);
 
         // 4. SAVE SCALING PIPELINE (Trend Analysis: 2+ to None)
         // Generates the Damage Analysis graph data, accounting for bypassing rules like Devastating Wounds.
-        List<CalculationResultDTO.SaveNode> saveScalingData = new ArrayList<>();
-        for (int s = 2; s <= 7; s++) {
-            double[] iterationArmyDamage = INITIAL_STATE;
+        List<CompletableFuture<Distribution>> saveDamage = null;
+        List<CompletableFuture<CalculationResultDTO.SaveNode>> saveScalingData = null;
+        if (fields.includes(ResultFields.Section.SAVE_SCALING)) {
+            saveDamage = new ArrayList<>();
+            saveScalingData = new ArrayList<>();
+            for (int s = MIN_SAVE_GRAPH; s <= MAX_SAVE_GRAPH; s++) {
+                CompletableFuture<Distribution> iterationArmyDamage =
+                        woundMemo.armyDamage(plans(requests, baselineRolls, s, MAX_SAVE_GRAPH, feelNoPain));
+                saveDamage.add(iterationArmyDamage);
+
+                String label = saveLabel(s);
+                saveScalingData.add(executor.orchestrate(
+                        () -> extractSaveNodeStats(label, PipelineExecutor.await(iterationArmyDamage))));
+            }
+        }
 
+        // 5. UNIT CONTRIBUTION PIPELINE (Leave-One-Out against the unsaved baseline)
+        // Reuses the per-unit "None" damage arrays of the save sweep; prefix/suffix products give every
+        // "army without unit i" distribution in O(n) convolutions.
+        CompletableFuture<List<CalculationResultDTO.UnitContribution>> unitContributions = null;
+        if (fields.includes(ResultFields.Section.UNIT_CONTRIBUTIONS)) {
+            List<StagePlan> plans = plans(requests, baselineRolls, MAX_SAVE_GRAPH, MAX_SAVE_GRAPH, feelNoPain);
+            CompletableFuture<Distribution> armyDamage = woundMemo.armyDamage(plans);
+            List<CompletableFuture<Distribution>> unitDamage = new ArrayList<>();
             for (int i = 0; i < requests.size(); i++) {
-                CalculationRequestDTO request = requests.get(i);
-                WoundResult unitWounds = calculateUnitWounds(allUnitHits.get(i), 4, request);
-                double[] unitDamage = calculateUnitDamage(unitWounds, s, request);
-                
-                iterationArmyDamage = ProbabilityMath.convolve(iterationArmyDamage, unitDamage);
+                unitDamage.add(woundMemo.unitDamage(i, plans.get(i)));
             }
+            CompletableFuture<List<Distribution>> armyWithoutUnit =
+                    executor.then(allOf(unitDamage), damage -> ProbabilityMath.leaveOneOutDistributions(damage, arena));
+            unitContributions = executor.orchestrate(() -> extractUnitContributions(requests,
+                    PipelineExecutor.await(armyDamage), PipelineExecutor.await(armyWithoutUnit)));
+        }
 
-            String label = s > 6 ? "None" : s + "+";
-            saveScalingData.add(extractSaveNodeStats(label, iterationArmyDamage));
+        // 6. DAMAGE GRID (optional: T1 - T12 x 2+ to None x invulnerable 2+ to None)
+        CompletableFuture<List<CalculationResultDTO.DamageGridCell>> damageGrid =
+                includeDamageGrid ? startDamageGrid(requests, woundMemo, feelNoPain) : null;
+
+        // 7. MODELS SLAIN (optional: against a target unit, baseline T4, 2+ to None)
+        // Allocation needs every wound's damage apart, so it runs on the unit wounds rather than the damage sums.
+        CompletableFuture<CalculationResultDTO.ModelsSlain> modelsSlain = null;
+        if (target != null) {
+            List<CompletableFuture<WoundResult>> unitWounds = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                unitWounds.add(woundMemo.unitWounds(i, baselineRolls[i]));
+            }
+            List<CompletableFuture<Distribution>> saveSlain = new ArrayList<>();
+            for (int s = MIN_SAVE_GRAPH; s <= MAX_SAVE_GRAPH; s++) {
+                List<StagePlan> plans = plans(requests, baselineRolls, s, MAX_SAVE_GRAPH, feelNoPain);
+                saveSlain.add(executor.then(allOf(unitWounds), wounds -> {
+                    List<ModelsSlainProcessor.Volley> volleys = new ArrayList<>();
+                    for (int i = 0; i < plans.size(); i++) {
+                        volleys.add(plans.get(i).volley(wounds.get(i), arena));
+                    }
+                    return modelsSlain(volleys, target);
+                }));
+            }
+            modelsSlain = executor.then(allOf(saveSlain), slain -> extractModelsSlain(target, slain));
         }
-        resultDTO.setSaveScaling(saveScalingData);
-        
-        return resultDTO;
+
+        return new ArmyPipeline(fields, armyHitDist, baselineWounds, baselineDamage, toughnessWounds,
+                toughnessScalingData, saveDamage, saveScalingData, unitContributions, damageGrid, modelsSlain, null);
+    }
+
+    /**
+     * Allocates the volleys of every unit to the models of a target, in army order.
+     */
+    Distribution modelsSlain(List<ModelsSlainProcessor.Volley> volleys, TargetUnit target) {
+        return Distribution.of(ModelsSlainProcessor.calculateModelsSlain(volleys, target.models(),
+                target.woundsPerModel(), epsilon));
+    }
+
+    /**
+     * Builds the models-slain section from the distributions of the save sweep, 2+ to None.
+     */
+    CalculationResultDTO.ModelsSlain extractModelsSlain(TargetUnit target, List<Distribution> saveSlain) {
+        List<CalculationResultDTO.SaveNode> nodes = new ArrayList<>();
+        for (int i = 0; i < saveSlain.size(); i++) {
+            nodes.add(extractSaveNodeStats(saveLabel(MIN_SAVE_GRAPH + i), saveSlain.get(i)));
+        }
+        Distribution unsaved = saveSlain.get(saveSlain.size() - 1);
+        return DistributionAnalyzer.analyzeModelsSlain(target.models(), target.woundsPerModel(), unsaved,
+                convertToRoundedList(unsaved), nodes);
+    }
+
+    /**
+     * Plans every unit's stages against one target, with each unit's wound roll, AP and damage.
+     */
+    static List<StagePlan> plans(List<CalculationRequestDTO> requests, int[] woundRolls, int save,
+                                 int invulnerableSave, int feelNoPain) {
+        List<StagePlan> plans = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            plans.add(StagePlan.of(requests.get(i), woundRolls[i], save, invulnerableSave, feelNoPain));
+        }
+        return plans;
+    }
+
+    /**
+     * Submits every cell of the damage grid. A unit's damage only depends on its planned stages, where the
+     * armour and invulnerable saves fuse into one thinning, so the 432 cells collapse onto at most 5 x 6 damage stages per unit,
+     * each applied on top of a shared wound stage, and one army convolution per distinct combination.
+     * The baseline save sweep goes through the same memo, so matching cells reuse its convolutions.
+     */
+    private CompletableFuture<List<CalculationResultDTO.DamageGridCell>> startDamageGrid(
+            List<CalculationRequestDTO> requests, WoundMemo woundMemo, int feelNoPain) {
+        List<CompletableFuture<CalculationResultDTO.DamageGridCell>> cells = new ArrayList<>();
+        for (int t = 1; t <= MAX_TOUGHNESS_GRAPH; t++) {
+            int toughness = t;
+            int[] requiredRolls = new int[requests.size()];
+            for (int i = 0; i < requests.size(); i++) {
+                requiredRolls[i] = getWoundRoll(requests.get(i).getStrength(), toughness);
+            }
+            for (int s = MIN_SAVE_GRAPH; s <= MAX_SAVE_GRAPH; s++) {
+                for (int inv = MIN_SAVE_GRAPH; inv <= MAX_SAVE_GRAPH; inv++) {
+                    String saveLabel = saveLabel(s);
+                    String invulnLabel = saveLabel(inv);
+                    cells.add(executor.then(woundMemo.armyDamage(plans(requests, requiredRolls, s, inv, feelNoPain)),
+                            damage -> extractGridCell(toughness, saveLabel, invulnLabel, damage)));
+                }
+            }
+        }
+        return allOf(cells);
+    }
+
+    /**
+     * Completes with the value of {@code next}, but not before {@code previous} has completed.
+     */
+    private static <T> CompletableFuture<T> after(CompletableFuture<Void> previous, CompletableFuture<T> next) {
+        return previous.thenCombine(next, (ignored, value) -> value);
+    }
+
+    private static void report(Object lock, Runnable callback) {
+        synchronized (lock) {
+            callback.run();
+        }
+    }
+
+    /**
+     * Completes with the results of all futures, in list order, once every one of them has completed.
+     */
+    private static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    private static <T> List<T> awaitAll(List<CompletableFuture<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(PipelineExecutor.await(future));
+        }
+        return results;
+    }
+
+    /**
+     * Request-scoped memo of army-level wound and damage distributions, keyed by the vector of wound
+     * rolls (and fail probabilities) across all units. Unit results are shared through the {@link UnitWorkMemo}.
+     * <p>
+     * A required wound roll can only be 2+ to 6+, so the baseline, the 12 toughness nodes and the
+     * 6 save nodes collapse onto a handful of distinct unit and army computations. Entries are
+     * futures, so concurrent stages asking for the same roll share one computation.
+     */
+    private final class WoundMemo {
+        private final List<CalculationRequestDTO> requests;
+        private final List<CompletableFuture<HitResult>> unitHits;
+        private final UnitWorkMemo unitWork;
+        private final Map<List<Integer>, CompletableFuture<Distribution>> armyWounds = new HashMap<>();
+        private final Map<List<StagePlan>, CompletableFuture<Distribution>> armyDamage = new HashMap<>();
+        private final ScratchArena arena;
+
+        WoundMemo(List<CalculationRequestDTO> requests, List<CompletableFuture<HitResult>> unitHits,
+                  UnitWorkMemo unitWork, ScratchArena arena) {
+            this.requests = requests;
+            this.unitHits = unitHits;
+            this.unitWork = unitWork;
+            this.arena = arena;
+        }
+
+        CompletableFuture<WoundResult> unitWounds(int unitIndex, int woundRoll) {
+            CalculationRequestDTO request = requests.get(unitIndex);
+            return unitWork.wounds(request, woundRoll, () -> executor.then(unitHits.get(unitIndex),
+                    hits -> calculateUnitWounds(hits, woundRoll, request, arena)));
+        }
+
+        CompletableFuture<Distribution> unitDamage(int unitIndex, StagePlan plan) {
+            CalculationRequestDTO request = requests.get(unitIndex);
+            // Resolved first, so the damage stage never starts a wound stage from inside the memo
+            CompletableFuture<WoundResult> unitWounds = unitWounds(unitIndex, plan.woundRoll());
+            return unitWork.damage(request, plan,
+                    () -> executor.then(unitWounds, wounds -> calculateUnitDamage(wounds, plan, request, arena)));
+        }
+
+        synchronized CompletableFuture<Distribution> armyDamage(List<StagePlan> plans) {
+            return armyDamage.computeIfAbsent(plans, ignored -> {
+                List<CompletableFuture<Distribution>> units = new ArrayList<>();
+                for (int i = 0; i < plans.size(); i++) {
+                    units.add(unitDamage(i, plans.get(i)));
+                }
+                return executor.then(allOf(units), damage -> ProbabilityMath.convolveAllDistributions(damage, true, arena));
+            });
+        }
+
+        synchronized CompletableFuture<Distribution> armyWounds(int[] woundRolls) {
+            return armyWounds.computeIfAbsent(Arrays.stream(woundRolls).boxed().toList(), key -> {
+                List<CompletableFuture<WoundResult>> units = new ArrayList<>();
+                for (int i = 0; i < woundRolls.length; i++) {
+                    units.add(unitWounds(i, woundRolls[i]));
+                }
+                return executor.then(allOf(units), wounds -> ProbabilityMath.convolveAllDistributions(
+                        wounds.stream().map(unit -> trim(unit.totalWounds())).toList(), true, arena));
+            });
+        }
+    }
+
+    /**
+     * @return The hit, miss and eviction counters of the per-unit distribution cache.
+     */
+    public CacheStatsDTO getCacheStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * Wraps a dense per-unit array as a trimmed distribution, pruned with the configured tolerance.
+     */
+    Distribution trim(double[] distribution) {
+        return Distribution.of(distribution, epsilon);
+    }
+
+    /**
+     * Calculates the hit distributions of a single unit, served from the cache when possible.
+     * Cached arrays are shared across requests; the arena only ever holds scratch buffers.
+     */
+    HitResult calculateUnitHits(CalculationRequestDTO request, ScratchArena arena) {
+        return cache.getHits(request, () -> HitProcessor.calculateUnitDistribution(request, arena));
     }
 
     /**
@@ -101,46 +585,39 @@ public class CalculatorService {
      * <p>
      * Siphons 'Lethal Hits' into the standard pool as they are subject to saves, 
      * while 'Devastating Wounds' are kept separate to bypass the save phase.
+     * The pools are derived from the joint per-attack outcome, so they stay exact.
      */
-    private WoundResult calculateUnitWounds(HitResult hits, int targetWoundRoll, CalculationRequestDTO request) {
-        WoundResult result = WoundProcessor.calculateWoundDistribution(
-            hits.getStandardHits(), 
-            targetWoundRoll, 
-            request
-        );
-
-        // Lethal Hits bypass the wound roll but still allow saving throws.
-        double[] standardPool = ProbabilityMath.convolve(result.standardWounds(), hits.getLethalHits());
-        
-        // Total pool for reporting combines standard success and bypassing success.
-        double[] totalPool = ProbabilityMath.convolve(standardPool, result.devastatingWounds());
-        
-        return new WoundResult(standardPool, result.devastatingWounds(), totalPool);
+    WoundResult calculateUnitWounds(HitResult hits, int targetWoundRoll, CalculationRequestDTO request, ScratchArena arena) {
+        return cache.getWounds(request, targetWoundRoll,
+                () -> WoundProcessor.calculateUnitWounds(hits, targetWoundRoll, request, arena));
     }
 
     /**
      * Projects final damage by branching wounds based on armor mitigation.
      * * @param wounds The partitioned distributions from the wound phase.
+     * @param woundRoll The wound roll the wounds were produced against (part of the cache key).
      * @param save The target's base saving throw.
      * @param req The request containing AP and damage characteristics.
+     * @param arena Scratch buffers for the intermediate arrays.
      * @return The combined damage distribution for the unit.
      */
-    private double[] calculateUnitDamage(WoundResult wounds, int save, CalculationRequestDTO req) {
-        double failProb = calculateFailProbability(save, req.getAp());
-        
-        // Standard wounds (and Lethals) must pass the save check.
-        double[] unsavedStandard = applySave(wounds.standardWounds(), failProb);
-        
-        // Devastating wounds bypass the save check and convolve directly into final unsaved wounds.
-        double[] totalUnsaved = ProbabilityMath.convolve(unsavedStandard, wounds.devastatingWounds());
-        
-        return DamageProcessor.calculateDamageDistribution(totalUnsaved, req.getDamageValue());
+    Distribution calculateUnitDamage(WoundResult wounds, int woundRoll, int save, CalculationRequestDTO req, ScratchArena arena) {
+        return calculateUnitDamage(wounds, StagePlan.of(req, woundRoll, save, MAX_SAVE_GRAPH, NO_FEEL_NO_PAIN), req, arena);
+    }
+
+    /**
+     * Projects final damage through the defensive stages of a plan, trimmed to its significant outcomes.
+     */
+    Distribution calculateUnitDamage(WoundResult wounds, StagePlan plan, CalculationRequestDTO req, ScratchArena arena) {
+        // Standard wounds (and Lethals) must pass the save check, while Devastating wounds 
+        // bypass it. Both are drawn from the same joint outcome, so they are not treated as independent.
+        return cache.getDamage(req, plan, () -> plan.damage(wounds, epsilon, arena));
     }
 
     /**
      * Determines the required D6 result to wound a target based on the S vs T relationship.
      */
-    private int getWoundRoll(int strength, int toughness) {
+    static int getWoundRoll(int strength, int toughness) {
         if (strength >= toughness * 2) return 2;
         if (strength > toughness) return 3;
         if (strength == toughness) return 4;
@@ -149,74 +626,61 @@ public class CalculatorService {
     }
 
     /**
-     * Calculates the probability of a save failing after AP modifications.
+     * Wraps probability distributions into Graph Nodes for the frontend.
      */
-    private double calculateFailProbability(int baseSave, int ap) {
-        if (baseSave > 6) return 1.0; 
-        int modifiedSave = baseSave + Math.abs(ap); 
-        if (modifiedSave > 6) return 1.0; 
-        if (modifiedSave < 2) modifiedSave = 2; // Natural 1 always fails
-        return (double)(modifiedSave - 1) / 6.0;
+    CalculationResultDTO.ToughnessNode extractNodeStats(int toughness, Distribution dist) {
+        double[] stats = calculateStats(dist);
+        return new CalculationResultDTO.ToughnessNode(toughness, stats[0], stats[1], stats[2]);
     }
 
-    /**
-     * Applies a binomial success/fail check to a distribution (Saving Throw simulation).
-     */
-    private double[] applySave(double[] woundDist, double failProb) {
-        double[] singleWoundOutcome = {1.0 - failProb, failProb}; 
-        double[] totalUnsavedDist = new double[woundDist.length];
-        double[] currentUnsavedDist = {1.0};
-
-        for (int w = 0; w < woundDist.length; w++) {
-            double prob = woundDist[w];
-            if (prob > 0.0000001) {
-                for (int i = 0; i < currentUnsavedDist.length; i++) totalUnsavedDist[i] += currentUnsavedDist[i] * prob;
-            }
-            if (w < woundDist.length - 1) {
-                currentUnsavedDist = ProbabilityMath.convolve(currentUnsavedDist, singleWoundOutcome);
-            }
+    private List<CalculationResultDTO.UnitContribution> extractUnitContributions(
+            List<CalculationRequestDTO> requests, Distribution armyDamage, List<Distribution> armyWithoutUnit) {
+        List<CalculationResultDTO.UnitContribution> contributions = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            contributions.add(DistributionAnalyzer.analyzeContribution(
+                    i, requests.get(i).getUnitName(), armyDamage, armyWithoutUnit.get(i)));
         }
-        return totalUnsavedDist;
+        return contributions;
     }
 
     /**
-     * Wraps probability distributions into Graph Nodes for the frontend.
+     * Labels a save characteristic for the Damage Analysis graph, with 7 standing for no save.
      */
-    private CalculationResultDTO.ToughnessNode extractNodeStats(int toughness, double[] dist) {
-        double[] stats = calculateStats(dist);
-        return new CalculationResultDTO.ToughnessNode(toughness, stats[0], stats[1], stats[2]);
+    static String saveLabel(int save) {
+        return save > 6 ? "None" : save + "+";
     }
 
-    private CalculationResultDTO.SaveNode extractSaveNodeStats(String label, double[] dist) {
+    CalculationResultDTO.SaveNode extractSaveNodeStats(String label, Distribution dist) {
         double[] stats = calculateStats(dist);
         return new CalculationResultDTO.SaveNode(label, stats[0], stats[1], stats[2]);
     }
 
+    CalculationResultDTO.DamageGridCell extractGridCell(int toughness, String saveLabel, String invulnLabel,
+                                                                Distribution dist) {
+        double[] stats = calculateStats(dist);
+        return new CalculationResultDTO.DamageGridCell(toughness, saveLabel, invulnLabel, stats[0], stats[1], stats[2]);
+    }
+
     /**
      * Extracts weighted average and 80% confidence interval from a distribution.
      */
-    private double[] calculateStats(double[] dist) {
-        double avg = 0.0, sumProb = 0.0, lower80 = -1.0, upper80 = -1.0;
-        for (int i = 0; i < dist.length; i++) {
-            double p = dist[i];
-            if (p <= 0.0000001) continue;
-            avg += i * p;
-            sumProb += p;
-            if (lower80 < 0 && sumProb >= 0.10) lower80 = i;
-            if (upper80 < 0 && sumProb >= 0.90) upper80 = i;
-        }
-        if (lower80 < 0) lower80 = 0;
-        if (upper80 < 0) upper80 = dist.length - 1;
-        return new double[]{avg, lower80, upper80};
+    private double[] calculateStats(Distribution dist) {
+        return new double[]{dist.mean(), dist.percentile(0.10), dist.percentile(0.90)};
     }
 
     /**
-     * Finalizes the DTO by enriching it with statistical metadata and rounding values for JSON transmission.
+     * Finalizes the DTO using an explicit damage characteristic for the baseline damage card.
      */
-    private CalculationResultDTO finalizeResults(List<CalculationRequestDTO> requests, double[] hitDist, double[] woundDist) {
-        String damageExpression = requests.get(0).getDamageValue();
-        double[] damageDist = DamageProcessor.calculateDamageDistribution(woundDist, damageExpression);
+    CalculationResultDTO finalizeResults(String damageExpression, Distribution hitDist, Distribution woundDist,
+                                         ScratchArena arena) {
+        Distribution damageDist = DamageProcessor.calculateDamageDistribution(woundDist, damageExpression, arena);
+        return assembleResults(hitDist, woundDist, damageDist);
+    }
 
+    /**
+     * Finalizes the DTO by enriching it with statistical metadata and rounding values for JSON transmission.
+     */
+    private CalculationResultDTO assembleResults(Distribution hitDist, Distribution woundDist, Distribution damageDist) {
         CalculationResultDTO res = createBaseResult(hitDist);
         DistributionAnalyzer.enrichHits(res, hitDist);
         DistributionAnalyzer.enrichWounds(res, woundDist);
@@ -227,19 +691,45 @@ public class CalculatorService {
         return res;
     }
 
+    /**
+     * Builds the hit card on its own, with the same figures {@link #calculateArmyHits(List)} reports.
+     */
+    LiveUpdateDTO.Section hitSection(Distribution hitDist) {
+        CalculationResultDTO res = createBaseResult(hitDist);
+        DistributionAnalyzer.enrichHits(res, hitDist);
+        return new LiveUpdateDTO.Section(res.getProbabilities(), res.getAvgValue(),
+                res.getRange80(), res.getRangeTop5(), res.getProbAtLeastAvg());
+    }
+
+    LiveUpdateDTO.Section woundSection(Distribution woundDist) {
+        CalculationResultDTO res = createBaseResult(woundDist);
+        DistributionAnalyzer.enrichWounds(res, woundDist);
+        return new LiveUpdateDTO.Section(res.getProbabilities(), res.getWoundAvgValue(),
+                res.getWoundRange80(), res.getWoundRangeTop5(), res.getWoundProbAtLeastAvg());
+    }
+
+    LiveUpdateDTO.Section damageSection(Distribution damageDist) {
+        CalculationResultDTO res = createBaseResult(damageDist);
+        DistributionAnalyzer.enrichDamage(res, damageDist);
+        return new LiveUpdateDTO.Section(res.getProbabilities(), res.getDamageAvgValue(),
+                res.getDamageRange80(), res.getDamageRangeTop5(), res.getDamageProbAtLeastAvg());
+    }
+
     private boolean isRequestInvalid(List<CalculationRequestDTO> requests) {
         return requests == null || requests.isEmpty();
     }
 
-    private CalculationResultDTO createBaseResult(double[] distribution) {
+    private CalculationResultDTO createBaseResult(Distribution distribution) {
         List<Double> roundedProbabilities = convertToRoundedList(distribution);
-        return new CalculationResultDTO(roundedProbabilities, distribution.length - 1);
+        return new CalculationResultDTO(roundedProbabilities, distribution.max());
     }
 
-    private List<Double> convertToRoundedList(double[] distribution) {
-        return Arrays.stream(distribution)
-                .map(v -> Math.round(v * ROUNDING_PRECISION) / ROUNDING_PRECISION)
-                .boxed()
-                .collect(Collectors.toList());
+    /**
+     * Exposes a distribution as the dense, outcome-indexed list the frontend charts expect.
+     * The list ends at the highest significant outcome rather than the theoretical maximum, and
+     * values are only rounded and boxed as they are serialized.
+     */
+    private List<Double> convertToRoundedList(Distribution distribution) {
+        return ProbabilityList.of(distribution);
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.warhammer.service;
+
+import com.warhammer.dto.BatchArmyDTO;
+import com.warhammer.dto.ComparisonResultDTO;
+import com.warhammer.util.Distribution;
+import com.warhammer.util.DistributionAnalyzer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates several armies against the same target sweep and compares them head to head.
+ * <p>
+ * Every army pipeline is submitted before any result is awaited, and all of them share one
+ * {@link UnitWorkMemo}, so a unit profile that appears in more than one list is computed once.
+ * Pairwise statistics such as the chance that one army out-damages another come straight from the
+ * army-level distributions, which a client comparing two summary results could not reconstruct.
+ */
+@Service
+public class ComparisonService {
+
+    private final CalculatorService calculator;
+    private final int maxArmies;
+
+    public ComparisonService(CalculatorService calculator,
+                             @Value("${calculator.compare.max-armies:8}") int maxArmies) {
+        this.calculator = calculator;
+        this.maxArmies = maxArmies;
+    }
+
+    /**
+     * Calculates every army and compares each pair, in submission order.
+     *
+     * @throws IllegalArgumentException if there are fewer than two armies, more than
+     * {@code calculator.compare.max-armies}, or an army has no units.
+     */
+    public ComparisonResultDTO compare(List<BatchArmyDTO> armies) {
+        if (armies == null || armies.size() < 2) {
+            throw new IllegalArgumentException("A comparison needs at least two armies");
+        }
+        if (armies.size() > maxArmies) {
+            throw new IllegalArgumentException("A comparison holds at most " + maxArmies + " armies, got " + armies.size());
+        }
+        for (int i = 0; i < armies.size(); i++) {
+            BatchArmyDTO army = armies.get(i);
+            if (army == null || army.getUnits() == null || army.getUnits().isEmpty()) {
+                throw new IllegalArgumentException("Army " + i + " has no units");
+            }
+        }
+
+        UnitWorkMemo unitWork = new UnitWorkMemo();
+        List<CalculatorService.ArmyPipeline> pipelines = new ArrayList<>(armies.size());
+        for (BatchArmyDTO army : armies) {
+            pipelines.add(calculator.startPipeline(army.getUnits(), unitWork));
+        }
+
+        List<ComparisonResultDTO.ArmyResult> results = new ArrayList<>(armies.size());
+        for (int i = 0; i < armies.size(); i++) {
+            results.add(new ComparisonResultDTO.ArmyResult(armies.get(i).getName(), calculator.assemble(pipelines.get(i))));
+        }
+
+        List<ComparisonResultDTO.ArmyComparison> comparisons = new ArrayList<>();
+        for (int first = 0; first < armies.size(); first++) {
+            for (int second = first + 1; second < armies.size(); second++) {
+                comparisons.add(compare(first, armies.get(first).getName(), pipelines.get(first),
+                        second, armies.get(second).getName(), pipelines.get(second)));
+            }
+        }
+        return new ComparisonResultDTO(results, comparisons);
+    }
+
+    private ComparisonResultDTO.ArmyComparison compare(int firstIndex, String firstName, CalculatorService.ArmyPipeline first,
+                                                       int secondIndex, String secondName, CalculatorService.ArmyPipeline second) {
+        ComparisonResultDTO.ArmyComparison comparison = DistributionAnalyzer.compareDamage(
+                firstIndex, firstName, PipelineExecutor.await(first.damage()),
+                secondIndex, secondName, PipelineExecutor.await(second.damage()));
+
+        for (int t = 1; t <= CalculatorService.MAX_TOUGHNESS_GRAPH; t++) {
+            Distribution firstWounds = PipelineExecutor.await(first.toughnessWounds().get(t - 1));
+            Distribution secondWounds = PipelineExecutor.await(second.toughnessWounds().get(t - 1));
+            comparison.toughnessScaling.add(DistributionAnalyzer.compareToughnessNode(t, firstWounds, secondWounds));
+        }
+        for (int s = CalculatorService.MIN_SAVE_GRAPH; s <= CalculatorService.MAX_SAVE_GRAPH; s++) {
+            int index = s - CalculatorService.MIN_SAVE_GRAPH;
+            Distribution firstDamage = PipelineExecutor.await(first.saveDamage().get(index));
+            Distribution secondDamage = PipelineExecutor.await(second.saveDamage().get(index));
+            comparison.saveScaling.add(DistributionAnalyzer.compareSaveNode(
+                    CalculatorService.saveLabel(s), firstDamage, secondDamage));
+        }
+        return comparison;
+    }
+}
@@ -0,0 +1,228 @@
+package com.warhammer.service;
+
+import com.warhammer.dto.CacheStatsDTO;
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.util.Distribution;
+import com.warhammer.util.HitResult;
+import com.warhammer.util.StagePlan;
+import com.warhammer.util.WoundResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Process-wide, size-bounded cache of per-unit pipeline results.
+ * <p>
+ * The army-calc page resends the whole army on every edit, yet usually only one unit has changed.
+ * This cache keys hit, wound and damage results by a canonical form of the fields each stage
+ * actually reads, so unchanged units are served from memory across requests.
+ * <ul>
+ * <li><b>Hits:</b> keyed by the attack and hit-roll fields of the unit.</li>
+ * <li><b>Wounds:</b> keyed by the hit key, the wound-roll fields and the required wound roll.</li>
+ * <li><b>Damage:</b> keyed by the wound key, the save fail chance and the damage characteristic.</li>
+ * </ul>
+ * Damage is stored as a trimmed {@link Distribution}, so an entry only weighs its significant
+ * outcomes rather than the theoretical maximum of (max wounds)·(max damage).
+ * <p>
+ * Entries are evicted in least-recently-used order once the total size of their cached
+ * {@code double[]} arrays exceeds the configured byte budget. Cached arrays are shared
+ * between requests and must never be modified.
+ */
+@Component
+public class DistributionCache {
+
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long JOINT_ENTRY_BYTES = 16;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Object, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public DistributionCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    @Autowired
+    public DistributionCache(@Value("${calculator.cache.max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Canonical key for the hit stage of a unit.
+     */
+    public record HitKey(
+        int numberOfModels,
+        String attacksPerModel,
+        int bsValue,
+        boolean sustainedHits,
+        String sustainedValue,
+        String rerollType,
+        int critHitValue,
+        boolean lethalHits,
+        boolean plusOneToHit,
+        boolean torrent
+    ) {
+        public static HitKey of(CalculationRequestDTO req) {
+            return new HitKey(
+                req.getNumberOfModels(),
+                normalize(req.getAttacksPerModel()),
+                req.getBsValue(),
+                req.isSustainedHits(),
+                req.isSustainedHits() ? normalize(req.getSustainedValue()) : "",
+                req.getRerollType(),
+                req.getCritHitValue(),
+                req.isLethalHits(),
+                req.isPlusOneToHit(),
+                req.isTorrent()
+            );
+        }
+    }
+
+    /**
+     * Canonical key for the wound stage of a unit against a required wound roll.
+     * Strength and Toughness only matter through the roll they produce.
+     */
+    public record WoundKey(
+        HitKey hits,
+        int woundRoll,
+        String woundRerollType,
+        int critWoundValue,
+        boolean devastatingWounds,
+        boolean plusOneToWound
+    ) {
+        public static WoundKey of(CalculationRequestDTO req, int woundRoll) {
+            return new WoundKey(
+                HitKey.of(req),
+                woundRoll,
+                req.getWoundRerollType(),
+                req.getCritWoundValue(),
+                req.isDevastatingWounds(),
+                req.isPlusOneToWound()
+            );
+        }
+    }
+
+    /**
+     * Canonical key for the damage stage of a unit. Saves, AP and Feel No Pain only matter through
+     * the fused chances of a wound getting through the saves and of a point of damage getting through
+     * Feel No Pain.
+     */
+    public record DamageKey(WoundKey wounds, double failProbability, double feelNoPainFailProbability,
+                            String damageValue) {
+        public static DamageKey of(CalculationRequestDTO req, StagePlan plan) {
+            return new DamageKey(WoundKey.of(req, plan.woundRoll()), plan.saveFailProbability(),
+                    plan.feelNoPainFailProbability(), normalize(plan.damageExpression()));
+        }
+    }
+
+    private record CacheEntry(Object value, long bytes) {}
+
+    /**
+     * Returns the cached hit result for the unit, computing it on a miss.
+     */
+    public HitResult getHits(CalculationRequestDTO request, Supplier<HitResult> loader) {
+        return get(HitKey.of(request), loader, DistributionCache::weigh);
+    }
+
+    /**
+     * Returns the cached wound result for the unit and wound roll, computing it on a miss.
+     */
+    public WoundResult getWounds(CalculationRequestDTO request, int woundRoll, Supplier<WoundResult> loader) {
+        return get(WoundKey.of(request, woundRoll), loader, DistributionCache::weigh);
+    }
+
+    /**
+     * Returns the cached damage distribution for the unit's planned stages, computing it on a miss.
+     */
+    public Distribution getDamage(CalculationRequestDTO request, StagePlan plan, Supplier<Distribution> loader) {
+        return get(DamageKey.of(request, plan), loader, DistributionCache::weigh);
+    }
+
+    /**
+     * Looks up a value, computing and inserting it on a miss. The loader runs outside the lock,
+     * so two threads missing on the same key may both compute it; the results are identical.
+     */
+    @SuppressWarnings("unchecked")
+    private <V> V get(Object key, Supplier<V> loader, ToLongFunction<V> weigher) {
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return (V) entry.value();
+            }
+            misses++;
+        }
+
+        V value = loader.get();
+        long bytes = weigher.applyAsLong(value);
+        if (bytes > maxBytes) {
+            return value;
+        }
+
+        synchronized (this) {
+            CacheEntry previous = entries.put(key, new CacheEntry(value, bytes));
+            if (previous != null) currentBytes -= previous.bytes();
+            currentBytes += bytes;
+            evictOverflow();
+        }
+        return value;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Object, CacheEntry>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * @return A snapshot of the hit, miss and eviction counters and the current footprint.
+     */
+    public synchronized CacheStatsDTO getStats() {
+        return new CacheStatsDTO(hits, misses, evictions, entries.size(), currentBytes, maxBytes);
+    }
+
+    /**
+     * Drops every entry. Counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    private static long weigh(HitResult result) {
+        // Without Lethal Hits the total pool is the standard pool itself, see HitResult
+        long total = result.getTotalVisualHits() == result.getStandardHits() ? 0 : weigh(result.getTotalVisualHits());
+        return weigh(result.getStandardHits()) + weigh(result.getLethalHits()) + total
+                + weigh(result.getAttackDistribution()) + result.getSingleAttackOutcome().size() * JOINT_ENTRY_BYTES;
+    }
+
+    private static long weigh(WoundResult result) {
+        return weigh(result.standardWounds()) + weigh(result.devastatingWounds()) + weigh(result.totalWounds())
+                + weigh(result.countDistribution()) + result.singleOutcome().size() * JOINT_ENTRY_BYTES;
+    }
+
+    private static long weigh(Distribution distribution) {
+        return ARRAY_HEADER_BYTES + (long) Double.BYTES * distribution.width();
+    }
+
+    private static long weigh(double[] distribution) {
+        return ARRAY_HEADER_BYTES + (long) Double.BYTES * distribution.length;
+    }
+
+    private static String normalize(String expression) {
+        return expression == null ? "" : expression.toUpperCase().replace(" ", "");
+    }
+}
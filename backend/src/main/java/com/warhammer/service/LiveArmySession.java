@@ -0,0 +1,211 @@
+package com.warhammer.service;
+
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.dto.CalculationResultDTO;
+import com.warhammer.dto.LiveDeltaDTO;
+import com.warhammer.dto.LiveUpdateDTO;
+import com.warhammer.util.ConvolutionSegmentTree;
+import com.warhammer.util.HitResult;
+import com.warhammer.util.ScratchArena;
+import com.warhammer.util.WoundResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The army of one live calculation session, kept as segment trees of partial convolutions.
+ * <p>
+ * Every army-level distribution produced by {@link CalculatorService#calculateArmyHits(List)} has its
+ * own tree: hits, baseline wounds, wounds at each toughness and damage at each save. All trees add and
+ * remove units in lock-step, so a unit occupies the same slot in each. A delta only recomputes the
+ * changed unit and the O(log n) path to each root, and only sections whose roots changed are reported.
+ */
+class LiveArmySession {
+
+    private static final int BASELINE_WOUND_ROLL = 4;
+
+    private final CalculatorService calculator;
+    private final Runnable onEvict;
+    private final Map<String, LiveUnit> units = new LinkedHashMap<>();
+
+    private final ConvolutionSegmentTree hits = new ConvolutionSegmentTree();
+    private final ConvolutionSegmentTree baselineWounds = new ConvolutionSegmentTree();
+    private final ConvolutionSegmentTree[] toughnessWounds = newTrees(CalculatorService.MAX_TOUGHNESS_GRAPH);
+    private final ConvolutionSegmentTree[] saveDamage =
+            newTrees(CalculatorService.MAX_SAVE_GRAPH - CalculatorService.MIN_SAVE_GRAPH + 1);
+
+    private String reportedDamageExpression;
+    private long revision;
+    private volatile long lastActiveNanos;
+
+    private record LiveUnit(int slot, CalculationRequestDTO request) {}
+
+    /**
+     * Which tree roots a delta changed.
+     */
+    private record Changes(boolean hits, boolean wounds, boolean toughness, boolean saves) {
+        static final Changes ALL = new Changes(true, true, true, true);
+    }
+
+    /**
+     * Per-unit leaves for every tree.
+     */
+    private record Contribution(double[] hits, double[] baselineWounds, double[][] toughnessWounds, double[][] saveDamage) {}
+
+    LiveArmySession(CalculatorService calculator, Runnable onEvict, long nowNanos) {
+        this.calculator = calculator;
+        this.onEvict = onEvict;
+        this.lastActiveNanos = nowNanos;
+    }
+
+    /**
+     * Applies a delta and reports the result sections it changed.
+     *
+     * @throws IllegalArgumentException if the delta is malformed or removes an unknown unit.
+     */
+    synchronized LiveUpdateDTO apply(LiveDeltaDTO delta, long nowNanos) {
+        lastActiveNanos = nowNanos;
+        if (delta == null || delta.getOp() == null || delta.getUnitId() == null) {
+            throw new IllegalArgumentException("A delta needs an op and a unitId");
+        }
+
+        // One scratch arena per delta, the live counterpart of a stateless request
+        ScratchArena arena = new ScratchArena();
+        Changes changed = switch (delta.getOp()) {
+            case ADD, UPDATE -> upsert(delta.getUnitId(), delta.getUnit(), arena);
+            case REMOVE -> remove(delta.getUnitId());
+        };
+        revision++;
+        return buildUpdate(changed, arena);
+    }
+
+    long getLastActiveNanos() {
+        return lastActiveNanos;
+    }
+
+    void evict() {
+        onEvict.run();
+    }
+
+    private Changes upsert(String unitId, CalculationRequestDTO request, ScratchArena arena) {
+        if (request == null) {
+            throw new IllegalArgumentException("Unit " + unitId + " has no profile");
+        }
+        Contribution contribution = contribute(request, arena);
+        LiveUnit existing = units.get(unitId);
+
+        if (existing == null) {
+            int slot = hits.add(contribution.hits());
+            baselineWounds.add(contribution.baselineWounds());
+            for (int t = 0; t < toughnessWounds.length; t++) toughnessWounds[t].add(contribution.toughnessWounds()[t]);
+            for (int s = 0; s < saveDamage.length; s++) saveDamage[s].add(contribution.saveDamage()[s]);
+            units.put(unitId, new LiveUnit(slot, request));
+            return Changes.ALL;
+        }
+
+        int slot = existing.slot();
+        units.put(unitId, new LiveUnit(slot, request));
+        boolean hitsChanged = hits.set(slot, contribution.hits());
+        boolean woundsChanged = baselineWounds.set(slot, contribution.baselineWounds());
+        boolean toughnessChanged = false;
+        for (int t = 0; t < toughnessWounds.length; t++) {
+            toughnessChanged |= toughnessWounds[t].set(slot, contribution.toughnessWounds()[t]);
+        }
+        boolean savesChanged = false;
+        for (int s = 0; s < saveDamage.length; s++) {
+            savesChanged |= saveDamage[s].set(slot, contribution.saveDamage()[s]);
+        }
+        return new Changes(hitsChanged, woundsChanged, toughnessChanged, savesChanged);
+    }
+
+    private Changes remove(String unitId) {
+        LiveUnit existing = units.remove(unitId);
+        if (existing == null) {
+            throw new IllegalArgumentException("Unknown unit: " + unitId);
+        }
+        int slot = existing.slot();
+        hits.remove(slot);
+        baselineWounds.remove(slot);
+        for (ConvolutionSegmentTree tree : toughnessWounds) tree.remove(slot);
+        for (ConvolutionSegmentTree tree : saveDamage) tree.remove(slot);
+        return Changes.ALL;
+    }
+
+    /**
+     * Runs the per-unit stages of the pipeline. Results come from the shared cache where possible.
+     */
+    private Contribution contribute(CalculationRequestDTO request, ScratchArena arena) {
+        HitResult unitHits = calculator.calculateUnitHits(request, arena);
+        WoundResult baseline = calculator.calculateUnitWounds(unitHits, BASELINE_WOUND_ROLL, request, arena);
+
+        double[][] byToughness = new double[toughnessWounds.length][];
+        for (int t = 1; t <= toughnessWounds.length; t++) {
+            int requiredRoll = CalculatorService.getWoundRoll(request.getStrength(), t);
+            byToughness[t - 1] = calculator.calculateUnitWounds(unitHits, requiredRoll, request, arena).totalWounds();
+        }
+
+        double[][] bySave = new double[saveDamage.length][];
+        for (int s = CalculatorService.MIN_SAVE_GRAPH; s <= CalculatorService.MAX_SAVE_GRAPH; s++) {
+            bySave[s - CalculatorService.MIN_SAVE_GRAPH] =
+                    calculator.calculateUnitDamage(baseline, BASELINE_WOUND_ROLL, s, request, arena).toArray();
+        }
+        return new Contribution(unitHits.getTotalVisualHits(), baseline.totalWounds(), byToughness, bySave);
+    }
+
+    /**
+     * Builds an update holding only the sections whose trees changed. Like the stateless endpoint,
+     * the baseline damage card uses the damage characteristic of the first unit in the army.
+     */
+    private LiveUpdateDTO buildUpdate(Changes changed, ScratchArena arena) {
+        LiveUpdateDTO update = new LiveUpdateDTO(revision, units.size());
+
+        String damageExpression = units.isEmpty() ? null : units.values().iterator().next().request().getDamageValue();
+        boolean damageChanged = changed.wounds() || !Objects.equals(damageExpression, reportedDamageExpression);
+        reportedDamageExpression = damageExpression;
+
+        if (changed.hits() || changed.wounds() || damageChanged) {
+            CalculationResultDTO result = calculator.finalizeResults(damageExpression,
+                    calculator.trim(hits.root()), calculator.trim(baselineWounds.root()), arena);
+            if (changed.hits()) {
+                update.setHits(new LiveUpdateDTO.Section(result.getProbabilities(), result.getAvgValue(),
+                        result.getRange80(), result.getRangeTop5(), result.getProbAtLeastAvg()));
+            }
+            if (changed.wounds()) {
+                update.setWounds(new LiveUpdateDTO.Section(result.getWoundProbabilities(), result.getWoundAvgValue(),
+                        result.getWoundRange80(), result.getWoundRangeTop5(), result.getWoundProbAtLeastAvg()));
+            }
+            if (damageChanged) {
+                update.setDamage(new LiveUpdateDTO.Section(result.getDamageProbabilities(), result.getDamageAvgValue(),
+                        result.getDamageRange80(), result.getDamageRangeTop5(), result.getDamageProbAtLeastAvg()));
+            }
+        }
+
+        if (changed.toughness()) {
+            List<CalculationResultDTO.ToughnessNode> nodes = new ArrayList<>();
+            for (int t = 1; t <= toughnessWounds.length; t++) {
+                nodes.add(calculator.extractNodeStats(t, calculator.trim(toughnessWounds[t - 1].root())));
+            }
+            update.setToughnessScaling(nodes);
+        }
+        if (changed.saves()) {
+            List<CalculationResultDTO.SaveNode> nodes = new ArrayList<>();
+            for (int s = CalculatorService.MIN_SAVE_GRAPH; s <= CalculatorService.MAX_SAVE_GRAPH; s++) {
+                nodes.add(calculator.extractSaveNodeStats(CalculatorService.saveLabel(s),
+                        calculator.trim(saveDamage[s - CalculatorService.MIN_SAVE_GRAPH].root())));
+            }
+            update.setSaveScaling(nodes);
+        }
+        return update;
+    }
+
+    private static ConvolutionSegmentTree[] newTrees(int count) {
+        ConvolutionSegmentTree[] trees = new ConvolutionSegmentTree[count];
+        for (int i = 0; i < count; i++) {
+            trees[i] = new ConvolutionSegmentTree();
+        }
+        return trees;
+    }
+}
@@ -0,0 +1,116 @@
+package com.warhammer.service;
+
+import com.warhammer.dto.LiveDeltaDTO;
+import com.warhammer.dto.LiveUpdateDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the live calculation sessions of the army-calc page.
+ * <p>
+ * A session keeps its army as segment trees of partial convolutions (see {@link LiveArmySession}),
+ * so a unit add, update or removal costs O(log n) convolutions per tree instead of a full recalculation.
+ * Memory is bounded by a cap on open sessions and by evicting sessions that have been idle for longer
+ * than {@code calculator.live.idle-timeout-ms}.
+ */
+@Service
+public class LiveSessionService {
+
+    private final CalculatorService calculator;
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+    private final Map<String, LiveArmySession> sessions = new ConcurrentHashMap<>();
+    // Slots are reserved before a session is inserted, so concurrent handshakes cannot overshoot the cap
+    private final AtomicInteger openSessions = new AtomicInteger();
+
+    public LiveSessionService(CalculatorService calculator,
+                              @Value("${calculator.live.idle-timeout-ms:600000}") long idleTimeoutMs,
+                              @Value("${calculator.live.max-sessions:256}") int maxSessions) {
+        this.calculator = calculator;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Opens an empty session.
+     *
+     * @param sessionId The transport-level session id.
+     * @param onEvict Called when the session is evicted for being idle, to close the transport.
+     * @return {@code false} if the session cap has been reached and no session was opened.
+     */
+    public boolean open(String sessionId, Runnable onEvict) {
+        if (!reserveSlot()) {
+            return false;
+        }
+        if (sessions.put(sessionId, new LiveArmySession(calculator, onEvict, System.nanoTime())) != null) {
+            // The id was already open, so its session was replaced rather than added
+            openSessions.decrementAndGet();
+        }
+        return true;
+    }
+
+    private boolean reserveSlot() {
+        int open;
+        do {
+            open = openSessions.get();
+            if (open >= maxSessions) {
+                return false;
+            }
+        } while (!openSessions.compareAndSet(open, open + 1));
+        return true;
+    }
+
+    /**
+     * Applies a unit delta to a session.
+     *
+     * @return The result sections that changed.
+     * @throws IllegalArgumentException if the session is unknown or the delta is malformed.
+     */
+    public LiveUpdateDTO apply(String sessionId, LiveDeltaDTO delta) {
+        LiveArmySession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown or expired session: " + sessionId);
+        }
+        return session.apply(delta, System.nanoTime());
+    }
+
+    /**
+     * Drops a session. Closing an unknown session is a no-op.
+     */
+    public void close(String sessionId) {
+        if (sessions.remove(sessionId) != null) {
+            openSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Evicts every session that has been idle for longer than the idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${calculator.live.sweep-interval-ms:60000}")
+    public void evictIdleSessions() {
+        evictIdleSessions(System.nanoTime());
+    }
+
+    int evictIdleSessions(long nowNanos) {
+        int evicted = 0;
+        for (Map.Entry<String, LiveArmySession> entry : sessions.entrySet()) {
+            LiveArmySession session = entry.getValue();
+            if (nowNanos - session.getLastActiveNanos() > idleTimeoutNanos && sessions.remove(entry.getKey(), session)) {
+                openSessions.decrementAndGet();
+                session.evict();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,106 @@
+package com.warhammer.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shared executors for the independent stages of the calculation pipeline.
+ * <p>
+ * Work is split over two executors:
+ * <ul>
+ * <li><b>Compute:</b> A fork/join pool sized to the available cores (or {@code calculator.executor.compute-threads})
+ * that runs the probability maths. Its tasks only wait through fork/join, so the pool cannot deadlock, and
+ * because it is shared and bounded no single request can occupy more cores than it has. Tree reductions
+ * such as {@link com.warhammer.util.ProbabilityMath#convolveAll(java.util.List, boolean)} fork into it.</li>
+ * <li><b>Orchestration:</b> Virtual threads that wait for compute results and assemble result nodes.
+ * Blocking on a virtual thread is cheap, so every stage can wait in parallel.</li>
+ * </ul>
+ */
+@Component
+public class PipelineExecutor implements AutoCloseable {
+
+    private final ForkJoinPool computePool;
+    private final ExecutorService orchestrationPool = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PipelineExecutor() {
+        this(0);
+    }
+
+    /**
+     * @param computeThreads Size of the compute pool, or 0 to use one thread per available core.
+     */
+    @Autowired
+    public PipelineExecutor(@Value("${calculator.executor.compute-threads:0}") int computeThreads) {
+        int size = computeThreads > 0 ? computeThreads : Runtime.getRuntime().availableProcessors();
+        this.computePool = new ForkJoinPool(size, computeThreadFactory(), null, false);
+    }
+
+    /**
+     * Runs a CPU-bound task on the bounded compute pool. The task must not block on other futures.
+     */
+    public <T> CompletableFuture<T> compute(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, computePool);
+    }
+
+    /**
+     * Runs a CPU-bound continuation on the bounded compute pool once the source future completes.
+     */
+    public <T, R> CompletableFuture<R> then(CompletableFuture<T> source, Function<T, R> task) {
+        return source.thenApplyAsync(task, computePool);
+    }
+
+    /**
+     * Runs a task that may block on compute results on its own virtual thread.
+     */
+    public <T> CompletableFuture<T> orchestrate(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, orchestrationPool);
+    }
+
+    /**
+     * Hands the result of a future to a consumer that may block, such as a network write, on its own
+     * virtual thread once the future completes.
+     */
+    public <T> CompletableFuture<Void> deliver(CompletableFuture<T> source, Consumer<T> consumer) {
+        return source.thenAcceptAsync(consumer, orchestrationPool);
+    }
+
+    /**
+     * Waits for a future, rethrowing the original runtime exception of a failed task.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error error) throw error;
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        orchestrationPool.shutdownNow();
+        computePool.shutdownNow();
+    }
+
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory computeThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("calculator-compute-" + counter.incrementAndGet());
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.warhammer.service;
+
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.dto.CalculationResultDTO;
+import com.warhammer.dto.PreviewResultDTO;
+import com.warhammer.util.Moments;
+import com.warhammer.util.StagePlan;
+import com.warhammer.util.UnitMoments;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Previews an army from the moments of its units instead of their distributions.
+ * <p>
+ * Every card and graph node of {@link CalculatorService} is a sum of independent unit outcomes, so its
+ * mean and variance are the sums of the unit means and variances from {@link UnitMoments}. A preview
+ * costs a few operations per unit and target, whatever the size of the army, which makes it cheap
+ * enough to request on every edit while the full calculation waits for the input to settle.
+ */
+@Service
+public class PreviewService {
+
+    /**
+     * The 90th percentile of the standard normal distribution.
+     */
+    private static final double Z_90 = 1.2815515655446004;
+    private static final double ROUNDING_FACTOR = 10000.0;
+    private static final int BASELINE_WOUND_ROLL = 4;
+
+    /**
+     * Previews the cards and graph nodes of {@link CalculatorService#calculateArmyHits(List)}.
+     *
+     * @throws IllegalArgumentException if the army is empty.
+     */
+    public PreviewResultDTO preview(List<CalculationRequestDTO> requests) {
+        return preview(requests, CalculatorService.NO_FEEL_NO_PAIN);
+    }
+
+    /**
+     * Previews the cards and graph nodes against a target with a Feel No Pain roll.
+     *
+     * @throws IllegalArgumentException if the army is empty or the Feel No Pain roll is out of range.
+     */
+    public PreviewResultDTO preview(List<CalculationRequestDTO> requests, int feelNoPain) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("An army needs at least one unit");
+        }
+        if (feelNoPain < CalculatorService.MIN_SAVE_GRAPH || feelNoPain > CalculatorService.NO_FEEL_NO_PAIN) {
+            throw new IllegalArgumentException("Feel No Pain must be between 2 and 7 (none)");
+        }
+        List<UnitMoments> units = requests.stream().map(UnitMoments::of).toList();
+
+        Moments hits = Moments.ZERO;
+        Moments wounds = Moments.ZERO;
+        for (UnitMoments unit : units) {
+            hits = hits.plus(unit.hits());
+            wounds = wounds.plus(unit.totalWounds(BASELINE_WOUND_ROLL));
+        }
+        PreviewResultDTO preview = new PreviewResultDTO();
+        preview.setHits(card(hits));
+        preview.setWounds(card(wounds));
+        // Like the full result, the baseline damage card applies the first unit's damage to every wound
+        StagePlan baseline = StagePlan.of(requests.get(0), BASELINE_WOUND_ROLL, CalculatorService.MAX_SAVE_GRAPH,
+                CalculatorService.MAX_SAVE_GRAPH, feelNoPain);
+        preview.setDamage(card(Moments.randomSum(wounds, UnitMoments.damagePerWound(baseline))));
+
+        List<CalculationResultDTO.ToughnessNode> toughnessScaling = new ArrayList<>();
+        for (int t = 1; t <= CalculatorService.MAX_TOUGHNESS_GRAPH; t++) {
+            Moments army = Moments.ZERO;
+            for (int i = 0; i < units.size(); i++) {
+                army = army.plus(units.get(i).totalWounds(
+                        CalculatorService.getWoundRoll(requests.get(i).getStrength(), t)));
+            }
+            PreviewResultDTO.Card node = card(army);
+            toughnessScaling.add(new CalculationResultDTO.ToughnessNode(t, node.average, node.lower80, node.upper80));
+        }
+        preview.setToughnessScaling(toughnessScaling);
+
+        int[] baselineRolls = new int[requests.size()];
+        Arrays.fill(baselineRolls, BASELINE_WOUND_ROLL);
+        List<CalculationResultDTO.SaveNode> saveScaling = new ArrayList<>();
+        for (int s = CalculatorService.MIN_SAVE_GRAPH; s <= CalculatorService.MAX_SAVE_GRAPH; s++) {
+            List<StagePlan> plans = CalculatorService.plans(requests, baselineRolls, s,
+                    CalculatorService.MAX_SAVE_GRAPH, feelNoPain);
+            Moments army = Moments.ZERO;
+            for (int i = 0; i < units.size(); i++) {
+                army = army.plus(units.get(i).damage(plans.get(i)));
+            }
+            PreviewResultDTO.Card node = card(army);
+            saveScaling.add(new CalculationResultDTO.SaveNode(CalculatorService.saveLabel(s), node.average,
+                    node.lower80, node.upper80));
+        }
+        preview.setSaveScaling(saveScaling);
+        return preview;
+    }
+
+    /**
+     * Rounds the moments for display, with the 80% range of a normal curve clipped at zero.
+     */
+    private static PreviewResultDTO.Card card(Moments moments) {
+        double deviation = moments.standardDeviation();
+        return new PreviewResultDTO.Card(round(moments.mean()), round(moments.variance()), round(deviation),
+                round(Math.max(0.0, moments.mean() - Z_90 * deviation)), round(moments.mean() + Z_90 * deviation));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * ROUNDING_FACTOR) / ROUNDING_FACTOR;
+    }
+}
@@ -0,0 +1,81 @@
+package com.warhammer.service;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The result sections a caller asked for, and whether the hit, wound and damage cards carry their full
+ * probability arrays or only the summary figures.
+ * <p>
+ * {@link CalculatorService} only runs the pipeline stages the selected sections need: a caller that
+ * only wants the damage card skips the army hit convolution and both target sweeps. Sections that were
+ * not selected are left out of the result.
+ */
+public record ResultFields(Set<Section> sections, boolean probabilities) {
+
+    /**
+     * Every section with its probability arrays, as returned when nothing is selected.
+     */
+    public static final ResultFields ALL = new ResultFields(EnumSet.allOf(Section.class), true);
+
+    /**
+     * A selectable result section, named like its field in the JSON result.
+     */
+    public enum Section {
+        HITS("hits"),
+        WOUNDS("wounds"),
+        DAMAGE("damage"),
+        TOUGHNESS_SCALING("toughnessScaling"),
+        SAVE_SCALING("saveScaling"),
+        UNIT_CONTRIBUTIONS("unitContributions");
+
+        private final String fieldName;
+
+        Section(String fieldName) {
+            this.fieldName = fieldName;
+        }
+
+        public String getFieldName() {
+            return fieldName;
+        }
+
+        static Section fromFieldName(String name) {
+            for (Section section : values()) {
+                if (section.fieldName.equalsIgnoreCase(name)) {
+                    return section;
+                }
+            }
+            throw new IllegalArgumentException("Unknown result section: " + name);
+        }
+    }
+
+    public ResultFields {
+        sections = Set.copyOf(sections);
+    }
+
+    /**
+     * Parses section names such as {@code hits} or {@code toughnessScaling}. Blank names are ignored and
+     * an empty selection means every section.
+     *
+     * @param probabilities Whether the hit, wound and damage cards carry their probability arrays.
+     * @throws IllegalArgumentException for an unknown section name.
+     */
+    public static ResultFields parse(List<String> names, boolean probabilities) {
+        List<Section> selected = new ArrayList<>();
+        if (names != null) {
+            for (String name : names) {
+                if (name != null && !name.isBlank()) {
+                    selected.add(Section.fromFieldName(name.trim()));
+                }
+            }
+        }
+        return new ResultFields(selected.isEmpty() ? EnumSet.allOf(Section.class) : EnumSet.copyOf(selected),
+                probabilities);
+    }
+
+    public boolean includes(Section section) {
+        return sections.contains(section);
+    }
+}
@@ -0,0 +1,69 @@
+package com.warhammer.service;
+
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.dto.SimulationResultDTO;
+import com.warhammer.util.MonteCarloSimulator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Evaluates an army with the {@link MonteCarloSimulator} instead of the analytic pipeline.
+ * <p>
+ * Simulations run on the shared compute pool, so their fork/join chunks compete for the same
+ * bounded set of cores as the convolutions of regular requests.
+ */
+@Service
+public class SimulationService {
+
+    private final CalculatorService calculator;
+    private final PipelineExecutor executor;
+    private final long maxTrials;
+    private final double relativeTolerance;
+
+    public SimulationService(CalculatorService calculator, PipelineExecutor executor,
+                             @Value("${calculator.simulation.max-trials:2000000}") long maxTrials,
+                             @Value("${calculator.simulation.relative-tolerance:0.005}") double relativeTolerance) {
+        this.calculator = calculator;
+        this.executor = executor;
+        this.maxTrials = maxTrials;
+        this.relativeTolerance = relativeTolerance;
+    }
+
+    /**
+     * Simulates an army against one toughness and armour save.
+     *
+     * @param seed Seed of the simulation, or {@code null} for a random one. The seed used is reported.
+     * @throws IllegalArgumentException if the army is empty or the target is out of range.
+     */
+    public SimulationResultDTO simulate(List<CalculationRequestDTO> requests, int toughness, int save, Long seed) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("An army needs at least one unit");
+        }
+        if (toughness < 1 || save < CalculatorService.MIN_SAVE_GRAPH || save > CalculatorService.MAX_SAVE_GRAPH) {
+            throw new IllegalArgumentException("Toughness must be at least 1 and the save between 2 and 7 (none)");
+        }
+
+        int[] woundRolls = new int[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            woundRolls[i] = CalculatorService.getWoundRoll(requests.get(i).getStrength(), toughness);
+        }
+        long actualSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        MonteCarloSimulator.Options defaults = MonteCarloSimulator.Options.defaults(actualSeed);
+        MonteCarloSimulator.Options options = new MonteCarloSimulator.Options(actualSeed, defaults.chunkTrials(),
+                defaults.chunksPerRound(), Math.min(defaults.minTrials(), maxTrials), maxTrials,
+                defaults.confidenceZ(), relativeTolerance, defaults.absoluteTolerance());
+
+        MonteCarloSimulator.Result result = PipelineExecutor.await(
+                executor.compute(() -> MonteCarloSimulator.simulate(requests, woundRolls, save, options)));
+
+        SimulationResultDTO dto = new SimulationResultDTO(toughness, CalculatorService.saveLabel(save), actualSeed,
+                result.trials(), result.damageMeanHalfWidth(), result.converged());
+        dto.setHits(calculator.hitSection(result.hits()));
+        dto.setWounds(calculator.woundSection(result.wounds()));
+        dto.setDamage(calculator.damageSection(result.damage()));
+        return dto;
+    }
+}
@@ -0,0 +1,46 @@
+package com.warhammer.service;
+
+/**
+ * A defending unit of identical models that damage is allocated to, one model at a time.
+ * <p>
+ * {@link CalculatorService} adds a models-slain section to the result when it is given one. The chain
+ * behind it has one state per wound of the unit, so the unit's total wounds are capped.
+ *
+ * @param models The number of models in the unit.
+ * @param woundsPerModel The wounds characteristic of each model.
+ */
+public record TargetUnit(int models, int woundsPerModel) {
+
+    /**
+     * The most wounds a target unit may have in total.
+     */
+    public static final int MAX_TOTAL_WOUNDS = 2000;
+
+    /**
+     * @throws IllegalArgumentException if the unit has no models, its models no wounds, or too many wounds in total.
+     */
+    public TargetUnit {
+        if (models < 1 || woundsPerModel < 1) {
+            throw new IllegalArgumentException("A target unit needs at least one model with at least one wound");
+        }
+        if ((long) models * woundsPerModel > MAX_TOTAL_WOUNDS) {
+            throw new IllegalArgumentException("A target unit may have at most " + MAX_TOTAL_WOUNDS + " wounds in total");
+        }
+    }
+
+    /**
+     * Builds a target from optional request parameters, which have to be given together.
+     *
+     * @return The target, or {@code null} if neither parameter was given.
+     * @throws IllegalArgumentException if only one parameter was given, or the unit is invalid.
+     */
+    public static TargetUnit of(Integer models, Integer woundsPerModel) {
+        if (models == null && woundsPerModel == null) {
+            return null;
+        }
+        if (models == null || woundsPerModel == null) {
+            throw new IllegalArgumentException("A target unit needs both a model count and wounds per model");
+        }
+        return new TargetUnit(models, woundsPerModel);
+    }
+}
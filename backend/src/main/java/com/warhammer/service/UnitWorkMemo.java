@@ -0,0 +1,62 @@
+package com.warhammer.service;
+
+import com.warhammer.dto.CalculationRequestDTO;
+import com.warhammer.util.Distribution;
+import com.warhammer.util.HitResult;
+import com.warhammer.util.StagePlan;
+import com.warhammer.util.WoundResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Memo of in-flight per-unit pipeline stages, keyed by the canonical {@link DistributionCache} keys.
+ * <p>
+ * The distribution cache only helps once a result has been stored, so two armies that start the
+ * same unit at the same time would both compute it. Sharing one memo between every army of a
+ * calculation (a single request, or all armies of a batch) makes them wait on one future instead.
+ * <p>
+ * An entry is removed as soon as its stage completes. By then the result is in the distribution
+ * cache, so later lookups read it from there, and a long batch only holds the stages of the armies
+ * in flight on top of the cache's byte budget.
+ */
+final class UnitWorkMemo {
+
+    private final Map<Object, CompletableFuture<?>> futures = new HashMap<>();
+
+    CompletableFuture<HitResult> hits(CalculationRequestDTO request, Supplier<CompletableFuture<HitResult>> stage) {
+        return get(DistributionCache.HitKey.of(request), stage);
+    }
+
+    CompletableFuture<WoundResult> wounds(CalculationRequestDTO request, int woundRoll,
+                                          Supplier<CompletableFuture<WoundResult>> stage) {
+        return get(DistributionCache.WoundKey.of(request, woundRoll), stage);
+    }
+
+    CompletableFuture<Distribution> damage(CalculationRequestDTO request, StagePlan plan,
+                                           Supplier<CompletableFuture<Distribution>> stage) {
+        return get(DistributionCache.DamageKey.of(request, plan), stage);
+    }
+
+    /**
+     * Starts a stage outside of any map operation, so a stage may look up the stages it depends on.
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized <T> CompletableFuture<T> get(Object key, Supplier<CompletableFuture<T>> stage) {
+        CompletableFuture<T> future = (CompletableFuture<T>) futures.get(key);
+        if (future == null) {
+            CompletableFuture<T> started = stage.get();
+            futures.put(key, started);
+            // Runs straight away if the stage has already completed
+            started.whenComplete((result, error) -> remove(key, started));
+            future = started;
+        }
+        return future;
+    }
+
+    private synchronized void remove(Object key, CompletableFuture<?> future) {
+        futures.remove(key, future);
+    }
+}
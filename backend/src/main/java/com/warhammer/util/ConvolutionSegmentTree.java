@@ -0,0 +1,120 @@
+package com.warhammer.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A segment tree of partial convolutions over a mutable set of independent distributions.
+ * <p>
+ * Each leaf holds the distribution of one source (e.g., one unit of an army) and each inner node
+ * holds the convolution of its two children, so the root is the distribution of the whole set.
+ * Adding, replacing or removing a source only recomputes the nodes on its path to the root,
+ * which costs O(log n) convolutions instead of re-merging all n sources.
+ * <p>
+ * Removed slots hold the neutral (0 hits) distribution and are reused by later additions.
+ * Leaf arrays are stored by reference and must not be modified by the caller afterwards.
+ * Not thread-safe.
+ */
+public class ConvolutionSegmentTree {
+
+    private static final double[] NEUTRAL = {1.0};
+    private static final int INITIAL_CAPACITY = 4;
+
+    private double[][] nodes;
+    private int capacity;
+    private int nextSlot;
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    public ConvolutionSegmentTree() {
+        this.capacity = INITIAL_CAPACITY;
+        this.nodes = new double[2 * capacity][];
+        Arrays.fill(nodes, NEUTRAL);
+    }
+
+    /**
+     * Adds a source to the tree.
+     *
+     * @param distribution The distribution of the new source.
+     * @return The slot identifying the source for later updates and removal.
+     */
+    public int add(double[] distribution) {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pop();
+        } else {
+            if (nextSlot == capacity) {
+                grow();
+            }
+            slot = nextSlot++;
+        }
+        set(slot, distribution);
+        return slot;
+    }
+
+    /**
+     * Replaces the distribution of a source and recomputes its path to the root.
+     *
+     * @param slot The slot returned by {@link #add(double[])}.
+     * @param distribution The new distribution of the source.
+     * @return {@code false} if the source already held an identical distribution and nothing was recomputed.
+     */
+    public boolean set(int slot, double[] distribution) {
+        checkSlot(slot);
+        int node = capacity + slot;
+        double[] leaf = (distribution == null || distribution.length == 0) ? NEUTRAL : distribution;
+        if (nodes[node] == leaf || Arrays.equals(nodes[node], leaf)) {
+            return false;
+        }
+
+        nodes[node] = leaf;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            nodes[node] = merge(nodes[2 * node], nodes[2 * node + 1]);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a source, leaving the neutral distribution in its slot.
+     *
+     * @param slot The slot returned by {@link #add(double[])}.
+     */
+    public void remove(int slot) {
+        set(slot, NEUTRAL);
+        freeSlots.push(slot);
+    }
+
+    /**
+     * @return The distribution of the sum of all current sources.
+     */
+    public double[] root() {
+        return nodes[1];
+    }
+
+    private void grow() {
+        int newCapacity = capacity * 2;
+        double[][] grown = new double[2 * newCapacity][];
+        Arrays.fill(grown, NEUTRAL);
+        System.arraycopy(nodes, capacity, grown, newCapacity, capacity);
+        for (int node = newCapacity - 1; node >= 1; node--) {
+            grown[node] = merge(grown[2 * node], grown[2 * node + 1]);
+        }
+        nodes = grown;
+        capacity = newCapacity;
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= nextSlot) {
+            throw new IndexOutOfBoundsException("Unknown slot: " + slot);
+        }
+    }
+
+    /**
+     * Convolves two children, skipping the work when either side is the neutral distribution.
+     */
+    private static double[] merge(double[] left, double[] right) {
+        if (right.length == 1 && right[0] == 1.0) return left;
+        if (left.length == 1 && left[0] == 1.0) return right;
+        return ProbabilityMath.convolve(left, right);
+    }
+}
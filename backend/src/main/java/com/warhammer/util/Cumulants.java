@@ -0,0 +1,115 @@
+package com.warhammer.util;
+
+/**
+ * The first four cumulants of a distribution over non-negative outcomes, together with what
+ * {@link EdgeworthApproximation} needs to bound its error.
+ * <p>
+ * Cumulants of independent variables add, so the cumulants of an army are the sums of the cumulants
+ * of its models, however many models there are. The absolute third central moment adds the same way
+ * across independent summands (it is the numerator of the Berry–Esseen bound), and the lattice span
+ * of a sum is the greatest common divisor of the spans of its parts.
+ *
+ * @param mean The first cumulant.
+ * @param variance The second cumulant.
+ * @param thirdCumulant The third cumulant, the third central moment.
+ * @param fourthCumulant The fourth cumulant, the fourth central moment minus three times the squared variance.
+ * @param absoluteThirdMoment The sum of {@code E|X - E[X]|^3} over the independent summands.
+ * @param span The largest integer dividing every outcome with non-zero probability, or 0 if the
+ *             only possible outcome is 0.
+ */
+public record Cumulants(double mean, double variance, double thirdCumulant, double fourthCumulant,
+                        double absoluteThirdMoment, int span) {
+
+    /**
+     * The cumulants of an outcome that is always 0, the identity of {@link #plus(Cumulants)}.
+     */
+    public static final Cumulants ZERO = new Cumulants(0.0, 0.0, 0.0, 0.0, 0.0, 0);
+
+    /**
+     * Computes the cumulants of a distribution in two passes over its stored outcomes.
+     */
+    public static Cumulants of(Distribution distribution) {
+        double[] body = distribution.bodyView();
+        int offset = distribution.min();
+
+        double mean = 0.0;
+        int span = 0;
+        for (int i = 0; i < body.length; i++) {
+            if (body[i] > 0.0) {
+                mean += (offset + i) * body[i];
+                span = gcd(span, offset + i);
+            }
+        }
+
+        double m2 = 0.0;
+        double m3 = 0.0;
+        double m4 = 0.0;
+        double absolute3 = 0.0;
+        for (int i = 0; i < body.length; i++) {
+            double d = offset + i - mean;
+            double d2 = d * d;
+            m2 += body[i] * d2;
+            m3 += body[i] * d2 * d;
+            m4 += body[i] * d2 * d2;
+            absolute3 += body[i] * d2 * Math.abs(d);
+        }
+        return new Cumulants(mean, m2, m3, m4 - 3.0 * m2 * m2, absolute3, span);
+    }
+
+    /**
+     * @return The cumulants of the sum of this variable and an independent one.
+     */
+    public Cumulants plus(Cumulants other) {
+        return new Cumulants(mean + other.mean, variance + other.variance, thirdCumulant + other.thirdCumulant,
+                fourthCumulant + other.fourthCumulant, absoluteThirdMoment + other.absoluteThirdMoment,
+                gcd(span, other.span));
+    }
+
+    /**
+     * Removes an independent summand that was previously added. The span is kept, since a divisor of
+     * every outcome of the full sum still divides every outcome of what is left.
+     */
+    public Cumulants minus(Cumulants other) {
+        return new Cumulants(mean - other.mean, Math.max(0.0, variance - other.variance),
+                thirdCumulant - other.thirdCumulant, fourthCumulant - other.fourthCumulant,
+                Math.max(0.0, absoluteThirdMoment - other.absoluteThirdMoment), span);
+    }
+
+    /**
+     * @return The cumulants of the sum of {@code copies} independent copies of this variable.
+     */
+    public Cumulants times(int copies) {
+        if (copies <= 0) {
+            return ZERO;
+        }
+        return new Cumulants(mean * copies, variance * copies, thirdCumulant * copies, fourthCumulant * copies,
+                absoluteThirdMoment * copies, span);
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * @return The standardised third cumulant, or 0 for a constant.
+     */
+    public double skewness() {
+        return variance > 0.0 ? thirdCumulant / Math.pow(variance, 1.5) : 0.0;
+    }
+
+    /**
+     * @return The standardised fourth cumulant, or 0 for a constant.
+     */
+    public double excessKurtosis() {
+        return variance > 0.0 ? fourthCumulant / (variance * variance) : 0.0;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int r = a % b;
+            a = b;
+            b = r;
+        }
+        return Math.abs(a);
+    }
+}
@@ -2,8 +2,8 @@ package com.warhammer.util;
 
 /**
  * The logic engine for the Damage phase.
- * It transforms a wound distribution into a damage distribution by convolving 
- * individual weapon damage profiles for every possible wound count.
+ * It transforms a wound distribution into a damage distribution by compounding 
+ * the individual weapon damage profile over every possible wound count.
  */
 public class DamageProcessor {
 
@@ -15,41 +15,80 @@ public class DamageProcessor {
      * @return A probability array for total damage.
      */
     public static double[] calculateDamageDistribution(double[] woundDist, String damageExpression) {
+        return calculateDamageDistribution(woundDist, damageExpression, ScratchArena.UNPOOLED);
+    }
+
+    /**
+     * Variant of {@link #calculateDamageDistribution(double[], String)} that keeps its intermediate
+     * arrays in a request-scoped arena.
+     */
+    public static double[] calculateDamageDistribution(double[] woundDist, String damageExpression, ScratchArena arena) {
+        return calculateDamageDistribution(woundDist, damageExpression, 1.0, arena);
+    }
+
+    /**
+     * Variant of {@link #calculateDamageDistribution(double[], String, ScratchArena)} where every point
+     * of damage only gets through with {@code pointPassProbability}, as with Feel No Pain. The thinning
+     * is applied to the damage of a single wound, before the random sum over the wounds.
+     */
+    public static double[] calculateDamageDistribution(double[] woundDist, String damageExpression,
+                                                       double pointPassProbability, ScratchArena arena) {
         if (woundDist == null || woundDist.length == 0) {
             return new double[]{1.0};
         }
 
         // 1. Build the distribution for exactly ONE successful wound (e.g., D3+1)
-        double[] singleWoundDamageDist = buildSingleWoundDist(damageExpression);
+        double[] singleWoundDamageDist = buildSingleWoundDist(damageExpression, pointPassProbability);
         
-        // 2. Determine maximum possible damage to initialize the array
-        int maxPossibleDamage = (woundDist.length - 1) * (singleWoundDamageDist.length - 1);
-        double[] totalDamageDist = new double[maxPossibleDamage + 1];
-
-        // 3. Optimization: Iterative Convolution
-        double[] currentScenarioDist = {1.0}; 
+        // 2. Every wound rolls its damage independently: a random sum over the wound count
+        return ProbabilityMath.compound(woundDist, singleWoundDamageDist, arena);
+    }
 
-        for (int w = 0; w < woundDist.length; w++) {
-            double probOfWounds = woundDist[w];
+    /**
+     * Calculates the total damage distribution for a trimmed wound distribution.
+     * Only the stored wound window is compounded, so the result does not span the
+     * theoretical maximum of (max wounds)·(max damage).
+     * @param woundDist The distribution of successful wounds.
+     * @param damageExpression The weapon damage (e.g., "2", "D3", "D6+1").
+     * @return The distribution of total damage.
+     */
+    public static Distribution calculateDamageDistribution(Distribution woundDist, String damageExpression) {
+        return calculateDamageDistribution(woundDist, damageExpression, ScratchArena.UNPOOLED);
+    }
 
-            if (probOfWounds > 0.0000001) {
-                for (int d = 0; d < currentScenarioDist.length; d++) {
-                    totalDamageDist[d] += currentScenarioDist[d] * probOfWounds;
-                }
-            }
+    /**
+     * Variant of {@link #calculateDamageDistribution(Distribution, String)} that keeps its intermediate
+     * arrays in a request-scoped arena.
+     */
+    public static Distribution calculateDamageDistribution(Distribution woundDist, String damageExpression, ScratchArena arena) {
+        return calculateDamageDistribution(woundDist, damageExpression, 1.0, arena);
+    }
 
-            if (w < woundDist.length - 1) {
-                currentScenarioDist = ProbabilityMath.convolve(currentScenarioDist, singleWoundDamageDist);
-            }
+    /**
+     * Variant of {@link #calculateDamageDistribution(Distribution, String, ScratchArena)} where every
+     * point of damage only gets through with {@code pointPassProbability}.
+     */
+    public static Distribution calculateDamageDistribution(Distribution woundDist, String damageExpression,
+                                                           double pointPassProbability, ScratchArena arena) {
+        if (woundDist == null) {
+            return Distribution.neutral();
         }
-        
-        return totalDamageDist;
+        return ProbabilityMath.compound(woundDist, buildSingleWoundDist(damageExpression, pointPassProbability), arena);
+    }
+
+    /**
+     * The damage of a single wound after each of its points is thinned. The array has at most a few
+     * entries, so thinning it is far cheaper than thinning the unit's damage distribution.
+     */
+    static double[] buildSingleWoundDist(String expr, double pointPassProbability) {
+        double[] dist = buildSingleWoundDist(expr);
+        return pointPassProbability >= 1.0 ? dist : ProbabilityMath.thin(dist, pointPassProbability);
     }
 
     /**
      * Parses the damage string and creates a distribution for a single die/value.
      */
-    private static double[] buildSingleWoundDist(String expr) {
+    static double[] buildSingleWoundDist(String expr) {
         if (expr == null || expr.trim().isEmpty()) {
             return new double[]{0, 1.0}; 
         }
@@ -0,0 +1,246 @@
+package com.warhammer.util;
+
+import java.util.Arrays;
+
+/**
+ * An immutable discrete probability distribution over non-negative outcomes, stored as an
+ * offset and a trimmed body.
+ * <p>
+ * Raw pipeline arrays start at outcome 0 and run to the theoretical maximum, even though most of
+ * that range carries almost no mass (a 20-unit army can in theory score thousands of hits, but
+ * practically never fewer than a few hundred). A {@code Distribution} only stores the outcomes
+ * between its lowest and highest significant value, so memory and convolution cost scale with the
+ * real support.
+ * <p>
+ * Tails are pruned so that at most {@code epsilon} of mass is dropped per operation, half from each
+ * end. The total mass dropped along the way is tracked in {@link #getPrunedMass()}. The CDF and the
+ * moments are computed on first use and cached.
+ */
+public final class Distribution {
+
+    /**
+     * Default pruning tolerance: far below the 4-decimal precision of every reported figure.
+     */
+    public static final double DEFAULT_EPSILON = 1e-12;
+
+    private static final Distribution NEUTRAL = new Distribution(0, new double[]{1.0}, 0.0, 0.0);
+
+    private final int offset;
+    private final double[] body;
+    private final double epsilon;
+    private final double prunedMass;
+
+    private volatile double[] cdf;
+    private volatile Moments moments;
+
+    private record Moments(double mean, double variance) {}
+
+    private Distribution(int offset, double[] body, double epsilon, double prunedMass) {
+        this.offset = offset;
+        this.body = body;
+        this.epsilon = epsilon;
+        this.prunedMass = prunedMass;
+    }
+
+    /**
+     * @return The distribution of an outcome that is always 0.
+     */
+    public static Distribution neutral() {
+        return NEUTRAL;
+    }
+
+    /**
+     * Wraps a dense array indexed from outcome 0, trimming only exact zeros at either end.
+     */
+    public static Distribution of(double[] dense) {
+        return of(dense, 0.0);
+    }
+
+    /**
+     * Wraps a dense array indexed from outcome 0, pruning tails holding at most {@code epsilon} of mass.
+     * The array is copied, so the caller may keep modifying it.
+     */
+    public static Distribution of(double[] dense, double epsilon) {
+        if (dense == null || dense.length == 0) {
+            return NEUTRAL;
+        }
+        return prune(0, dense, dense.length, epsilon, 0.0, true);
+    }
+
+    /**
+     * Builds a distribution from a body that starts at {@code offset}, pruning tails holding at most
+     * {@code epsilon} of mass. The body is adopted without copying when nothing is pruned, so callers
+     * must pass a freshly computed array.
+     */
+    static Distribution adopt(int offset, double[] body, double epsilon, double inheritedPrunedMass) {
+        if (body == null || body.length == 0) {
+            return NEUTRAL;
+        }
+        return prune(offset, body, body.length, epsilon, inheritedPrunedMass, false);
+    }
+
+    /**
+     * Builds a distribution from the first {@code length} entries of a scratch buffer that starts at
+     * {@code offset}, pruning as {@link #adopt(int, double[], double, double)} does. Only the kept
+     * range is copied, so the buffer can go straight back to its arena.
+     */
+    static Distribution copyOf(int offset, double[] buffer, int length, double epsilon, double inheritedPrunedMass) {
+        if (length == 0) {
+            return NEUTRAL;
+        }
+        return prune(offset, buffer, length, epsilon, inheritedPrunedMass, true);
+    }
+
+    private static Distribution prune(int offset, double[] body, int length, double epsilon, double inheritedPrunedMass,
+                                      boolean copy) {
+        double tailBudget = epsilon / 2.0;
+
+        int from = 0;
+        double lowMass = 0.0;
+        while (from < length - 1 && lowMass + body[from] <= tailBudget) {
+            lowMass += body[from++];
+        }
+        int to = length;
+        double highMass = 0.0;
+        while (to - 1 > from && highMass + body[to - 1] <= tailBudget) {
+            highMass += body[--to];
+        }
+
+        double[] trimmed = (!copy && from == 0 && to == body.length) ? body : Arrays.copyOfRange(body, from, to);
+        return new Distribution(offset + from, trimmed, epsilon, inheritedPrunedMass + lowMass + highMass);
+    }
+
+    /**
+     * @return The lowest stored outcome.
+     */
+    public int min() { return offset; }
+
+    /**
+     * @return The highest stored outcome.
+     */
+    public int max() { return offset + body.length - 1; }
+
+    /**
+     * @return The number of stored outcomes, from {@link #min()} to {@link #max()}.
+     */
+    public int width() { return body.length; }
+
+    /**
+     * @return The probability of exactly {@code outcome}, or 0 outside the stored range.
+     */
+    public double get(int outcome) {
+        int index = outcome - offset;
+        return (index < 0 || index >= body.length) ? 0.0 : body[index];
+    }
+
+    /**
+     * @return The pruning tolerance that later operations on this distribution apply.
+     */
+    public double getEpsilon() { return epsilon; }
+
+    /**
+     * @return The total probability mass dropped from the tails while building this distribution.
+     */
+    public double getPrunedMass() { return prunedMass; }
+
+    /**
+     * @return A copy of the stored outcomes, from {@link #min()} to {@link #max()}.
+     */
+    public double[] body() {
+        return body.clone();
+    }
+
+    /**
+     * @return A dense array indexed from outcome 0 up to {@link #max()}.
+     */
+    public double[] toArray() {
+        double[] dense = new double[max() + 1];
+        System.arraycopy(body, 0, dense, offset, body.length);
+        return dense;
+    }
+
+    /**
+     * @return The probability of an outcome of at most {@code outcome}.
+     */
+    public double cumulative(int outcome) {
+        if (outcome < offset) return 0.0;
+        double[] cumulative = cdf();
+        return cumulative[Math.min(outcome - offset, cumulative.length - 1)];
+    }
+
+    /**
+     * Finds the smallest outcome whose cumulative probability reaches the threshold.
+     *
+     * @return The percentile outcome, or {@link #max()} if the threshold is never reached.
+     */
+    public int percentile(double threshold) {
+        double[] cumulative = cdf();
+        for (int i = 0; i < cumulative.length; i++) {
+            if (cumulative[i] >= threshold) return offset + i;
+        }
+        return max();
+    }
+
+    /**
+     * Sums the probabilities of all outcomes equal to or greater than the target value.
+     */
+    public double probabilityAtLeast(double target) {
+        int start = Math.max(0, (int) Math.ceil(target) - offset);
+        double probability = 0.0;
+        for (int i = start; i < body.length; i++) {
+            probability += body[i];
+        }
+        return probability;
+    }
+
+    public double mean() {
+        return moments().mean();
+    }
+
+    public double variance() {
+        return moments().variance();
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    private double[] cdf() {
+        double[] cumulative = cdf;
+        if (cumulative == null) {
+            cumulative = new double[body.length];
+            double running = 0.0;
+            for (int i = 0; i < body.length; i++) {
+                running += body[i];
+                cumulative[i] = running;
+            }
+            cdf = cumulative;
+        }
+        return cumulative;
+    }
+
+    private Moments moments() {
+        Moments cached = moments;
+        if (cached == null) {
+            double mean = 0.0;
+            for (int i = 0; i < body.length; i++) mean += (offset + i) * body[i];
+            double variance = 0.0;
+            for (int i = 0; i < body.length; i++) variance += body[i] * Math.pow(offset + i - mean, 2);
+            cached = new Moments(mean, variance);
+            moments = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Exposes the body to operators in this package without copying. Callers must not modify it.
+     */
+    double[] bodyView() {
+        return body;
+    }
+
+    @Override
+    public String toString() {
+        return "Distribution[" + min() + ".." + max() + ", prunedMass=" + prunedMass + "]";
+    }
+}
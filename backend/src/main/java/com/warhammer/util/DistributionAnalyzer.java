@@ -1,6 +1,9 @@
 package com.warhammer.util;
 
 import com.warhammer.dto.CalculationResultDTO;
+import com.warhammer.dto.ComparisonResultDTO;
+
+import java.util.List;
 
 /**
  * Responsible for transforming raw probability distribution arrays 
@@ -9,6 +12,7 @@ import com.warhammer.dto.CalculationResultDTO;
 public class DistributionAnalyzer {
 
     private static final double P10_THRESHOLD = 0.10;
+    private static final double P50_THRESHOLD = 0.50;
     private static final double P90_THRESHOLD = 0.90;
     private static final double P95_THRESHOLD = 0.95;
     private static final double SIGNIFICANCE_CUTOFF = 0.0001;
@@ -26,6 +30,13 @@ public class DistributionAnalyzer {
      * Enriches the DTO with Hit-specific statistics.
      */
     public static void enrichHits(CalculationResultDTO dto, double[] dist) {
+        enrichHits(dto, wrap(dist));
+    }
+
+    /**
+     * Enriches the DTO with Hit-specific statistics.
+     */
+    public static void enrichHits(CalculationResultDTO dto, Distribution dist) {
         AnalysisResult stats = performAnalysis(dist);
         
         dto.setAvgValue(stats.mean);
@@ -34,9 +45,9 @@ public class DistributionAnalyzer {
         dto.setRangeTop5(stats.rangeTop5);
         dto.setRangeStd(stats.rangeStd);
 
-        int avgIndex = (int) Math.round(stats.mean);
-        if (avgIndex < dist.length) {
-            dto.setAvgProb(round(dist[avgIndex] * 100));
+        if (dist != null) {
+            int avgIndex = (int) Math.round(dist.mean());
+            dto.setAvgProb(round(dist.get(avgIndex) * 100));
         }
     }
 
@@ -44,6 +55,13 @@ public class DistributionAnalyzer {
      * Enriches the DTO with Wound-specific statistics.
      */
     public static void enrichWounds(CalculationResultDTO dto, double[] dist) {
+        enrichWounds(dto, wrap(dist));
+    }
+
+    /**
+     * Enriches the DTO with Wound-specific statistics.
+     */
+    public static void enrichWounds(CalculationResultDTO dto, Distribution dist) {
         AnalysisResult stats = performAnalysis(dist);
         
         dto.setWoundAvgValue(stats.mean);
@@ -57,6 +75,13 @@ public class DistributionAnalyzer {
      * Enriches the DTO with Damage-specific statistics.
      */
     public static void enrichDamage(CalculationResultDTO dto, double[] dist) {
+        enrichDamage(dto, wrap(dist));
+    }
+
+    /**
+     * Enriches the DTO with Damage-specific statistics.
+     */
+    public static void enrichDamage(CalculationResultDTO dto, Distribution dist) {
         AnalysisResult stats = performAnalysis(dist);
         
         dto.setDamageAvgValue(stats.mean);
@@ -66,22 +91,112 @@ public class DistributionAnalyzer {
     }
 
 
-    private static AnalysisResult performAnalysis(double[] dist) {
-        if (dist == null || dist.length == 0) {
+    /**
+     * Compares the army damage distribution with the distribution of the army without one unit.
+     * <p>
+     * Both the mean and the chance of reaching the full army's average damage are reported,
+     * the latter in percentage points like the damage card's "at least average" figure.
+     */
+    public static CalculationResultDTO.UnitContribution analyzeContribution(
+            int unitIndex, String unitName, Distribution armyDist, Distribution armyWithoutUnitDist) {
+        return analyzeContribution(unitIndex, unitName, armyDist, armyWithoutUnitDist.mean(),
+                armyWithoutUnitDist.probabilityAtLeast(armyDist.mean()));
+    }
+
+    /**
+     * Variant of {@link #analyzeContribution(int, String, Distribution, Distribution)} for when only the
+     * mean of the army without the unit, and its chance of reaching the full army's mean, are known.
+     */
+    public static CalculationResultDTO.UnitContribution analyzeContribution(
+            int unitIndex, String unitName, Distribution armyDist, double meanWithout, double probAtLeastArmyMeanWithout) {
+        double armyMean = armyDist.mean();
+        double probArmy = armyDist.probabilityAtLeast(armyMean) * 100;
+        double probWithout = probAtLeastArmyMeanWithout * 100;
+
+        return new CalculationResultDTO.UnitContribution(unitIndex, unitName,
+                round(meanWithout), round(armyMean - meanWithout),
+                round(probWithout), round(probArmy - probWithout));
+    }
+
+    /**
+     * Summarizes the models slain against no save, with the chance of wiping the unit in percentage points.
+     */
+    public static CalculationResultDTO.ModelsSlain analyzeModelsSlain(int models, int woundsPerModel,
+            Distribution slainDist, List<Double> probabilities, List<CalculationResultDTO.SaveNode> saveScaling) {
+        return new CalculationResultDTO.ModelsSlain(models, woundsPerModel, probabilities,
+                round(slainDist.mean()), round(slainDist.get(models) * 100), saveScaling);
+    }
+
+    /**
+     * Compares the damage distributions of two independent armies against the same target.
+     * The toughness and save sweeps of the result start out empty.
+     */
+    public static ComparisonResultDTO.ArmyComparison compareDamage(int firstIndex, String firstName, Distribution first,
+                                                                   int secondIndex, String secondName, Distribution second) {
+        double probFirst = probabilityGreater(first, second);
+        double probSecond = probabilityGreater(second, first);
+        double probEqual = 1.0 - probFirst - probSecond;
+
+        return new ComparisonResultDTO.ArmyComparison(firstIndex, firstName, secondIndex, secondName,
+                round(probFirst * 100), round(probSecond * 100), round(Math.max(0.0, probEqual) * 100),
+                round(first.mean() - second.mean()),
+                first.percentile(P10_THRESHOLD) - second.percentile(P10_THRESHOLD),
+                first.percentile(P50_THRESHOLD) - second.percentile(P50_THRESHOLD),
+                first.percentile(P90_THRESHOLD) - second.percentile(P90_THRESHOLD));
+    }
+
+    /**
+     * Compares the wound distributions of two independent armies against one toughness value.
+     */
+    public static ComparisonResultDTO.ToughnessComparison compareToughnessNode(int toughness, Distribution first,
+                                                                               Distribution second) {
+        return new ComparisonResultDTO.ToughnessComparison(toughness,
+                round(probabilityGreater(first, second) * 100), round(probabilityGreater(second, first) * 100),
+                round(first.mean() - second.mean()));
+    }
+
+    /**
+     * Compares the damage distributions of two independent armies against one save characteristic.
+     */
+    public static ComparisonResultDTO.SaveComparison compareSaveNode(String label, Distribution first,
+                                                                     Distribution second) {
+        return new ComparisonResultDTO.SaveComparison(label,
+                round(probabilityGreater(first, second) * 100), round(probabilityGreater(second, first) * 100),
+                round(first.mean() - second.mean()));
+    }
+
+    /**
+     * The chance that a draw from {@code first} exceeds an independent draw from {@code second}:
+     * the sum over every outcome x of P(first = x) * P(second < x).
+     */
+    private static double probabilityGreater(Distribution first, Distribution second) {
+        double probability = 0.0;
+        for (int x = Math.max(first.min(), second.min() + 1); x <= first.max(); x++) {
+            probability += first.get(x) * second.cumulative(x - 1);
+        }
+        return probability;
+    }
+
+    private static Distribution wrap(double[] dist) {
+        return (dist == null || dist.length == 0) ? null : Distribution.of(dist);
+    }
+
+    private static AnalysisResult performAnalysis(Distribution dist) {
+        if (dist == null) {
             return new AnalysisResult(0, 0, "0 - 0", "0 - 0", "0 - 0");
         }
 
-        double mean = calculateMean(dist);
-        double stdDev = calculateStandardDeviation(dist, mean);
+        double mean = dist.mean();
+        double stdDev = dist.standardDeviation();
         
-        int p10 = findPercentile(dist, P10_THRESHOLD);
-        int p90 = findPercentile(dist, P90_THRESHOLD);
-        int p95 = findPercentile(dist, P95_THRESHOLD);
+        int p10 = dist.percentile(P10_THRESHOLD);
+        int p90 = dist.percentile(P90_THRESHOLD);
+        int p95 = dist.percentile(P95_THRESHOLD);
         int absoluteMax = findAbsoluteMax(dist);
 
         return new AnalysisResult(
             round(mean),
-            round(calculateProbabilityAtLeast(dist, mean) * 100),
+            round(dist.probabilityAtLeast(mean) * 100),
             formatRange(p10, p90),
             formatRange(p95, absoluteMax),
             formatStandardRange(mean, stdDev)
@@ -96,50 +211,12 @@ public class DistributionAnalyzer {
         String rangeStd
     ) {}
 
-    private static double calculateMean(double[] dist) {
-        double mean = 0;
-        for (int i = 0; i < dist.length; i++) mean += i * dist[i];
-        return mean;
-    }
-
-    /**
-     * Calculates the Standard Deviation to measure how much the results vary from the mean.
-     */
-    private static double calculateStandardDeviation(double[] dist, double mean) {
-        double variance = 0;
-        for (int i = 0; i < dist.length; i++) variance += dist[i] * Math.pow(i - mean, 2);
-        return Math.sqrt(variance);
-    }
-
-    /**
-     * Finds the number of hits at which the cumulative probability reaches a specific threshold.
-     */
-    private static int findPercentile(double[] dist, double threshold) {
-        double cumulative = 0;
-        for (int i = 0; i < dist.length; i++) {
-            cumulative += dist[i];
-            if (cumulative >= threshold) return i;
-        }
-        return dist.length - 1;
-    }
-
-    /**
-     * Sums the probabilities of all outcomes equal to or greater than the target value.
-     */
-    private static double calculateProbabilityAtLeast(double[] dist, double target) {
-        double prob = 0;
-        for (int i = 0; i < dist.length; i++) {
-            if (i >= target) prob += dist[i];
-        }
-        return prob;
-    }
-
     /**
      * Finds the highest number of hits that has a non-negligible probability of occurring.
      */
-    private static int findAbsoluteMax(double[] dist) {
-        for (int i = dist.length - 1; i >= 0; i--) {
-            if (dist[i] > SIGNIFICANCE_CUTOFF) return i;
+    private static int findAbsoluteMax(Distribution dist) {
+        for (int i = dist.max(); i >= dist.min(); i--) {
+            if (dist.get(i) > SIGNIFICANCE_CUTOFF) return i;
         }
         return 0;
     }
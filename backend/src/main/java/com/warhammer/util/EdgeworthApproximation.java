@@ -0,0 +1,207 @@
+package com.warhammer.util;
+
+/**
+ * Builds a discrete distribution from the cumulants of a sum of independent variables, with an
+ * Edgeworth-corrected normal approximation, and bounds its error.
+ * <p>
+ * The exact distribution of a large army needs arrays as wide as its support, and convolutions
+ * over them. The cumulants of the same army are sums of per-model cumulants, so they cost the same
+ * however many models there are; only the returned distribution grows, with the standard deviation.
+ * <p>
+ * The approximation lives on the lattice of the sum: if every model outcome is a multiple of the
+ * span, so is every army outcome, and probability is only placed on those. Each lattice point gets
+ * the Edgeworth CDF increment across it (a continuity correction), negative increments from the
+ * correction terms are clipped and the result is renormalised.
+ * <p>
+ * The reported error bounds the absolute difference between the cumulative probabilities of the
+ * returned distribution and those of the exact sum at every outcome. It is the Berry–Esseen bound on
+ * the exact sum's distance from the normal, with Shevtsova's constant for non-identical summands,
+ * plus the largest measured distance between the returned distribution and that normal. Berry–Esseen
+ * is conservative, so the real error is usually far smaller than the bound.
+ */
+public final class EdgeworthApproximation {
+
+    /**
+     * Berry–Esseen constant for sums of independent, not necessarily identical, variables (Shevtsova, 2010).
+     */
+    static final double BERRY_ESSEEN_CONSTANT = 0.56;
+
+    /**
+     * Standard deviations covered on each side of the mean. The Edgeworth tails beyond that hold far
+     * less mass than the default pruning tolerance.
+     */
+    private static final double TAIL_DEVIATIONS = 9.0;
+
+    private static final double LOG_SQRT_TWO_PI = 0.91893853320467274178;
+
+    private EdgeworthApproximation() {}
+
+    /**
+     * An approximated distribution and its error bound.
+     *
+     * @param distribution The approximation, over the non-negative outcomes on the lattice of the sum.
+     * @param errorBound An upper bound on the absolute error of any cumulative probability, at most 1.
+     */
+    public record Approximation(Distribution distribution, double errorBound) {}
+
+    /**
+     * An approximated probability and its error bound.
+     */
+    public record Probability(double value, double errorBound) {}
+
+    /**
+     * Approximates the distribution of a sum of independent non-negative integer variables.
+     *
+     * @param cumulants The cumulants of the sum.
+     * @param epsilon Tail mass the returned distribution may prune.
+     */
+    public static Approximation approximate(Cumulants cumulants, double epsilon) {
+        if (cumulants.variance() <= 0.0) {
+            int outcome = (int) Math.max(0, Math.round(cumulants.mean()));
+            return new Approximation(Distribution.adopt(outcome, new double[]{1.0}, epsilon, 0.0), 0.0);
+        }
+
+        int span = Math.max(1, cumulants.span());
+        Continuous continuous = Continuous.of(cumulants, span);
+        double mean = continuous.mean();
+        double deviation = continuous.deviation();
+        double skewness = continuous.skewness();
+        double excessKurtosis = continuous.excessKurtosis();
+
+        int low = (int) Math.max(0, Math.floor(mean - TAIL_DEVIATIONS * deviation));
+        int high = (int) Math.ceil(mean + TAIL_DEVIATIONS * deviation);
+        int points = high - low + 1;
+
+        // CDF increments across each lattice point; the ends absorb both tails
+        double[] mass = new double[points];
+        double[] normal = new double[points];
+        double previous = 0.0;
+        for (int k = 0; k < points; k++) {
+            double z = (low + k + 0.5 - mean) / deviation;
+            normal[k] = normalCdf(z);
+            double next = k == points - 1 ? 1.0 : edgeworthCdf(z, normal[k], skewness, excessKurtosis);
+            mass[k] = Math.max(0.0, next - previous);
+            previous = next;
+        }
+        double total = 0.0;
+        for (double m : mass) total += m;
+
+        // Largest gap between the normalised result and the normal at every half-lattice point
+        double normalGap = 0.0;
+        double cumulative = 0.0;
+        for (int k = 0; k < points; k++) {
+            mass[k] /= total;
+            cumulative += mass[k];
+            normalGap = Math.max(normalGap, Math.abs(Math.min(cumulative, 1.0) - normal[k]));
+        }
+        if (low > 0) {
+            normalGap = Math.max(normalGap, normalCdf((low - 0.5 - mean) / deviation));
+        }
+
+        double[] body = new double[(points - 1) * span + 1];
+        for (int k = 0; k < points; k++) {
+            body[k * span] = mass[k];
+        }
+        Distribution distribution = Distribution.adopt(low * span, body, epsilon, 0.0);
+
+        double bound = berryEsseen(cumulants) + normalGap + distribution.getPrunedMass();
+        return new Approximation(distribution, Math.min(1.0, bound));
+    }
+
+    /**
+     * Approximates the chance that the sum reaches {@code target} without building its distribution,
+     * so it costs the same however wide the sum is.
+     */
+    public static Probability probabilityAtLeast(Cumulants cumulants, double target) {
+        if (cumulants.variance() <= 0.0) {
+            return new Probability(Math.max(0, Math.round(cumulants.mean())) >= target ? 1.0 : 0.0, 0.0);
+        }
+        int span = Math.max(1, cumulants.span());
+        double first = Math.ceil(target / span);
+        if (first <= 0.0) {
+            return new Probability(1.0, 0.0);
+        }
+        Continuous continuous = Continuous.of(cumulants, span);
+        double z = (first - 0.5 - continuous.mean()) / continuous.deviation();
+        double normal = normalCdf(z);
+        double below = Math.min(1.0, Math.max(0.0,
+                edgeworthCdf(z, normal, continuous.skewness(), continuous.excessKurtosis())));
+        return new Probability(1.0 - below, Math.min(1.0, berryEsseen(cumulants) + Math.abs(below - normal)));
+    }
+
+    /**
+     * The continuous variable whose CDF increments across unit cells are approximated, in lattice units.
+     * Spreading each lattice point over a unit cell adds a uniform variable's cumulants (1/12 to the
+     * variance, -1/120 to the fourth cumulant), so Sheppard's corrections take them off first.
+     * Lattices too coarse for the correction keep the raw cumulants.
+     */
+    private record Continuous(double mean, double deviation, double skewness, double excessKurtosis) {
+
+        static Continuous of(Cumulants cumulants, int span) {
+            double variance = cumulants.variance() / ((double) span * span);
+            double fourth = cumulants.fourthCumulant() / Math.pow(span, 4);
+            if (variance > 0.25) {
+                variance -= 1.0 / 12.0;
+                fourth += 1.0 / 120.0;
+            }
+            double third = cumulants.thirdCumulant() / Math.pow(span, 3);
+            return new Continuous(cumulants.mean() / span, Math.sqrt(variance),
+                    third / Math.pow(variance, 1.5), fourth / (variance * variance));
+        }
+    }
+
+    private static double berryEsseen(Cumulants cumulants) {
+        return BERRY_ESSEEN_CONSTANT * cumulants.absoluteThirdMoment() / Math.pow(cumulants.variance(), 1.5);
+    }
+
+    /**
+     * The Edgeworth expansion of the standardised CDF up to the fourth cumulant.
+     */
+    static double edgeworthCdf(double z, double skewness, double excessKurtosis) {
+        return edgeworthCdf(z, normalCdf(z), skewness, excessKurtosis);
+    }
+
+    private static double edgeworthCdf(double z, double normalCdf, double skewness, double excessKurtosis) {
+        double z2 = z * z;
+        double he2 = z2 - 1.0;
+        double he3 = z * (z2 - 3.0);
+        double he5 = z * (z2 * z2 - 10.0 * z2 + 15.0);
+        double correction = skewness / 6.0 * he2 + excessKurtosis / 24.0 * he3 + skewness * skewness / 72.0 * he5;
+        return normalCdf - normalDensity(z) * correction;
+    }
+
+    /**
+     * The standard normal CDF, from Hart's rational approximation (algorithm 5666, as given by West),
+     * accurate to double precision with a single exponential.
+     */
+    static double normalCdf(double z) {
+        double x = Math.abs(z);
+        double tail;
+        if (x > 37.0) {
+            tail = 0.0;
+        } else if (x < 7.07106781186547) {
+            double numerator = 3.52624965998911e-02 * x + 0.700383064443688;
+            numerator = numerator * x + 6.37396220353165;
+            numerator = numerator * x + 33.912866078383;
+            numerator = numerator * x + 112.079291497871;
+            numerator = numerator * x + 221.213596169931;
+            numerator = numerator * x + 220.206867912376;
+            double denominator = 8.83883476483184e-02 * x + 1.75566716318264;
+            denominator = denominator * x + 16.064177579207;
+            denominator = denominator * x + 86.7807322029461;
+            denominator = denominator * x + 296.564248779674;
+            denominator = denominator * x + 637.333633378831;
+            denominator = denominator * x + 793.826512519948;
+            denominator = denominator * x + 440.413735824752;
+            tail = Math.exp(-0.5 * x * x) * numerator / denominator;
+        } else {
+            double fraction = x + 1.0 / (x + 2.0 / (x + 3.0 / (x + 4.0 / (x + 0.65))));
+            tail = Math.exp(-0.5 * x * x) / fraction / 2.506628274631;
+        }
+        return z > 0.0 ? 1.0 - tail : tail;
+    }
+
+    private static double normalDensity(double z) {
+        return Math.exp(-0.5 * z * z - LOG_SQRT_TWO_PI);
+    }
+}
@@ -7,8 +7,8 @@ import com.warhammer.dto.CalculationRequestDTO;
  * <p>
  * This processor handles the complex interactions between Ballistic Skill (BS), 
  * hit modifiers, reroll strategies (including "fishing" for criticals), and 
- * critical hit effects such as Lethal Hits and Sustained Hits. It uses iterative 
- * convolution to transform an attack distribution into a final hit distribution.
+ * critical hit effects such as Lethal Hits and Sustained Hits. It uses compound 
+ * (random sum) distributions to transform an attack distribution into a final hit distribution.
  */
 public class HitProcessor {
 
@@ -31,72 +31,85 @@ public class HitProcessor {
      * and lethal auto-wounds.
      */
     public static HitResult calculateUnitDistribution(CalculationRequestDTO request) {
+        return calculateUnitDistribution(request, ScratchArena.UNPOOLED);
+    }
+
+    /**
+     * Variant of {@link #calculateUnitDistribution(CalculationRequestDTO)} that keeps the intermediate
+     * arrays of its convolutions in a request-scoped arena, so only the result arrays are allocated.
+     */
+    public static HitResult calculateUnitDistribution(CalculationRequestDTO request, ScratchArena arena) {
         int numModels = request.getNumberOfModels();
         if (numModels <= 0) {
-            return new HitResult(new double[]{1.0}, new double[]{1.0}, new double[]{1.0});
+            return new HitResult(new double[]{1.0}, new double[]{1.0}, new double[]{1.0},
+                    new double[]{1.0}, JointDistribution.fromDense(new double[][]{{1.0}}));
         }
 
         // 1. Determine the unit-wide distribution of total attacks
         double[] singleModelAttackDist = buildExpressionDist(request.getAttacksPerModel());
-        double[] unitAttackDist = {1.0};
-
-        for (int i = 0; i < numModels; i++) {
-            unitAttackDist = ProbabilityMath.convolve(unitAttackDist, singleModelAttackDist);
-        }
+        double[] unitAttackDist = ProbabilityMath.power(singleModelAttackDist, numModels, arena);
 
-        // 2. Determine the probability map for exactly one attack roll
-        double[] singleStandard = new double[STANDARD_HITS_ARRAY_SIZE];
-        double[] singleLethal = new double[LETHAL_HITS_ARRAY_SIZE];
-        double[] singleTotal = new double[STANDARD_HITS_ARRAY_SIZE]; 
+        // 2. Determine the joint (standard, lethal) outcome of exactly one attack roll in a single pass.
+        // The grid is indexed [lethal][standard] so each lethal branch is a plain standard-hit row.
+        JointDistribution singleHit = singleAttackOutcome(request);
 
-        calculateSingleDieOutcomes(singleStandard, singleLethal, singleTotal, request);
+        // 3. Project the unit attack distribution onto the hit outcomes as random sums
+        return transformAttacksToHits(unitAttackDist, singleHit, arena);
+    }
 
-        // 3. Project the unit attack distribution onto the hit outcomes via convolution
-        return transformAttacksToHits(unitAttackDist, singleStandard, singleLethal, singleTotal);
+    /**
+     * @return The joint (standard, lethal) hit outcome of one attack roll, as used by
+     * {@link #calculateUnitDistribution(CalculationRequestDTO)}.
+     */
+    static JointDistribution singleAttackOutcome(CalculationRequestDTO request) {
+        double[][] singleHitGrid = new double[LETHAL_HITS_ARRAY_SIZE][STANDARD_HITS_ARRAY_SIZE];
+        calculateSingleDieOutcomes(singleHitGrid, request);
+        return toStandardLethalJoint(singleHitGrid);
     }
 
     /**
-     * Projects a distribution of attacks into resulting hit streams using iterative convolution.
+     * Projects a distribution of attacks into resulting hit streams as random sums.
      * <p>
      * This method acts as the transformation engine, mapping the probability of rolling 
      * 'N' attacks to the corresponding probability of achieving 'X' hits based on the 
-     * single-die success rates.
+     * single-die success rates, via {@link ProbabilityMath#compound(double[], double[])}.
+     * The joint single-attack outcome is kept on the result so later stages can follow 
+     * standard and lethal hits together instead of as independent marginals.
+     * <p>
+     * Every per-attack pool is read off that joint outcome, so only the pools that carry new
+     * information are compounded. Without Lethal Hits the lethal pool is empty and the total is the
+     * standard pool itself. With them, a lethal hit is a single die, so its pool is a binomial
+     * thinning rather than a general random sum. The unit-level joint is not compounded: its support
+     * grows with the square of the attack count.
      *
      * @param attackDist Probability array where index 'a' represents the chance of having 'a' attacks.
-     * @param sStd Single-die probability map for standard hits.
-     * @param sLethal Single-die probability map for lethal auto-wounds.
-     * @param sTotal Single-die probability map for the combined hit pool.
+     * @param singleHit Joint (standard, lethal) outcome of a single attack.
+     * @param arena Scratch buffers for the intermediate arrays.
      * @return A unified HitResult distribution for the unit.
      */
-    private static HitResult transformAttacksToHits(double[] attackDist, double[] sStd, double[] sLethal, double[] sTotal) {
-        int maxStd = (attackDist.length - 1) * (sStd.length - 1);
-        int maxLethal = (attackDist.length - 1) * (sLethal.length - 1);
-        int maxTotal = (attackDist.length - 1) * (sTotal.length - 1);
-
-        double[] totalStd = new double[maxStd + 1];
-        double[] totalLethal = new double[maxLethal + 1];
-        double[] totalTrueHits = new double[maxTotal + 1];
-
-        double[] currentStd = {1.0};
-        double[] currentLethal = {1.0};
-        double[] currentTotal = {1.0};
+    private static HitResult transformAttacksToHits(double[] attackDist, JointDistribution singleHit,
+                                                    ScratchArena arena) {
+        double[] totalStd = ProbabilityMath.compound(attackDist, singleHit.marginalFirst(), arena);
+        if (singleHit.maxSecond() == 0) {
+            return new HitResult(totalStd, new double[]{1.0}, totalStd, attackDist, singleHit);
+        }
+        double[] totalLethal = ProbabilityMath.compound(attackDist, singleHit.marginalSecond(), arena);
+        double[] totalTrueHits = ProbabilityMath.compound(attackDist, singleHit.sumDistribution(), arena);
 
-        for (int a = 0; a < attackDist.length; a++) {
-            double probOfA = attackDist[a];
-            if (probOfA > 0.0000001) {
-                for (int i = 0; i < currentStd.length; i++) totalStd[i] += currentStd[i] * probOfA;
-                for (int i = 0; i < currentLethal.length; i++) totalLethal[i] += currentLethal[i] * probOfA;
-                for (int i = 0; i < currentTotal.length; i++) totalTrueHits[i] += currentTotal[i] * probOfA;
-            }
+        return new HitResult(totalStd, totalLethal, totalTrueHits, attackDist, singleHit);
+    }
 
-            if (a < attackDist.length - 1) {
-                currentStd = ProbabilityMath.convolve(currentStd, sStd);
-                currentLethal = ProbabilityMath.convolve(currentLethal, sLethal);
-                currentTotal = ProbabilityMath.convolve(currentTotal, sTotal);
+    /**
+     * Re-indexes a [lethal][standard] outcome grid as a (standard, lethal) joint distribution.
+     */
+    private static JointDistribution toStandardLethalJoint(double[][] grid) {
+        double[][] standardLethal = new double[STANDARD_HITS_ARRAY_SIZE][LETHAL_HITS_ARRAY_SIZE];
+        for (int lethal = 0; lethal < LETHAL_HITS_ARRAY_SIZE; lethal++) {
+            for (int standard = 0; standard < STANDARD_HITS_ARRAY_SIZE; standard++) {
+                standardLethal[standard][lethal] = grid[lethal][standard];
             }
         }
-
-        return new HitResult(totalStd, totalLethal, totalTrueHits);
+        return JointDistribution.fromDense(standardLethal);
     }
 
     /**
@@ -105,7 +118,7 @@ public class HitProcessor {
      * @param expr The raw string input representing model attacks.
      * @return A probability array for a single model's attack output.
      */
-    private static double[] buildExpressionDist(String expr) {
+    static double[] buildExpressionDist(String expr) {
         if (expr == null || expr.isBlank()) return new double[]{0, 1.0};
         expr = expr.toUpperCase().replace(" ", "");
         
@@ -162,22 +175,20 @@ public class HitProcessor {
     /**
      * Simulates the outcome of a single D6 roll, accounting for modifiers and rerolls.
      * <p>
-     * Results are categorized and added to the standard, lethal, and total hit probability maps.
+     * Results are categorized into the joint standard/lethal grid; the total hit pool is their sum.
      *
-     * @param std Array to populate with standard hit probabilities.
-     * @param lethal Array to populate with lethal hit probabilities.
-     * @param total Array to populate with combined hit probabilities.
+     * @param grid Joint probability grid to populate, indexed [lethal][standard].
      * @param req The request containing BS and reroll settings.
      */
-    private static void calculateSingleDieOutcomes(double[] std, double[] lethal, double[] total, CalculationRequestDTO req) {
+    private static void calculateSingleDieOutcomes(double[][] grid, CalculationRequestDTO req) {
         int bs = req.getBsValue();
         for (int face = 1; face <= D6_SIDES; face++) {
             if (shouldReroll(face, bs, req)) {
                 for (int rerollFace = 1; rerollFace <= D6_SIDES; rerollFace++) {
-                    processDiceFace(rerollFace, std, lethal, total, req, PROB_PER_FACE * PROB_PER_FACE);
+                    processDiceFace(rerollFace, grid, req, PROB_PER_FACE * PROB_PER_FACE);
                 }
             } else {
-                processDiceFace(face, std, lethal, total, req, PROB_PER_FACE);
+                processDiceFace(face, grid, req, PROB_PER_FACE);
             }
         }
     }
@@ -189,38 +200,30 @@ public class HitProcessor {
      * trigger critical effects like Lethal or Sustained Hits.
      *
      * @param face The die face value (1-6).
-     * @param std Standard hit probability array.
-     * @param lethal Lethal hit probability array.
-     * @param total Total hit probability array.
+     * @param grid Joint probability grid, indexed [lethal][standard].
      * @param req Active combat modifiers.
      * @param prob The weighted probability of this specific face occurring.
      */
-    private static void processDiceFace(int face, double[] std, double[] lethal, double[] total, CalculationRequestDTO req, double prob) {
+    private static void processDiceFace(int face, double[][] grid, CalculationRequestDTO req, double prob) {
         boolean isCrit = face >= req.getCritHitValue();
         int effectiveRoll = req.isPlusOneToHit() ? face + 1 : face;
         boolean isHit = req.isTorrent() || (effectiveRoll >= req.getBsValue() && face != 1);
 
+        double[] noLethal = grid[0];
+        double[] withLethal = grid[1];
+
         if (isCrit && req.isLethalHits()) {
-            lethal[1] += prob;
             if (req.isSustainedHits()) {
-                applySustainedExplosionOnly(std, req.getSustainedValue(), prob);
-                applySustainedWithBase(total, req.getSustainedValue(), prob); 
+                applySustainedExplosionOnly(withLethal, req.getSustainedValue(), prob);
             } else {
-                std[0] += prob; 
-                total[1] += prob;
+                withLethal[0] += prob; 
             }
         } else if (isCrit && req.isSustainedHits()) {
-            lethal[0] += prob;
-            applySustainedWithBase(std, req.getSustainedValue(), prob);
-            applySustainedWithBase(total, req.getSustainedValue(), prob);
+            applySustainedWithBase(noLethal, req.getSustainedValue(), prob);
         } else if (isHit) {
-            std[1] += prob;
-            lethal[0] += prob;
-            total[1] += prob;
+            noLethal[1] += prob;
         } else {
-            std[0] += prob;
-            lethal[0] += prob;
-            total[0] += prob;
+            noLethal[0] += prob;
         }
     }
 
@@ -278,7 +281,7 @@ public class HitProcessor {
      * @param value The numerical string.
      * @return The parsed integer, or 0 if parsing fails or input is null.
      */
-    private static int parseBonusValue(String value) {
+    static int parseBonusValue(String value) {
         try { return (value != null) ? Integer.parseInt(value) : 0; }
         catch (NumberFormatException e) { return 0; }
     }
@@ -7,11 +7,17 @@ package com.warhammer.util;
  * This class facilitates the transition from hits to wounds by separating 
  * dice that require a Wound Roll from those that bypass it via the 
  * 'Lethal Hits' mechanic.
+ * <p>
+ * Without Lethal Hits every hit is a standard hit, so {@link #getTotalVisualHits()} returns the
+ * same array as {@link #getStandardHits()}. Results are shared across requests by the distribution
+ * cache, so callers must not modify any of the arrays.
  */
 public class HitResult {
     private final double[] standardHits;
     private final double[] lethalHits;
     private final double[] totalVisualHits; 
+    private final double[] attackDistribution;
+    private final JointDistribution singleAttackOutcome;
 
     /**
      * Constructs a new HitResult with partitioned distributions.
@@ -22,12 +28,20 @@ public class HitResult {
      *                          the 'Lethal Hits' rule, bypassing the Wound Roll.
      * @param totalVisualHits   The consolidated distribution representing the sum 
      *                          of all hit results, including bonus hits from 
-     *                          'Sustained Hits'.
+     *                          'Sustained Hits'. May be {@code standardHits} itself
+     *                          when there are no lethal hits.
+     * @param attackDistribution  The distribution of the number of attacks rolled by the unit.
+     * @param singleAttackOutcome The joint (standard, lethal) outcome of a single attack. 
+     *                            The unit pools are random sums of this outcome over 
+     *                            {@code attackDistribution}.
      */
-    public HitResult(double[] standardHits, double[] lethalHits, double[] totalVisualHits) {
+    public HitResult(double[] standardHits, double[] lethalHits, double[] totalVisualHits,
+                     double[] attackDistribution, JointDistribution singleAttackOutcome) {
         this.standardHits = standardHits;
         this.lethalHits = lethalHits;
         this.totalVisualHits = totalVisualHits;
+        this.attackDistribution = attackDistribution;
+        this.singleAttackOutcome = singleAttackOutcome;
     }
 
     /**
@@ -45,4 +59,14 @@ public class HitResult {
      * for UI reporting and hit-phase statistics.
      */
     public double[] getTotalVisualHits() { return totalVisualHits; }
+
+    /**
+     * @return The distribution of the number of attacks rolled by the unit.
+     */
+    public double[] getAttackDistribution() { return attackDistribution; }
+
+    /**
+     * @return The joint (standard, lethal) outcome of a single attack roll.
+     */
+    public JointDistribution getSingleAttackOutcome() { return singleAttackOutcome; }
 }
\ No newline at end of file
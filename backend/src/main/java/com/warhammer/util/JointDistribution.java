@@ -0,0 +1,172 @@
+package com.warhammer.util;
+
+import java.util.Arrays;
+
+/**
+ * An immutable, sparse joint probability distribution over two dice pools.
+ * <p>
+ * Several rules split a single die into correlated pools: a critical hit with Lethal Hits 
+ * moves a die from the standard pool into the lethal pool, and a critical wound with 
+ * Devastating Wounds moves it from the standard pool into the devastating pool. Tracking 
+ * the pools as independent marginals loses that correlation. This class keeps the outcome 
+ * of one die (or one attack) as a list of (first, second, probability) entries, storing 
+ * only the combinations that can actually occur.
+ */
+public class JointDistribution {
+
+    private final int[] first;
+    private final int[] second;
+    private final double[] probabilities;
+
+    private JointDistribution(int[] first, int[] second, double[] probabilities) {
+        this.first = first;
+        this.second = second;
+        this.probabilities = probabilities;
+    }
+
+    /**
+     * Builds a sparse distribution from a dense grid, keeping only non-zero cells.
+     *
+     * @param grid Probability grid where {@code grid[a][b]} is the chance of 'a' in the first 
+     *             pool and 'b' in the second pool.
+     * @return The sparse joint distribution.
+     */
+    public static JointDistribution fromDense(double[][] grid) {
+        int count = 0;
+        for (double[] row : grid) {
+            for (double p : row) if (p > 0.0) count++;
+        }
+
+        int[] first = new int[count];
+        int[] second = new int[count];
+        double[] probabilities = new double[count];
+        int entry = 0;
+        for (int a = 0; a < grid.length; a++) {
+            for (int b = 0; b < grid[a].length; b++) {
+                if (grid[a][b] > 0.0) {
+                    first[entry] = a;
+                    second[entry] = b;
+                    probabilities[entry++] = grid[a][b];
+                }
+            }
+        }
+        return new JointDistribution(first, second, probabilities);
+    }
+
+    /**
+     * Models a bucket of dice where every die lands in the first pool, the second pool, or neither.
+     * Each (a, b) entry carries the multinomial weight n! / (a! b! (n-a-b)!) · p1^a · p2^b · p0^(n-a-b).
+     *
+     * @param trials The number of dice rolled.
+     * @param firstProbability The chance of a single die landing in the first pool.
+     * @param secondProbability The chance of a single die landing in the second pool.
+     * @return The joint distribution of the two pool sizes.
+     */
+    public static JointDistribution multinomial(int trials, double firstProbability, double secondProbability) {
+        if (trials < 0) {
+            throw new IllegalArgumentException("Total trials cannot be negative: " + trials);
+        }
+        double neitherProbability = Math.max(0.0, 1.0 - firstProbability - secondProbability);
+        double[][] grid = new double[trials + 1][trials + 1];
+
+        for (int a = 0; a <= trials; a++) {
+            double firstWeight = ProbabilityMath.calculateCombinations(trials, a) * Math.pow(firstProbability, a);
+            for (int b = 0; a + b <= trials; b++) {
+                grid[a][b] = firstWeight
+                        * ProbabilityMath.calculateCombinations(trials - a, b)
+                        * Math.pow(secondProbability, b)
+                        * Math.pow(neitherProbability, trials - a - b);
+            }
+        }
+        return fromDense(grid);
+    }
+
+    /**
+     * @return The number of stored (non-zero) entries.
+     */
+    public int size() { return probabilities.length; }
+
+    /**
+     * @return The distribution of the first pool on its own.
+     */
+    public double[] marginalFirst() {
+        double[] marginal = new double[maxFirst() + 1];
+        for (int i = 0; i < probabilities.length; i++) marginal[first[i]] += probabilities[i];
+        return marginal;
+    }
+
+    /**
+     * @return The distribution of the second pool on its own.
+     */
+    public double[] marginalSecond() {
+        double[] marginal = new double[maxSecond() + 1];
+        for (int i = 0; i < probabilities.length; i++) marginal[second[i]] += probabilities[i];
+        return marginal;
+    }
+
+    /**
+     * @return The exact distribution of the combined pool (first + second).
+     */
+    public double[] sumDistribution() {
+        int max = 0;
+        for (int i = 0; i < probabilities.length; i++) max = Math.max(max, first[i] + second[i]);
+        double[] total = new double[max + 1];
+        for (int i = 0; i < probabilities.length; i++) total[first[i] + second[i]] += probabilities[i];
+        return total;
+    }
+
+    /**
+     * Thins the first pool and adds the untouched second pool: Binomial(a, p) + b.
+     * In a combat context this is a saving throw that only the standard wounds must take,
+     * while devastating wounds pass straight through.
+     *
+     * @param keepProbability The chance for a die in the first pool to survive.
+     * @return The distribution of surviving first-pool dice plus the second pool.
+     */
+    public double[] thinFirstThenSum(double keepProbability) {
+        int max = 0;
+        for (int i = 0; i < probabilities.length; i++) max = Math.max(max, first[i] + second[i]);
+        double[] total = new double[max + 1];
+
+        for (int i = 0; i < probabilities.length; i++) {
+            for (int kept = 0; kept <= first[i]; kept++) {
+                total[kept + second[i]] += probabilities[i]
+                        * ProbabilityMath.calculateBinomialProbability(first[i], kept, keepProbability);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Visits every stored (first, second, probability) entry.
+     *
+     * @param consumer The callback receiving each entry.
+     */
+    public void forEachEntry(EntryConsumer consumer) {
+        for (int i = 0; i < probabilities.length; i++) {
+            consumer.accept(first[i], second[i], probabilities[i]);
+        }
+    }
+
+    /**
+     * @return The largest value the first pool can take.
+     */
+    public int maxFirst() { return maxOf(first); }
+
+    /**
+     * @return The largest value the second pool can take.
+     */
+    public int maxSecond() { return maxOf(second); }
+
+    /**
+     * Callback for iterating over the sparse entries of a {@link JointDistribution}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int first, int second, double probability);
+    }
+
+    private static int maxOf(int[] values) {
+        return Arrays.stream(values).max().orElse(0);
+    }
+}
@@ -0,0 +1,179 @@
+package com.warhammer.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Allocates damage to the models of a defending unit and computes the distribution of models slain.
+ * <p>
+ * A raw damage total overstates what a multi-wound target loses: the damage of one wound only ever
+ * applies to one model, so whatever exceeds the wounds that model has left is wasted. Allocation is a
+ * Markov chain over (models slain, damage on the current model). Numbering those states
+ * {@code s = slain * W + damage}, with W wounds per model, a wound dealing d damage moves s to
+ * {@code min(s + d, next multiple of W)}, and the last state, with every model slain, absorbs.
+ * <p>
+ * States only ever move up that order, so the chain is kept as a window of it that slides up as
+ * wounds are applied. States at either end of the window holding less than the tolerance are pruned,
+ * which keeps the window to the states that still matter.
+ * <p>
+ * Each attacking unit is a {@link Volley}: its distribution of unsaved wounds and the damage of one
+ * wound. The state after a volley mixes the chain advanced by every possible wound count, so a volley
+ * costs (wound counts) x (window) x (damage outcomes) and stops early once every model is slain.
+ * Volleys are applied in order, as units allocate their attacks one after the other.
+ */
+public final class ModelsSlainProcessor {
+
+    private ModelsSlainProcessor() {}
+
+    /**
+     * The unsaved wounds of one attacker, applied {@code repeats} times in a row.
+     *
+     * @param wounds Probability array where index 'n' is the chance of 'n' unsaved wounds.
+     * @param damagePerWound Probability array where index 'd' is the chance of one wound dealing 'd' damage.
+     * @param repeats How many independent copies of this volley are applied, such as one per model.
+     */
+    public record Volley(double[] wounds, double[] damagePerWound, int repeats) {
+        public Volley(double[] wounds, double[] damagePerWound) {
+            this(wounds, damagePerWound, 1);
+        }
+    }
+
+    /**
+     * Applies volleys to a unit of identical models, none of them damaged.
+     *
+     * @param models The number of models in the defending unit.
+     * @param woundsPerModel The wounds characteristic of each model.
+     * @param epsilon Probability below which a state at the edge of the window is pruned.
+     * @return Probability array where index 'k' is the chance of exactly 'k' models slain.
+     * @throws IllegalArgumentException if the unit has no models or its models no wounds.
+     */
+    public static double[] calculateModelsSlain(List<Volley> volleys, int models, int woundsPerModel, double epsilon) {
+        if (models < 1 || woundsPerModel < 1) {
+            throw new IllegalArgumentException("A target needs at least one model with at least one wound");
+        }
+        Chain chain = new Chain(models, woundsPerModel, epsilon);
+        for (Volley volley : volleys) {
+            for (int i = 0; i < volley.repeats() && !chain.isAbsorbed(); i++) {
+                chain.apply(volley.wounds(), volley.damagePerWound());
+            }
+        }
+        return chain.modelsSlain();
+    }
+
+    /**
+     * The state distribution of the chain, stored over the window [low, high] of the state order.
+     */
+    private static final class Chain {
+        private final int woundsPerModel;
+        private final int last;
+        private final double epsilon;
+        private double[] mass;
+        private double[] scratch;
+        private double[] mixed;
+        private int low;
+        private int high;
+
+        Chain(int models, int woundsPerModel, double epsilon) {
+            this.woundsPerModel = woundsPerModel;
+            this.last = models * woundsPerModel;
+            this.epsilon = epsilon;
+            this.mass = new double[last + 1];
+            this.scratch = new double[last + 1];
+            this.mixed = new double[last + 1];
+            this.mass[0] = 1.0;
+        }
+
+        boolean isAbsorbed() {
+            return low == last;
+        }
+
+        /**
+         * Replaces the state with its mix over every wound count of a volley.
+         */
+        void apply(double[] wounds, double[] damage) {
+            if (wounds == null || wounds.length == 0) {
+                return;
+            }
+            int mixedLow = low;
+            int mixedHigh = high;
+            double remaining = 1.0;
+            for (int n = 0; n < wounds.length && remaining > epsilon; n++) {
+                double p = wounds[n];
+                if (p > 0.0) {
+                    for (int s = low; s <= high; s++) {
+                        mixed[s] += p * mass[s];
+                    }
+                    mixedHigh = Math.max(mixedHigh, high);
+                }
+                remaining -= p;
+                if (isAbsorbed()) {
+                    // Every further wound count leaves the same state
+                    mixed[last] += Math.max(0.0, remaining) * mass[last];
+                    mixedHigh = last;
+                    break;
+                }
+                if (n + 1 < wounds.length) {
+                    step(damage);
+                }
+            }
+
+            Arrays.fill(mass, 0.0);
+            double[] result = mixed;
+            mixed = mass;
+            mass = result;
+            low = mixedLow;
+            high = mixedHigh;
+            trim();
+        }
+
+        /**
+         * Advances the chain by one wound.
+         */
+        private void step(double[] damage) {
+            int maxDamage = damage.length - 1;
+            int nextHigh = Math.min(last, high + maxDamage);
+            for (int s = low; s <= high; s++) {
+                double m = mass[s];
+                if (m == 0.0) continue;
+                if (s == last) {
+                    scratch[last] += m;
+                    continue;
+                }
+                int boundary = (s / woundsPerModel + 1) * woundsPerModel;
+                for (int d = 0; d <= maxDamage; d++) {
+                    if (damage[d] > 0.0) {
+                        scratch[Math.min(s + d, boundary)] += m * damage[d];
+                    }
+                }
+            }
+            for (int s = low; s <= high; s++) {
+                mass[s] = 0.0;
+            }
+            double[] result = scratch;
+            scratch = mass;
+            mass = result;
+            high = nextHigh;
+            trim();
+        }
+
+        /**
+         * Prunes negligible states from both ends of the window.
+         */
+        private void trim() {
+            while (low < high && mass[low] < epsilon) {
+                mass[low++] = 0.0;
+            }
+            while (high > low && mass[high] < epsilon) {
+                mass[high--] = 0.0;
+            }
+        }
+
+        double[] modelsSlain() {
+            double[] slain = new double[last / woundsPerModel + 1];
+            for (int s = low; s <= high; s++) {
+                slain[s / woundsPerModel] += mass[s];
+            }
+            return slain;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.warhammer.util;
+
+/**
+ * The mean and variance of a non-negative count, with the rules that carry them exactly through the
+ * sums and random sums of the pipeline.
+ * <p>
+ * Every stage of the pipeline is a random sum: a unit's hits are the hits of each of its attacks,
+ * summed over a random number of attacks, and its damage is the damage of each unsaved wound, summed
+ * over a random number of wounds. By the laws of total expectation and total variance, the mean and
+ * variance of such a sum only depend on the mean and variance of the count and of one summand, so
+ * they can be propagated without building a single distribution.
+ *
+ * @param mean The expected value.
+ * @param variance The variance.
+ */
+public record Moments(double mean, double variance) {
+
+    /**
+     * The moments of an outcome that is always 0, the identity of {@link #plus(Moments)}.
+     */
+    public static final Moments ZERO = new Moments(0.0, 0.0);
+
+    /**
+     * Computes the moments of a dense distribution where index {@code i} holds the chance of outcome {@code i}.
+     */
+    public static Moments of(double[] distribution) {
+        double mean = 0.0;
+        double square = 0.0;
+        for (int i = 0; i < distribution.length; i++) {
+            mean += i * distribution[i];
+            square += (double) i * i * distribution[i];
+        }
+        return new Moments(mean, Math.max(0.0, square - mean * mean));
+    }
+
+    /**
+     * The moments of a sum of {@code count} independent copies of {@code summand}, where the count is
+     * itself random and independent of the summands:
+     * {@code E[S] = E[N]E[X]} and {@code Var(S) = E[N]Var(X) + Var(N)E[X]²}.
+     */
+    public static Moments randomSum(Moments count, Moments summand) {
+        return new Moments(count.mean * summand.mean,
+                count.mean * summand.variance + count.variance * summand.mean * summand.mean);
+    }
+
+    /**
+     * @return The moments of the sum of this variable and an independent one.
+     */
+    public Moments plus(Moments other) {
+        return new Moments(mean + other.mean, variance + other.variance);
+    }
+
+    /**
+     * @return The moments of the sum of {@code copies} independent copies of this variable.
+     */
+    public Moments times(int copies) {
+        if (copies <= 0) {
+            return ZERO;
+        }
+        return new Moments(mean * copies, variance * copies);
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance);
+    }
+}
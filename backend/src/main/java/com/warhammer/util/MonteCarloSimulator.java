@@ -0,0 +1,362 @@
+package com.warhammer.util;
+
+import com.warhammer.dto.CalculationRequestDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Estimates the army distributions by rolling every die instead of convolving distributions.
+ * <p>
+ * Each trial rolls the attacks of every model, the hit and wound dice with their rerolls (through
+ * {@link DiceUtility}), Sustained, Lethal and Devastating effects, the saves and the damage of every
+ * unsaved wound, following exactly the rules of {@link HitProcessor}, {@link WoundProcessor} and
+ * {@link DamageProcessor}. It is a cross-check for the analytic pipeline and a fallback for profiles
+ * whose exact convolutions grow too large, since its cost only grows with the number of dice.
+ * <p>
+ * Trials run in rounds of fixed-size chunks, each with its own {@link SplittableRandom} split from
+ * the seeded root, reduced as fork/join tasks. When called from a {@link ForkJoinPool} worker the
+ * chunks run in that pool, otherwise in the common pool. Chunks are split and merged in a fixed
+ * order, so a seed always gives the same result however the chunks are scheduled. Rounds stop once
+ * the confidence interval on the mean damage is narrow enough, or at the trial limit.
+ */
+public final class MonteCarloSimulator {
+
+    private static final int D6_SIDES = 6;
+
+    private MonteCarloSimulator() {}
+
+    /**
+     * Sampling and stopping parameters.
+     *
+     * @param seed Seed of the root generator.
+     * @param chunkTrials Trials per fork/join chunk.
+     * @param chunksPerRound Chunks per round; the stopping rule is checked between rounds.
+     * @param minTrials Trials to run before the stopping rule is checked.
+     * @param maxTrials Trials after which the simulation stops regardless of precision.
+     * @param confidenceZ Normal quantile of the confidence bound (1.96 for 95%).
+     * @param relativeTolerance Target half-width of the bound, relative to the mean damage.
+     * @param absoluteTolerance Target half-width of the bound, for means close to 0.
+     */
+    public record Options(long seed, int chunkTrials, int chunksPerRound, long minTrials, long maxTrials,
+                          double confidenceZ, double relativeTolerance, double absoluteTolerance) {
+
+        public static Options defaults(long seed) {
+            return new Options(seed, 2048, 16, 32_768, 2_000_000, 1.96, 0.005, 0.01);
+        }
+    }
+
+    /**
+     * Empirical distributions of one simulation.
+     *
+     * @param hits Total hits of the army.
+     * @param wounds Total wounds of the army.
+     * @param damage Unsaved damage of the army, each unit using its own damage characteristic.
+     * @param trials Number of trials run.
+     * @param damageMeanHalfWidth Half-width of the confidence interval on the mean damage.
+     * @param converged Whether the stopping rule was met before the trial limit.
+     */
+    public record Result(Distribution hits, Distribution wounds, Distribution damage, long trials,
+                         double damageMeanHalfWidth, boolean converged) {}
+
+    /**
+     * Simulates an army against one target.
+     *
+     * @param army The unit profiles.
+     * @param woundRolls The required wound roll of each unit, in army order.
+     * @param save The target's armour save, with 7 standing for no save.
+     * @param options Sampling and stopping parameters.
+     * @throws IllegalArgumentException if the army and wound rolls do not match, or the options are not positive.
+     */
+    public static Result simulate(List<CalculationRequestDTO> army, int[] woundRolls, int save, Options options) {
+        if (army == null || woundRolls == null || army.size() != woundRolls.length) {
+            throw new IllegalArgumentException("Every unit needs exactly one wound roll");
+        }
+        if (options.chunkTrials() <= 0 || options.chunksPerRound() <= 0 || options.maxTrials() <= 0) {
+            throw new IllegalArgumentException("Simulation options must be positive");
+        }
+
+        List<UnitProfile> units = new ArrayList<>(army.size());
+        for (int i = 0; i < army.size(); i++) {
+            units.add(UnitProfile.of(army.get(i), woundRolls[i], save));
+        }
+
+        SplittableRandom root = new SplittableRandom(options.seed());
+        Tally total = new Tally();
+        boolean converged = false;
+        while (total.trials < options.maxTrials()) {
+            long remaining = options.maxTrials() - total.trials;
+            List<Chunk> chunks = new ArrayList<>(options.chunksPerRound());
+            for (int c = 0; c < options.chunksPerRound() && remaining > 0; c++) {
+                int trials = (int) Math.min(options.chunkTrials(), remaining);
+                chunks.add(new Chunk(root.split(), trials));
+                remaining -= trials;
+            }
+            total.merge(new Round(units, chunks, 0, chunks.size()).invoke());
+
+            if (total.trials >= options.minTrials() && total.damageHalfWidth(options.confidenceZ())
+                    <= Math.max(options.relativeTolerance() * Math.abs(total.damageMean()), options.absoluteTolerance())) {
+                converged = true;
+                break;
+            }
+        }
+        return new Result(total.hits.toDistribution(total.trials), total.wounds.toDistribution(total.trials),
+                total.damage.toDistribution(total.trials), total.trials,
+                total.damageHalfWidth(options.confidenceZ()), converged);
+    }
+
+    /**
+     * The dice of one unit against the simulated target, with its characteristics parsed once.
+     */
+    private record UnitProfile(CalculationRequestDTO request, double[] attackCdf, double[] damageCdf,
+                               int woundRoll, int modifiedSave, boolean fishingHits) {
+
+        static UnitProfile of(CalculationRequestDTO request, int woundRoll, int save) {
+            int modifiedSave = save > 6 ? 7 : Math.max(2, save + Math.abs(request.getAp()));
+            return new UnitProfile(request,
+                    cumulative(HitProcessor.buildExpressionDist(request.getAttacksPerModel())),
+                    cumulative(DamageProcessor.buildSingleWoundDist(request.getDamageValue())),
+                    woundRoll, modifiedSave, request.isSustainedHits() || request.isLethalHits());
+        }
+    }
+
+    /**
+     * One trial of one unit, adding its hits, wounds and unsaved damage to the trial totals.
+     */
+    private static void rollUnit(UnitProfile unit, SplittableRandom random, int[] totals) {
+        CalculationRequestDTO req = unit.request();
+        int attacks = 0;
+        for (int model = 0; model < req.getNumberOfModels(); model++) {
+            attacks += sample(unit.attackCdf(), random);
+        }
+
+        int standardHits = 0;
+        int lethalHits = 0;
+        int totalHits = 0;
+        for (int attack = 0; attack < attacks; attack++) {
+            int face = rollD6(random);
+            if (DiceUtility.shouldReroll(face, req.getBsValue(), req.getRerollType(), unit.fishingHits(), req.getCritHitValue())) {
+                face = rollD6(random);
+            }
+            boolean isCrit = face >= req.getCritHitValue();
+            int effectiveRoll = req.isPlusOneToHit() ? face + 1 : face;
+            boolean isHit = req.isTorrent() || (effectiveRoll >= req.getBsValue() && face != 1);
+
+            if (isCrit && req.isSustainedHits()) {
+                int d3 = "D3".equalsIgnoreCase(req.getSustainedValue()) ? random.nextInt(1, 4) : 0;
+                if (req.isLethalHits()) {
+                    int explosion = sustainedExplosionOnly(req.getSustainedValue(), d3);
+                    lethalHits++;
+                    standardHits += explosion;
+                    totalHits += 1 + explosion;
+                } else {
+                    int withBase = sustainedWithBase(req.getSustainedValue(), d3);
+                    standardHits += withBase;
+                    totalHits += withBase;
+                }
+            } else if (isCrit && req.isLethalHits()) {
+                lethalHits++;
+                totalHits++;
+            } else if (isHit) {
+                standardHits++;
+                totalHits++;
+            }
+        }
+
+        int savableWounds = lethalHits;
+        int devastatingWounds = 0;
+        int critWound = req.getCritWoundValue();
+        for (int hit = 0; hit < standardHits; hit++) {
+            int face = rollD6(random);
+            if (DiceUtility.shouldReroll(face, unit.woundRoll(), req.getWoundRerollType(), req.isDevastatingWounds(), critWound)) {
+                face = rollD6(random);
+            }
+            boolean isCrit = face >= critWound;
+            int effectiveRoll = req.isPlusOneToWound() ? face + 1 : face;
+            boolean isWound = (effectiveRoll >= unit.woundRoll() || isCrit || face == 6) && face != 1;
+
+            if (isCrit && req.isDevastatingWounds()) {
+                devastatingWounds++;
+            } else if (isWound) {
+                savableWounds++;
+            }
+        }
+
+        int unsavedWounds = devastatingWounds;
+        for (int wound = 0; wound < savableWounds; wound++) {
+            if (unit.modifiedSave() > 6 || rollD6(random) < unit.modifiedSave()) {
+                unsavedWounds++;
+            }
+        }
+        int damage = 0;
+        for (int wound = 0; wound < unsavedWounds; wound++) {
+            damage += sample(unit.damageCdf(), random);
+        }
+
+        totals[0] += totalHits;
+        totals[1] += savableWounds + devastatingWounds;
+        totals[2] += damage;
+    }
+
+    /**
+     * Hits of a critical Sustained hit, including the critical itself, as {@link HitProcessor} counts them.
+     */
+    private static int sustainedWithBase(String value, int d3) {
+        if ("D3".equalsIgnoreCase(value)) return 1 + d3;
+        return Math.min(1 + HitProcessor.parseBonusValue(value), D6_SIDES);
+    }
+
+    /**
+     * Extra hits of a critical Sustained hit whose critical is a Lethal auto-wound.
+     */
+    private static int sustainedExplosionOnly(String value, int d3) {
+        if ("D3".equalsIgnoreCase(value)) return d3;
+        int bonus = HitProcessor.parseBonusValue(value);
+        return (bonus > 0 && bonus <= D6_SIDES) ? bonus : 0;
+    }
+
+    private static int rollD6(SplittableRandom random) {
+        return random.nextInt(1, D6_SIDES + 1);
+    }
+
+    private static int sample(double[] cdf, SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int value = 0; value < cdf.length - 1; value++) {
+            if (u < cdf[value]) return value;
+        }
+        return cdf.length - 1;
+    }
+
+    private static double[] cumulative(double[] distribution) {
+        double[] cdf = new double[distribution.length];
+        double running = 0.0;
+        for (int i = 0; i < distribution.length; i++) {
+            running += distribution[i];
+            cdf[i] = running;
+        }
+        return cdf;
+    }
+
+    private record Chunk(SplittableRandom random, int trials) {}
+
+    /**
+     * Runs the chunks in [from, to) by splitting at the midpoint, like the tree reductions of
+     * {@link ProbabilityMath}, and merges their tallies in chunk order.
+     */
+    private static final class Round extends RecursiveTask<Tally> {
+        private final List<UnitProfile> units;
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+
+        Round(List<UnitProfile> units, List<Chunk> chunks, int from, int to) {
+            this.units = units;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from == 1) {
+                return runChunk(chunks.get(from));
+            }
+            int mid = (from + to) >>> 1;
+            Round left = new Round(units, chunks, from, mid);
+            left.fork();
+            Tally right = new Round(units, chunks, mid, to).compute();
+            Tally merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+
+        private Tally runChunk(Chunk chunk) {
+            Tally tally = new Tally();
+            int[] totals = new int[3];
+            for (int trial = 0; trial < chunk.trials(); trial++) {
+                Arrays.fill(totals, 0);
+                for (UnitProfile unit : units) {
+                    rollUnit(unit, chunk.random(), totals);
+                }
+                tally.add(totals[0], totals[1], totals[2]);
+            }
+            return tally;
+        }
+    }
+
+    /**
+     * Outcome counts and damage moments of a set of trials.
+     */
+    private static final class Tally {
+        private final Histogram hits = new Histogram();
+        private final Histogram wounds = new Histogram();
+        private final Histogram damage = new Histogram();
+        private long trials;
+        private double damageSum;
+        private double damageSumOfSquares;
+
+        void add(int hitCount, int woundCount, int damageCount) {
+            hits.add(hitCount);
+            wounds.add(woundCount);
+            damage.add(damageCount);
+            trials++;
+            damageSum += damageCount;
+            damageSumOfSquares += (double) damageCount * damageCount;
+        }
+
+        void merge(Tally other) {
+            hits.merge(other.hits);
+            wounds.merge(other.wounds);
+            damage.merge(other.damage);
+            trials += other.trials;
+            damageSum += other.damageSum;
+            damageSumOfSquares += other.damageSumOfSquares;
+        }
+
+        double damageMean() {
+            return trials == 0 ? 0.0 : damageSum / trials;
+        }
+
+        double damageHalfWidth(double z) {
+            if (trials < 2) return Double.POSITIVE_INFINITY;
+            double mean = damageMean();
+            double variance = Math.max(0.0, (damageSumOfSquares - trials * mean * mean) / (trials - 1));
+            return z * Math.sqrt(variance / trials);
+        }
+    }
+
+    private static final class Histogram {
+        private long[] counts = new long[16];
+
+        void add(int outcome) {
+            grow(outcome + 1);
+            counts[outcome]++;
+        }
+
+        void merge(Histogram other) {
+            grow(other.counts.length);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+        }
+
+        Distribution toDistribution(long trials) {
+            if (trials == 0) return Distribution.neutral();
+            double[] dense = new double[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                dense[i] = (double) counts[i] / trials;
+            }
+            return Distribution.of(dense);
+        }
+
+        private void grow(int length) {
+            if (length > counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(length, counts.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.warhammer.util;
+
+import java.util.Optional;
+
+/**
+ * The multiply-add primitive behind the direct convolution and the Horner evaluation of random sums:
+ * {@code target[targetFrom + i] += scale * source[sourceFrom + i]} for every i below {@code length}.
+ * <p>
+ * Two implementations exist. The scalar one is always available. The SIMD one uses the incubating
+ * {@code jdk.incubator.vector} module and is picked at startup when the JVM was launched with
+ * {@code --add-modules jdk.incubator.vector}. Set the system property {@code calculator.kernel}
+ * to {@code scalar} or {@code vector} to override the choice. Both implementations round every
+ * product and every sum separately (no fused multiply-add), so they produce bit-identical results.
+ */
+public interface MultiplyAddKernel {
+
+    /**
+     * Adds {@code scale · source[sourceFrom .. sourceFrom + length)} onto {@code target[targetFrom ..)}.
+     */
+    void multiplyAdd(double scale, double[] source, int sourceFrom, double[] target, int targetFrom, int length);
+
+    /**
+     * @return A short name for logs and benchmarks ("scalar" or "vector").
+     */
+    String name();
+
+    /**
+     * @return The portable scalar implementation.
+     */
+    static MultiplyAddKernel scalar() {
+        return MultiplyAddKernels.SCALAR;
+    }
+
+    /**
+     * @return The SIMD implementation, or empty if the Vector API module is not available.
+     */
+    static Optional<MultiplyAddKernel> vector() {
+        return MultiplyAddKernels.loadVector();
+    }
+
+    /**
+     * @return The implementation selected at startup.
+     */
+    static MultiplyAddKernel selected() {
+        return MultiplyAddKernels.SELECTED;
+    }
+}
@@ -0,0 +1,49 @@
+package com.warhammer.util;
+
+import java.util.Optional;
+
+/**
+ * Resolves the {@link MultiplyAddKernel} implementations once per JVM.
+ */
+final class MultiplyAddKernels {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String KERNEL_PROPERTY = "calculator.kernel";
+
+    static final MultiplyAddKernel SCALAR = new ScalarKernel();
+    static final MultiplyAddKernel SELECTED = select();
+
+    private MultiplyAddKernels() {}
+
+    static Optional<MultiplyAddKernel> loadVector() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new VectorMultiplyAddKernel());
+        } catch (LinkageError e) {
+            return Optional.empty();
+        }
+    }
+
+    private static MultiplyAddKernel select() {
+        if ("scalar".equalsIgnoreCase(System.getProperty(KERNEL_PROPERTY))) {
+            return SCALAR;
+        }
+        return loadVector().orElse(SCALAR);
+    }
+
+    private static final class ScalarKernel implements MultiplyAddKernel {
+        @Override
+        public void multiplyAdd(double scale, double[] source, int sourceFrom, double[] target, int targetFrom, int length) {
+            for (int i = 0; i < length; i++) {
+                target[targetFrom + i] += scale * source[sourceFrom + i];
+            }
+        }
+
+        @Override
+        public String name() {
+            return "scalar";
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.warhammer.util;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The dense, outcome-indexed probability list the frontend charts expect, backed by a trimmed
+ * distribution instead of one boxed {@code Double} per outcome.
+ * <p>
+ * Entries below the distribution's lowest outcome read as 0, and every entry is rounded to four
+ * decimals as it is read, so the list serializes exactly like a fully materialized rounded list.
+ * Binary encoders can read the unrounded body through {@link #offset()} and {@link #body()}.
+ */
+public final class ProbabilityList extends AbstractList<Double> implements RandomAccess {
+
+    private static final double ROUNDING_PRECISION = 10000.0;
+
+    private final int offset;
+    private final double[] body;
+
+    private ProbabilityList(int offset, double[] body) {
+        this.offset = offset;
+        this.body = body;
+    }
+
+    /**
+     * Lists a distribution from outcome 0 to its highest stored outcome.
+     */
+    public static ProbabilityList of(Distribution distribution) {
+        return new ProbabilityList(distribution.min(), distribution.bodyView());
+    }
+
+    @Override
+    public Double get(int outcome) {
+        if (outcome < 0 || outcome >= size()) {
+            throw new IndexOutOfBoundsException("Outcome " + outcome + " outside 0.." + (size() - 1));
+        }
+        return outcome < offset ? 0.0 : Math.round(body[outcome - offset] * ROUNDING_PRECISION) / ROUNDING_PRECISION;
+    }
+
+    @Override
+    public int size() {
+        return offset + body.length;
+    }
+
+    /**
+     * @return The first outcome of {@link #body()}; every earlier outcome has probability 0.
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * @return A copy of the unrounded probabilities from {@link #offset()} to the last outcome.
+     */
+    public double[] body() {
+        return body.clone();
+    }
+}
@@ -1,5 +1,14 @@
 package com.warhammer.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.ToIntFunction;
+
 /**
  * A high-performance mathematical engine designed for discrete probability analysis.
  * This utility provides the core logic for modeling independent random events,
@@ -13,27 +22,103 @@ public class ProbabilityMath {
     private static final int EMPTY_SELECTION = 0;
     private static final double SIGNIFICANCE_THRESHOLD = 0.0;
 
+    // Count outcomes in either tail holding less than this total mass are skipped by compounding.
+    private static final double COMPOUND_TAIL_MASS = 1e-15;
+    private static final double BERNOULLI_MASS_TOLERANCE = 1e-12;
+    private static final int EXACT_LOG_FACTORIALS = 256;
+    private static final double[] LOG_FACTORIALS = buildLogFactorials();
+
+    // FFT selection: below this length on either side the direct loop always wins.
+    private static final int FFT_MIN_LENGTH = 64;
+    // Benchmarked cost of one FFT butterfly relative to one direct multiply-add.
+    private static final double FFT_COST_RATIO = 10.0;
+
     /**
      * Merges two independent probability streams into a unified distribution.
      * In a combat context, this "stacks" independent sources—such as adding a 
      * character's attacks to a squad's total—to determine their combined impact.
      * * Defensive: Returns a neutral (0 hits) distribution if inputs are invalid 
      * or empty to prevent downstream calculation crashes.
+     * * Wide inputs are routed to {@link FftConvolution}, whose results match the direct
+     * loop within {@link FftConvolution#ABSOLUTE_TOLERANCE}.
      *
      * @param existingDistribution The current probability state (e.g., army hits so far).
      * @param newSourceDistribution The new source of hits/wounds to be integrated.
      * @return A consolidated distribution representing the total combined outcomes.
      */
     public static double[] convolve(double[] existingDistribution, double[] newSourceDistribution) {
+        return convolve(existingDistribution, newSourceDistribution, ScratchArena.UNPOOLED);
+    }
+
+    /**
+     * Variant of {@link #convolve(double[], double[])} that borrows its FFT work arrays from a
+     * request-scoped arena. Only the returned result is allocated.
+     */
+    public static double[] convolve(double[] existingDistribution, double[] newSourceDistribution, ScratchArena arena) {
         if (existingDistribution == null || existingDistribution.length == 0 ||
             newSourceDistribution == null || newSourceDistribution.length == 0) {
             return new double[]{1.0};
         }
 
-        int combinedResultLength = existingDistribution.length + newSourceDistribution.length - 1;
-        double[] combinedDistribution = new double[combinedResultLength];
+        double[] combined = new double[existingDistribution.length + newSourceDistribution.length - 1];
+        convolveInto(existingDistribution, existingDistribution.length,
+                newSourceDistribution, newSourceDistribution.length, combined, arena);
+        return combined;
+    }
+
+    /**
+     * Merges the first {@code existingLength} and {@code newSourceLength} entries of two distributions
+     * into a caller-supplied buffer, picking the direct or FFT kernel like {@link #convolve(double[], double[])}.
+     * Both lengths must be positive, and the target must not alias either input.
+     *
+     * @param target Receives the result in its first {@code existingLength + newSourceLength - 1} entries.
+     * @param arena Supplies the FFT work arrays.
+     * @return The length of the result.
+     */
+    public static int convolveInto(double[] existingDistribution, int existingLength,
+                                   double[] newSourceDistribution, int newSourceLength,
+                                   double[] target, ScratchArena arena) {
+        if (shouldUseFft(existingLength, newSourceLength)) {
+            return FftConvolution.convolveInto(existingDistribution, existingLength,
+                    newSourceDistribution, newSourceLength, target, arena);
+        }
+        return convolveDirectInto(existingDistribution, existingLength,
+                newSourceDistribution, newSourceLength, target, MultiplyAddKernel.selected());
+    }
 
-        for (int existingIndex = 0; existingIndex < existingDistribution.length; existingIndex++) {
+    /**
+     * Merges two distributions with the direct O(n·m) multiply-add loop.
+     * <p>
+     * This is the exact reference path used by {@link #convolve(double[], double[])} for
+     * small inputs. Inputs must be non-empty.
+     *
+     * @param existingDistribution The current probability state.
+     * @param newSourceDistribution The new source to be integrated.
+     * @return A consolidated distribution representing the total combined outcomes.
+     */
+    public static double[] convolveDirect(double[] existingDistribution, double[] newSourceDistribution) {
+        return convolveDirect(existingDistribution, newSourceDistribution, MultiplyAddKernel.selected());
+    }
+
+    /**
+     * Merges two distributions with the direct loop on an explicit {@link MultiplyAddKernel}.
+     * Every kernel returns the same bits; this overload exists to benchmark them against each other.
+     */
+    public static double[] convolveDirect(double[] existingDistribution, double[] newSourceDistribution,
+                                          MultiplyAddKernel kernel) {
+        double[] combinedDistribution = new double[existingDistribution.length + newSourceDistribution.length - 1];
+        convolveDirectInto(existingDistribution, existingDistribution.length,
+                newSourceDistribution, newSourceDistribution.length, combinedDistribution, kernel);
+        return combinedDistribution;
+    }
+
+    private static int convolveDirectInto(double[] existingDistribution, int existingLength,
+                                          double[] newSourceDistribution, int newSourceLength,
+                                          double[] combinedDistribution, MultiplyAddKernel kernel) {
+        int combinedResultLength = existingLength + newSourceLength - 1;
+        Arrays.fill(combinedDistribution, 0, combinedResultLength, 0.0);
+
+        for (int existingIndex = 0; existingIndex < existingLength; existingIndex++) {
             double probabilityOfExistingOutcome = existingDistribution[existingIndex];
 
             // Branch Pruning: Optimization to skip paths with zero mathematical significance
@@ -41,14 +126,566 @@ public class ProbabilityMath {
                 continue;
             }
 
-            for (int newIndex = 0; newIndex < newSourceDistribution.length; newIndex++) {
-                double probabilityOfNewOutcome = newSourceDistribution[newIndex];
-                int combinedOutcomeValue = existingIndex + newIndex;
+            // Each existing outcome shifts a scaled copy of the new source into the result
+            kernel.multiplyAdd(probabilityOfExistingOutcome, newSourceDistribution, 0,
+                    combinedDistribution, existingIndex, newSourceLength);
+        }
+        return combinedResultLength;
+    }
+
+    /**
+     * Computes the n-fold self-convolution of a distribution using exponentiation by squaring.
+     * In a combat context, this turns the attack profile of a single model into the attack
+     * profile of a whole unit of identical models in O(log n) convolutions rather than n.
+     *
+     * @param distribution The distribution of a single independent source (e.g., one model's attacks).
+     * @param times The number of identical sources to combine.
+     * @return The distribution of the sum of {@code times} independent copies of the source.
+     * @throws IllegalArgumentException if times is negative.
+     */
+    public static double[] power(double[] distribution, int times) {
+        return power(distribution, times, ScratchArena.UNPOOLED);
+    }
+
+    /**
+     * Variant of {@link #power(double[], int)} that keeps the intermediate squares and partial
+     * products in a request-scoped arena. Only the returned result is allocated.
+     */
+    public static double[] power(double[] distribution, int times, ScratchArena arena) {
+        if (times < 0) {
+            throw new IllegalArgumentException("Convolution power cannot be negative: " + times);
+        }
+        if (distribution == null || distribution.length == 0 || times == 0) {
+            return new double[]{1.0};
+        }
+
+        double[] scratch = powerInto(distribution, times, arena);
+        double[] result = Arrays.copyOf(scratch, times * (distribution.length - 1) + 1);
+        arena.release(scratch);
+        return result;
+    }
 
-                combinedDistribution[combinedOutcomeValue] += (probabilityOfExistingOutcome * probabilityOfNewOutcome);
+    /**
+     * Exponentiation by squaring on arena buffers.
+     *
+     * @return An arena buffer holding the {@code times}-fold convolution in its first
+     * {@code times·(length-1)+1} entries. The caller releases it.
+     */
+    private static double[] powerInto(double[] distribution, int times, ScratchArena arena) {
+        double[] result = null;
+        int resultLength = 0;
+        double[] square = arena.acquire(distribution.length);
+        System.arraycopy(distribution, 0, square, 0, distribution.length);
+        int squareLength = distribution.length;
+        int remaining = times;
+
+        while (true) {
+            if ((remaining & 1) == 1) {
+                double[] product = arena.acquire(result == null ? squareLength : resultLength + squareLength - 1);
+                if (result == null) {
+                    System.arraycopy(square, 0, product, 0, squareLength);
+                    resultLength = squareLength;
+                } else {
+                    resultLength = convolveInto(result, resultLength, square, squareLength, product, arena);
+                    arena.release(result);
+                }
+                result = product;
+            }
+            remaining >>= 1;
+            if (remaining == 0) {
+                arena.release(square);
+                return result;
             }
+            double[] squared = arena.acquire(2 * squareLength - 1);
+            squareLength = convolveInto(square, squareLength, square, squareLength, squared, arena);
+            arena.release(square);
+            square = squared;
         }
-        return combinedDistribution;
+    }
+
+    /**
+     * Merges any number of independent distributions by convolving them pairwise in a balanced tree.
+     * <p>
+     * A left-to-right fold convolves an ever-growing accumulator with each new source, which is
+     * quadratic in the number of sources. The balanced tree keeps both operands of every
+     * convolution of similar width, so wide merges take the FFT path early and the total cost
+     * grows as O(L log L · log k) for k sources and a final width L. The tree shape only depends
+     * on the number of sources, so the result is deterministic.
+     *
+     * @param distributions The independent sources (e.g., every unit of an army), in a fixed order.
+     * @return The distribution of their sum, or a neutral (0 hits) distribution if there are none.
+     */
+    public static double[] convolveAll(List<double[]> distributions) {
+        return convolveAll(distributions, false);
+    }
+
+    /**
+     * Merges any number of independent distributions in a balanced tree, optionally forking the
+     * two halves of wide subtrees as fork/join tasks.
+     * <p>
+     * When called from a {@link ForkJoinPool} worker the subtasks run in that pool, otherwise in the
+     * common pool. The parallel and sequential paths produce identical results.
+     *
+     * @param distributions The independent sources, in a fixed order.
+     * @param parallel Whether wide subtrees may be reduced in parallel.
+     * @return The distribution of their sum, or a neutral (0 hits) distribution if there are none.
+     */
+    public static double[] convolveAll(List<double[]> distributions, boolean parallel) {
+        if (distributions == null || distributions.isEmpty()) {
+            return new double[]{1.0};
+        }
+        if (distributions.size() == 1) {
+            return convolve(new double[]{1.0}, distributions.get(0));
+        }
+        ScratchArena arena = new ScratchArena();
+        return reduceTree(distributions, (left, right) -> convolve(left, right, arena), distribution -> distribution.length, parallel);
+    }
+
+    /**
+     * Merges any number of independent trimmed distributions in a balanced tree, pruning the tails
+     * of every partial sum. See {@link #convolveAll(List, boolean)}.
+     *
+     * @param distributions The independent sources, in a fixed order.
+     * @param parallel Whether wide subtrees may be reduced in parallel.
+     * @return The distribution of their sum, or the neutral distribution if there are none.
+     */
+    public static Distribution convolveAllDistributions(List<Distribution> distributions, boolean parallel) {
+        return convolveAllDistributions(distributions, parallel, new ScratchArena());
+    }
+
+    /**
+     * Variant of {@link #convolveAllDistributions(List, boolean)} that borrows every merge's FFT work
+     * arrays from a request-scoped arena.
+     */
+    public static Distribution convolveAllDistributions(List<Distribution> distributions, boolean parallel, ScratchArena arena) {
+        if (distributions == null || distributions.isEmpty()) {
+            return Distribution.neutral();
+        }
+        if (distributions.size() == 1) {
+            return distributions.get(0);
+        }
+        return reduceTree(distributions, (left, right) -> convolve(left, right, arena), Distribution::width, parallel);
+    }
+
+    /**
+     * Merges two independent trimmed distributions. Only the stored bodies are convolved, and the
+     * result is pruned with the looser of the two tolerances.
+     *
+     * @param existingDistribution The current probability state.
+     * @param newSourceDistribution The new source to be integrated.
+     * @return The distribution of the combined outcome.
+     */
+    public static Distribution convolve(Distribution existingDistribution, Distribution newSourceDistribution) {
+        return convolve(existingDistribution, newSourceDistribution, ScratchArena.UNPOOLED);
+    }
+
+    /**
+     * Variant of {@link #convolve(Distribution, Distribution)} that borrows its FFT work arrays from
+     * a request-scoped arena.
+     */
+    public static Distribution convolve(Distribution existingDistribution, Distribution newSourceDistribution, ScratchArena arena) {
+        if (existingDistribution == null) return newSourceDistribution == null ? Distribution.neutral() : newSourceDistribution;
+        if (newSourceDistribution == null) return existingDistribution;
+
+        // Convolve into scratch and copy out only the range that survives pruning
+        double[] scratch = arena.acquire(existingDistribution.width() + newSourceDistribution.width() - 1);
+        int length = convolveInto(existingDistribution.bodyView(), existingDistribution.width(),
+                newSourceDistribution.bodyView(), newSourceDistribution.width(), scratch, arena);
+        Distribution combined = Distribution.copyOf(existingDistribution.min() + newSourceDistribution.min(), scratch, length,
+                Math.max(existingDistribution.getEpsilon(), newSourceDistribution.getEpsilon()),
+                existingDistribution.getPrunedMass() + newSourceDistribution.getPrunedMass());
+        arena.release(scratch);
+        return combined;
+    }
+
+    /**
+     * Computes, for every source, the distribution of the sum of all other sources.
+     * <p>
+     * Prefix products {@code P[i] = d[0] * ... * d[i-1]} and suffix products
+     * {@code S[i] = d[i] * ... * d[n-1]} are built once, so every "all but source i" distribution
+     * is the single convolution {@code P[i] * S[i+1]}. All n results cost about 3n convolutions
+     * instead of the n² of merging each subset from scratch.
+     *
+     * @param distributions The independent sources (e.g., every unit of an army), in a fixed order.
+     * @return An array whose entry i is the distribution of the sum of every source except source i.
+     */
+    public static double[][] leaveOneOut(List<double[]> distributions) {
+        ScratchArena arena = new ScratchArena();
+        return leaveOneOut(distributions, new double[]{1.0}, (left, right) -> convolve(left, right, arena))
+                .toArray(double[][]::new);
+    }
+
+    /**
+     * Trimmed-distribution variant of {@link #leaveOneOut(List)}.
+     */
+    public static List<Distribution> leaveOneOutDistributions(List<Distribution> distributions) {
+        return leaveOneOutDistributions(distributions, new ScratchArena());
+    }
+
+    /**
+     * Trimmed-distribution variant of {@link #leaveOneOut(List)} that borrows every merge's FFT work
+     * arrays from a request-scoped arena.
+     */
+    public static List<Distribution> leaveOneOutDistributions(List<Distribution> distributions, ScratchArena arena) {
+        return leaveOneOut(distributions, Distribution.neutral(), (left, right) -> convolve(left, right, arena));
+    }
+
+    private static <T> List<T> leaveOneOut(List<T> distributions, T neutral, BinaryOperator<T> merge) {
+        int count = distributions == null ? 0 : distributions.size();
+        List<T> prefix = new ArrayList<>(count + 1);
+        List<T> suffix = new ArrayList<>(Collections.nCopies(count + 1, neutral));
+        prefix.add(neutral);
+        for (int i = 0; i < count; i++) {
+            prefix.add(merge.apply(prefix.get(i), distributions.get(i)));
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            suffix.set(i, merge.apply(distributions.get(i), suffix.get(i + 1)));
+        }
+
+        List<T> withoutSource = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            withoutSource.add(merge.apply(prefix.get(i), suffix.get(i + 1)));
+        }
+        return withoutSource;
+    }
+
+    private static <T> T reduceTree(List<T> distributions, BinaryOperator<T> merge, ToIntFunction<T> width, boolean parallel) {
+        TreeReduction<T> root = new TreeReduction<>(distributions, 0, distributions.size(), merge, width, parallel);
+        return parallel ? root.invoke() : root.compute();
+    }
+
+    /**
+     * Reduces the sources in [from, to) by splitting at the midpoint.
+     */
+    private static final class TreeReduction<T> extends RecursiveTask<T> {
+        // Subtrees narrower than this many output outcomes are cheaper to reduce than to fork.
+        private static final int PARALLEL_MIN_WIDTH = 2048;
+
+        private final List<T> distributions;
+        private final int from;
+        private final int to;
+        private final BinaryOperator<T> merge;
+        private final ToIntFunction<T> width;
+        private final boolean parallel;
+
+        TreeReduction(List<T> distributions, int from, int to, BinaryOperator<T> merge, ToIntFunction<T> width, boolean parallel) {
+            this.distributions = distributions;
+            this.from = from;
+            this.to = to;
+            this.merge = merge;
+            this.width = width;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from == 1) {
+                return distributions.get(from);
+            }
+            int mid = (from + to) >>> 1;
+            TreeReduction<T> left = new TreeReduction<>(distributions, from, mid, merge, width, parallel);
+            TreeReduction<T> right = new TreeReduction<>(distributions, mid, to, merge, width, parallel);
+
+            if (parallel && combinedWidth() >= PARALLEL_MIN_WIDTH) {
+                left.fork();
+                T rightResult = right.compute();
+                return merge.apply(left.join(), rightResult);
+            }
+            return merge.apply(left.compute(), right.compute());
+        }
+
+        private int combinedWidth() {
+            int combined = 1;
+            for (int i = from; i < to; i++) {
+                combined += width.applyAsInt(distributions.get(i)) - 1;
+            }
+            return combined;
+        }
+    }
+
+    /**
+     * Computes the distribution of a random sum: the total of N independent, identically 
+     * distributed outcomes, where N itself follows {@code countDistribution}.
+     * <p>
+     * This is the shared engine behind every "for each possible number of dice, roll that many
+     * dice" step in the pipeline (attacks into hits, hits into wounds, wounds into damage).
+     * In generating-function terms the result is G_N(G_X(s)), evaluated with Horner's scheme
+     * over the significant window of N in a pair of scratch buffers. Count tails holding less
+     * than 1e-15 of mass are skipped. Two-outcome (Bernoulli) dice are delegated to
+     * {@link #thin(double[], double)}.
+     *
+     * @param countDistribution Probability array where index 'n' is the chance of rolling 'n' dice.
+     * @param outcomeDistribution Probability array for the result of a single die.
+     * @return The distribution of the summed outcome, of length (N_max)·(X_max) + 1.
+     */
+    public static double[] compound(double[] countDistribution, double[] outcomeDistribution) {
+        return compound(countDistribution, outcomeDistribution, ScratchArena.UNPOOLED);
+    }
+
+    /**
+     * Variant of {@link #compound(double[], double[])} that keeps the Horner buffers, the shift power
+     * and the FFT work arrays in a request-scoped arena. Only the returned result is allocated.
+     */
+    public static double[] compound(double[] countDistribution, double[] outcomeDistribution, ScratchArena arena) {
+        if (countDistribution == null || countDistribution.length == 0 ||
+            outcomeDistribution == null || outcomeDistribution.length == 0) {
+            return new double[]{1.0};
+        }
+
+        if (isBernoulli(outcomeDistribution)) {
+            return thin(countDistribution, outcomeDistribution[1], arena);
+        }
+
+        int outcomeSpan = outcomeDistribution.length - 1;
+        int resultLength = (countDistribution.length - 1) * outcomeSpan + 1;
+        double[] summed = randomSum(countDistribution, 0, outcomeDistribution, false, resultLength, arena);
+        return summed != null ? summed : new double[resultLength];
+    }
+
+    /**
+     * Trimmed-distribution variant of {@link #compound(double[], double[])}.
+     * <p>
+     * Only the stored window of the count distribution is evaluated, and the result is pruned with
+     * the count distribution's tolerance, so no array spans the theoretical maximum.
+     *
+     * @param countDistribution The distribution of the number of dice.
+     * @param outcomeDistribution Probability array for the result of a single die.
+     * @return The distribution of the summed outcome.
+     */
+    public static Distribution compound(Distribution countDistribution, double[] outcomeDistribution) {
+        return compound(countDistribution, outcomeDistribution, ScratchArena.UNPOOLED);
+    }
+
+    /**
+     * Variant of {@link #compound(Distribution, double[])} that keeps its intermediate arrays in a
+     * request-scoped arena.
+     */
+    public static Distribution compound(Distribution countDistribution, double[] outcomeDistribution, ScratchArena arena) {
+        if (countDistribution == null || outcomeDistribution == null || outcomeDistribution.length == 0) {
+            return Distribution.neutral();
+        }
+
+        boolean bernoulli = isBernoulli(outcomeDistribution);
+        if (bernoulli && outcomeDistribution[1] >= TOTAL_PROBABILITY_WEIGHT) {
+            return countDistribution;
+        }
+        double[] summed = (bernoulli && outcomeDistribution[1] <= 0.0)
+                ? new double[]{countDistribution.probabilityAtLeast(0)}
+                : randomSum(countDistribution.bodyView(), countDistribution.min(), outcomeDistribution, bernoulli, 0, arena);
+        if (summed == null) {
+            return Distribution.neutral();
+        }
+        return Distribution.adopt(0, summed, countDistribution.getEpsilon(), countDistribution.getPrunedMass());
+    }
+
+    /**
+     * Applies binomial thinning to a count distribution: every one of N dice independently 
+     * survives with the given probability (e.g., a wound that is not saved).
+     * <p>
+     * The result is the closed form sum of a_n · Binomial(n, p). The binomial for the lowest
+     * significant count is built directly from its probability mass function, and the rest
+     * of the window is folded in with Horner's scheme over (1-p) + p·s.
+     *
+     * @param countDistribution Probability array where index 'n' is the chance of 'n' dice.
+     * @param successProbability The chance for a single die to survive.
+     * @return The distribution of surviving dice, of the same length as the input.
+     */
+    public static double[] thin(double[] countDistribution, double successProbability) {
+        return thin(countDistribution, successProbability, ScratchArena.UNPOOLED);
+    }
+
+    /**
+     * Variant of {@link #thin(double[], double)} that keeps its intermediate arrays in a
+     * request-scoped arena. Only the returned result is allocated.
+     */
+    public static double[] thin(double[] countDistribution, double successProbability, ScratchArena arena) {
+        if (countDistribution == null || countDistribution.length == 0) {
+            return new double[]{1.0};
+        }
+
+        double p = Math.max(0.0, Math.min(1.0, successProbability));
+
+        if (p == 0.0) {
+            double[] result = new double[countDistribution.length];
+            for (double mass : countDistribution) result[0] += mass;
+            return result;
+        }
+        if (p == 1.0) {
+            return countDistribution.clone();
+        }
+
+        double[] summed = randomSum(countDistribution, 0, new double[]{1.0 - p, p}, true, countDistribution.length, arena);
+        return summed != null ? summed : new double[countDistribution.length];
+    }
+
+    /**
+     * Evaluates the random sum over the significant window of a count distribution whose first
+     * entry stands for {@code firstCount} dice: Horner's scheme over the window, shifted by the
+     * distribution of the lowest significant count. Bernoulli dice use the closed form binomial
+     * for the shift.
+     *
+     * The Horner buffers and the shift live in the arena, so the result is the only allocation.
+     *
+     * @param minLength The minimum length of the result; entries past the summed support are zero.
+     * @return The summed distribution indexed from outcome 0, or {@code null} if the window is empty.
+     */
+    private static double[] randomSum(double[] coefficients, int firstCount, double[] outcome, boolean bernoulli,
+                                      int minLength, ScratchArena arena) {
+        int low = findLowerWindow(coefficients);
+        int high = findUpperWindow(coefficients);
+        if (low > high) {
+            return null;
+        }
+
+        // Horner: sum_{j} a_{low+j} X^j, then shift the whole window by X^(firstCount+low)
+        int outcomeSpan = outcome.length - 1;
+        int windowLength = (high - low) * outcomeSpan + 1;
+        double[] window = evaluateHorner(coefficients, low, high, outcome, arena);
+
+        int shiftCount = firstCount + low;
+        int shiftLength = shiftCount * outcomeSpan + 1;
+        double[] shift;
+        if (bernoulli) {
+            shift = arena.acquire(shiftLength);
+            fillStableBinomial(shift, shiftCount, outcome[1]);
+        } else if (shiftCount == 0) {
+            shift = arena.acquire(1);
+            shift[0] = 1.0;
+        } else {
+            shift = powerInto(outcome, shiftCount, arena);
+        }
+
+        double[] result = new double[Math.max(minLength, shiftLength + windowLength - 1)];
+        convolveInto(shift, shiftLength, window, windowLength, result, arena);
+        arena.release(shift);
+        arena.release(window);
+        return result;
+    }
+
+    private static boolean isBernoulli(double[] outcome) {
+        return outcome.length == 2 &&
+            Math.abs(outcome[0] + outcome[1] - TOTAL_PROBABILITY_WEIGHT) < BERNOULLI_MASS_TOLERANCE;
+    }
+
+    /**
+     * Evaluates sum_{j=0}^{high-low} a_{low+j} · X^j with Horner's scheme.
+     * Each step convolves the accumulator with X into a second buffer, one multiply-add row per
+     * outcome of X, and the two buffers swap roles. The rows run on the selected {@link MultiplyAddKernel}.
+     *
+     * @return An arena buffer holding the window in its first (high-low)·(|X|-1)+1 entries. The caller releases it.
+     */
+    private static double[] evaluateHorner(double[] coefficients, int low, int high, double[] outcome, ScratchArena arena) {
+        MultiplyAddKernel kernel = MultiplyAddKernel.selected();
+        int outcomeSpan = outcome.length - 1;
+        int size = (high - low) * outcomeSpan + 1;
+        double[] accumulator = arena.acquire(size);
+        double[] next = arena.acquire(size);
+        accumulator[0] = coefficients[high];
+        int length = 1;
+
+        for (int n = high - 1; n >= low; n--) {
+            int nextLength = length + outcomeSpan;
+            Arrays.fill(next, 0, nextLength, 0.0);
+            // Ascending k keeps the summation order of the textbook loop, so every kernel gives the same bits
+            for (int k = 0; k <= outcomeSpan; k++) {
+                if (outcome[k] != 0.0) {
+                    kernel.multiplyAdd(outcome[k], accumulator, 0, next, k, length);
+                }
+            }
+            next[0] += coefficients[n];
+
+            double[] swap = accumulator;
+            accumulator = next;
+            next = swap;
+            length = nextLength;
+        }
+        arena.release(next);
+        return accumulator;
+    }
+
+    private static int findLowerWindow(double[] distribution) {
+        double tailMass = 0.0;
+        for (int i = 0; i < distribution.length; i++) {
+            tailMass += distribution[i];
+            if (tailMass > COMPOUND_TAIL_MASS) return i;
+        }
+        return distribution.length;
+    }
+
+    private static int findUpperWindow(double[] distribution) {
+        double tailMass = 0.0;
+        for (int i = distribution.length - 1; i >= 0; i--) {
+            tailMass += distribution[i];
+            if (tailMass > COMPOUND_TAIL_MASS) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a binomial distribution that stays accurate for thousands of trials into the first
+     * {@code totalTrials + 1} entries of a zeroed buffer.
+     * The mode is evaluated in log space and the remaining outcomes are reached with the
+     * ratio recurrence, so no intermediate combination count can overflow.
+     */
+    private static void fillStableBinomial(double[] distribution, int totalTrials, double successProbability) {
+        double q = TOTAL_PROBABILITY_WEIGHT - successProbability;
+        int mode = (int) Math.min(totalTrials, Math.floor((totalTrials + 1) * successProbability));
+
+        distribution[mode] = Math.exp(logFactorial(totalTrials) - logFactorial(mode) - logFactorial(totalTrials - mode)
+                + mode * Math.log(successProbability) + (totalTrials - mode) * Math.log(q));
+
+        double upRatio = successProbability / q;
+        for (int k = mode; k < totalTrials && distribution[k] > 0.0; k++) {
+            distribution[k + 1] = distribution[k] * (totalTrials - k) / (k + 1) * upRatio;
+        }
+        double downRatio = q / successProbability;
+        for (int k = mode; k > 0 && distribution[k] > 0.0; k--) {
+            distribution[k - 1] = distribution[k] * k / (totalTrials - k + 1) * downRatio;
+        }
+    }
+
+    /**
+     * Natural log of n!, exact from a table for small n and via the Stirling series beyond it.
+     */
+    private static double logFactorial(int n) {
+        if (n < EXACT_LOG_FACTORIALS) {
+            return LOG_FACTORIALS[n];
+        }
+        double x = n;
+        double inverse = 1.0 / x;
+        double inverseSquared = inverse * inverse;
+        return x * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI * x)
+                + inverse * (1.0 / 12 - inverseSquared * (1.0 / 360 - inverseSquared / 1260));
+    }
+
+    private static double[] buildLogFactorials() {
+        double[] table = new double[EXACT_LOG_FACTORIALS];
+        for (int n = 1; n < EXACT_LOG_FACTORIALS; n++) {
+            table[n] = table[n - 1] + Math.log(n);
+        }
+        return table;
+    }
+
+    /**
+     * Decides whether the FFT kernel is cheaper than the direct loop for the given input sizes.
+     * The direct loop costs n·m multiply-adds, while the FFT costs roughly L·log2(L) butterflies,
+     * where L is the padded transform size; the ratio between the two was tuned with the
+     * {@code ConvolutionKernelBenchmark} JMH benchmark.
+     *
+     * @param firstLength Length of the first distribution.
+     * @param secondLength Length of the second distribution.
+     * @return True if the FFT kernel should be used.
+     */
+    static boolean shouldUseFft(int firstLength, int secondLength) {
+        if (Math.min(firstLength, secondLength) < FFT_MIN_LENGTH) {
+            return false;
+        }
+        int resultLength = firstLength + secondLength - 1;
+        int size = Integer.highestOneBit(resultLength);
+        if (size < resultLength) size <<= 1;
+
+        double fftWork = FFT_COST_RATIO * size * Integer.numberOfTrailingZeros(size);
+        return (double) firstLength * secondLength > fftWork;
     }
 
     /**
@@ -0,0 +1,126 @@
+package com.warhammer.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * A pool of scratch {@code double[]} buffers for the intermediate arrays of one calculation.
+ * <p>
+ * Convolution powers, Horner buffers and FFT work arrays are only needed until the next step of
+ * the same computation. Borrowing them from an arena instead of allocating each one lets a whole
+ * request reuse a handful of buffers, so the young generation only sees the final results.
+ * <p>
+ * Buffers are pooled by power-of-two capacity, so a borrowed buffer may be longer than requested;
+ * callers track the logical length themselves. Only buffers obtained from {@link #acquire(int)} may
+ * be released, and never while something still reads them; results handed to a caller or a cache
+ * must be freshly allocated, never arena buffers. The arena is meant to live as long as one request
+ * and is safe to share between the tasks of that request.
+ */
+public final class ScratchArena {
+
+    private static final int MIN_CAPACITY_BITS = 4;
+
+    /**
+     * An arena that pools nothing: every buffer is allocated at its requested length and released
+     * buffers are dropped. Entry points used outside a request pass it instead of building an arena
+     * for a single operation, so they allocate no more than plain arrays would. It keeps no state,
+     * so it is shared by every thread and its counters stay at zero.
+     */
+    public static final ScratchArena UNPOOLED = new ScratchArena(false);
+
+    private final boolean pooling;
+
+    // Created on the first release, so an arena that is never used costs one small object
+    private ArrayDeque<double[]>[] pools;
+    private long allocations;
+    private long reuses;
+
+    public ScratchArena() {
+        this(true);
+    }
+
+    private ScratchArena(boolean pooling) {
+        this.pooling = pooling;
+    }
+
+    /**
+     * Borrows a buffer whose first {@code length} entries are zero.
+     *
+     * @param length The number of entries the caller needs.
+     * @return A buffer of at least {@code length} entries.
+     */
+    public double[] acquire(int length) {
+        if (!pooling) {
+            return new double[Math.max(checkLength(length), 1)];
+        }
+        int bits = capacityBits(length);
+        double[] buffer;
+        synchronized (this) {
+            ArrayDeque<double[]> pool = pools == null ? null : pools[bits];
+            buffer = pool == null ? null : pool.poll();
+            if (buffer == null) {
+                allocations++;
+            } else {
+                reuses++;
+            }
+        }
+        if (buffer == null) {
+            return new double[1 << bits];
+        }
+        Arrays.fill(buffer, 0, length, 0.0);
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #acquire(int)} to the pool. Releasing {@code null} is a no-op.
+     */
+    public void release(double[] buffer) {
+        if (buffer == null || !pooling) {
+            return;
+        }
+        int bits = Integer.numberOfTrailingZeros(buffer.length);
+        if (buffer.length != 1 << bits || bits < MIN_CAPACITY_BITS) {
+            throw new IllegalArgumentException("Not an arena buffer: length " + buffer.length);
+        }
+        synchronized (this) {
+            if (pools == null) {
+                pools = newPools();
+            }
+            if (pools[bits] == null) {
+                pools[bits] = new ArrayDeque<>();
+            }
+            pools[bits].push(buffer);
+        }
+    }
+
+    /**
+     * @return The number of buffers this arena had to allocate.
+     */
+    public synchronized long getAllocations() {
+        return allocations;
+    }
+
+    /**
+     * @return The number of requests served from a released buffer.
+     */
+    public synchronized long getReuses() {
+        return reuses;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArrayDeque<double[]>[] newPools() {
+        return new ArrayDeque[Integer.SIZE];
+    }
+
+    private static int capacityBits(int length) {
+        int bits = Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(checkLength(length), 1) - 1);
+        return Math.max(bits, MIN_CAPACITY_BITS);
+    }
+
+    private static int checkLength(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Buffer length cannot be negative: " + length);
+        }
+        return length;
+    }
+}
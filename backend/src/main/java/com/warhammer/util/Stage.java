@@ -0,0 +1,78 @@
+package com.warhammer.util;
+
+/**
+ * One step of a unit's attack sequence against a target, from the hit roll to the damage it deals.
+ * <p>
+ * A unit's sequence is a list of stages that {@link StagePlan#of(java.util.List)} turns into a plan.
+ * The hit, wound and damage stages expand dice into more dice; every defensive rule in between is a
+ * {@link Thinning}, which lets each die through independently with a fixed chance. New defensive
+ * rules only need a new thinning stage: the planner fuses it with its neighbours, so it adds no pass
+ * over the unit's distributions.
+ */
+public sealed interface Stage {
+
+    /**
+     * A stage that lets every die of its pool through independently with the same chance.
+     */
+    sealed interface Thinning extends Stage {
+
+        /**
+         * @return The chance that one die of the pool gets through this stage.
+         */
+        double passProbability();
+    }
+
+    /**
+     * The hit roll, with every hit modifier of the unit's profile.
+     */
+    record Hit() implements Stage {}
+
+    /**
+     * The wound roll against a required D6 result, from the strength and toughness.
+     */
+    record Wound(int woundRoll) implements Stage {}
+
+    /**
+     * An armour save, worsened by the attack's AP. A save of 7 stands for no save.
+     */
+    record ArmourSave(int save, int ap) implements Thinning {
+        @Override
+        public double passProbability() {
+            return failChance(save + Math.abs(ap));
+        }
+    }
+
+    /**
+     * An invulnerable save, which AP does not modify. A save of 7 stands for no save.
+     */
+    record InvulnerableSave(int save) implements Thinning {
+        @Override
+        public double passProbability() {
+            return failChance(save);
+        }
+    }
+
+    /**
+     * A Feel No Pain roll taken against every point of damage, including Devastating Wounds.
+     * A roll of 7 stands for no Feel No Pain.
+     */
+    record FeelNoPain(int roll) implements Thinning {
+        @Override
+        public double passProbability() {
+            return failChance(roll);
+        }
+    }
+
+    /**
+     * The damage characteristic of each wound that gets through (e.g. "2", "D3", "D6+1").
+     */
+    record Damage(String expression) implements Stage {}
+
+    /**
+     * The chance of failing a D6 roll that needs {@code target}, where a natural 1 always fails.
+     */
+    private static double failChance(int target) {
+        if (target > 6) return 1.0;
+        return (Math.max(2, target) - 1) / 6.0;
+    }
+}
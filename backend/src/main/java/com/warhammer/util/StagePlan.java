@@ -0,0 +1,107 @@
+package com.warhammer.util;
+
+import com.warhammer.dto.CalculationRequestDTO;
+
+import java.util.List;
+
+/**
+ * A unit's attack sequence after its thinning stages have been fused, ready to run.
+ * <p>
+ * Thinning stages commute with each other and with random sums: thinning every die of a sum is the
+ * same as summing thinned dice. So the planner never thins a unit-sized distribution, which would take
+ * a pass quadratic in its size. It folds every thinning into the small per-die outcome of the pool it
+ * acts on instead:
+ * <ul>
+ * <li>Saves act on the standard wounds of one attack, and only the best of them is rolled, so a run of
+ * armour and invulnerable saves becomes one thinning with the lowest chance to fail.
+ * Devastating Wounds skip it.</li>
+ * <li>Feel No Pain acts on every point of damage. Only the best one is rolled, and it is folded into the
+ * damage of a single wound. With one damage per wound, a save followed by Feel No Pain is therefore a
+ * single thinning with the product of their chances to fail.</li>
+ * </ul>
+ * Each plan costs one wound pass and one damage pass, whatever defensive stages it holds.
+ *
+ * @param woundRoll The required D6 result to wound.
+ * @param saveFailProbability The chance that a standard wound gets through the saves.
+ * @param damageExpression The damage characteristic of each unsaved wound.
+ * @param feelNoPainFailProbability The chance that a point of damage gets through Feel No Pain.
+ */
+public record StagePlan(int woundRoll, double saveFailProbability, String damageExpression,
+                        double feelNoPainFailProbability) {
+
+    /**
+     * Plans a sequence of stages: a hit stage, then a wound stage, then the damage stage, with any
+     * thinning stages after the wound stage. Saves have to come before the damage stage, while Feel No
+     * Pain may come on either side of it.
+     *
+     * @throws IllegalArgumentException if the sequence is not in that form.
+     */
+    public static StagePlan of(List<Stage> stages) {
+        if (stages.size() < 3 || !(stages.get(0) instanceof Stage.Hit)
+                || !(stages.get(1) instanceof Stage.Wound wound)) {
+            throw new IllegalArgumentException("A stage sequence starts with a hit stage and a wound stage");
+        }
+
+        double saveFail = 1.0;
+        double feelNoPainFail = 1.0;
+        Stage.Damage damage = null;
+        for (Stage stage : stages.subList(2, stages.size())) {
+            if (stage instanceof Stage.FeelNoPain feelNoPain) {
+                feelNoPainFail = Math.min(feelNoPainFail, feelNoPain.passProbability());
+            } else if (damage == null && (stage instanceof Stage.ArmourSave || stage instanceof Stage.InvulnerableSave)) {
+                saveFail = Math.min(saveFail, ((Stage.Thinning) stage).passProbability());
+            } else if (damage == null && stage instanceof Stage.Damage next) {
+                damage = next;
+            } else {
+                throw new IllegalArgumentException("Stage " + stage + " cannot follow the stages before it");
+            }
+        }
+        if (damage == null) {
+            throw new IllegalArgumentException("A stage sequence needs a damage stage");
+        }
+        return new StagePlan(wound.woundRoll(), saveFail, damage.expression(), feelNoPainFail);
+    }
+
+    /**
+     * Plans the usual sequence of a unit against a target: hit, wound, armour save after the unit's AP,
+     * invulnerable save, Feel No Pain and damage. Saves and rolls of 7 stand for none.
+     */
+    public static StagePlan of(CalculationRequestDTO request, int woundRoll, int save, int invulnerableSave,
+                               int feelNoPain) {
+        return of(List.of(new Stage.Hit(), new Stage.Wound(woundRoll), new Stage.ArmourSave(save, request.getAp()),
+                new Stage.InvulnerableSave(invulnerableSave), new Stage.FeelNoPain(feelNoPain),
+                new Stage.Damage(request.getDamageValue())));
+    }
+
+    /**
+     * Runs the defensive and damage stages on a unit's wounds. Only the trimmed window of the unsaved
+     * wounds is compounded, so the result does not span (max wounds)·(max damage).
+     *
+     * @param epsilon Tolerance used to prune the tails of the unsaved wounds and of the damage.
+     * @return The distribution of damage that gets through every stage.
+     */
+    public Distribution damage(WoundResult wounds, double epsilon, ScratchArena arena) {
+        return DamageProcessor.calculateDamageDistribution(
+                Distribution.of(wounds.unsavedWounds(saveFailProbability, arena), epsilon),
+                damageExpression, feelNoPainFailProbability, arena);
+    }
+
+    /**
+     * Runs the defensive stages on a unit's wounds, keeping the damage of each wound apart so it can be
+     * allocated to the target's models.
+     */
+    public ModelsSlainProcessor.Volley volley(WoundResult wounds, ScratchArena arena) {
+        return new ModelsSlainProcessor.Volley(wounds.unsavedWounds(saveFailProbability, arena),
+                DamageProcessor.buildSingleWoundDist(damageExpression, feelNoPainFailProbability));
+    }
+
+    /**
+     * Runs the whole plan for a unit, without any caching or pruning.
+     */
+    public double[] execute(CalculationRequestDTO request, ScratchArena arena) {
+        HitResult hits = HitProcessor.calculateUnitDistribution(request, arena);
+        WoundResult wounds = WoundProcessor.calculateUnitWounds(hits, woundRoll, request, arena);
+        return DamageProcessor.calculateDamageDistribution(wounds.unsavedWounds(saveFailProbability, arena),
+                damageExpression, feelNoPainFailProbability, arena);
+    }
+}
@@ -0,0 +1,90 @@
+package com.warhammer.util;
+
+import com.warhammer.dto.CalculationRequestDTO;
+
+/**
+ * Exact means and variances of a unit's hits, wounds and damage, without building their distributions.
+ * <p>
+ * The pipeline expands one attack into a joint (standard, lethal) hit outcome, thins each standard hit
+ * through a wound die and each wound through a save, and sums everything over the unit's attacks and
+ * then over the damage of each unsaved wound. Given the hits of one attack, the standard and lethal hits
+ * succeed independently, so the moments of one attack follow from the small joint outcome by the law of
+ * total variance, and the unit's from {@link Moments#randomSum(Moments, Moments)}. Each figure costs the
+ * same however many models or attacks the unit has.
+ */
+public final class UnitMoments {
+
+    private final Moments attacks;
+    private final JointDistribution singleHit;
+    private final CalculationRequestDTO request;
+
+    private UnitMoments(Moments attacks, JointDistribution singleHit, CalculationRequestDTO request) {
+        this.attacks = attacks;
+        this.singleHit = singleHit;
+        this.request = request;
+    }
+
+    public static UnitMoments of(CalculationRequestDTO request) {
+        Moments attacks = Moments.of(HitProcessor.buildExpressionDist(request.getAttacksPerModel()))
+                .times(request.getNumberOfModels());
+        return new UnitMoments(attacks, HitProcessor.singleAttackOutcome(request), request);
+    }
+
+    /**
+     * @return The moments of the unit's total hits, lethal hits included.
+     */
+    public Moments hits() {
+        return perUnit(1.0, 1.0);
+    }
+
+    /**
+     * @return The moments of the unit's total wounds against a wound roll, devastating wounds included.
+     */
+    public Moments totalWounds(int woundRoll) {
+        double[] die = WoundProcessor.singleDieOutcome(woundRoll, request);
+        return perUnit(die[1] + die[2], 1.0);
+    }
+
+    /**
+     * @return The moments of the wounds that get through a save failed with {@code failProbability}.
+     * Devastating wounds skip the save.
+     */
+    public Moments unsavedWounds(int woundRoll, double failProbability) {
+        double[] die = WoundProcessor.singleDieOutcome(woundRoll, request);
+        return perUnit(die[1] * failProbability + die[2], failProbability);
+    }
+
+    /**
+     * @return The moments of the damage that gets through every stage of a plan for this unit.
+     */
+    public Moments damage(StagePlan plan) {
+        return Moments.randomSum(unsavedWounds(plan.woundRoll(), plan.saveFailProbability()), damagePerWound(plan));
+    }
+
+    /**
+     * @return The moments of the damage of one wound under a plan, after Feel No Pain.
+     */
+    public static Moments damagePerWound(StagePlan plan) {
+        return Moments.of(DamageProcessor.buildSingleWoundDist(plan.damageExpression(),
+                plan.feelNoPainFailProbability()));
+    }
+
+    /**
+     * Sums one attack's successes over the unit's attacks, where each standard hit of the attack
+     * succeeds with {@code standardSuccess} and each lethal hit with {@code lethalSuccess}.
+     */
+    private Moments perUnit(double standardSuccess, double lethalSuccess) {
+        // Conditional on the attack's hits the successes are binomial; accumulate E[m], E[m²] and E[v]
+        double[] sums = new double[3];
+        singleHit.forEachEntry((standard, lethal, prob) -> {
+            double mean = standard * standardSuccess + lethal * lethalSuccess;
+            double variance = standard * standardSuccess * (1.0 - standardSuccess)
+                    + lethal * lethalSuccess * (1.0 - lethalSuccess);
+            sums[0] += prob * mean;
+            sums[1] += prob * mean * mean;
+            sums[2] += prob * variance;
+        });
+        Moments perAttack = new Moments(sums[0], Math.max(0.0, sums[2] + sums[1] - sums[0] * sums[0]));
+        return Moments.randomSum(attacks, perAttack);
+    }
+}
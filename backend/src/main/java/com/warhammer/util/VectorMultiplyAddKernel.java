@@ -0,0 +1,41 @@
+package com.warhammer.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD {@link MultiplyAddKernel} on the preferred vector width of the host (4 doubles on AVX2).
+ * <p>
+ * Only loaded when the {@code jdk.incubator.vector} module is present. Products and sums are
+ * rounded separately, as in the scalar loop, so results match it bit for bit.
+ */
+final class VectorMultiplyAddKernel implements MultiplyAddKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Rows shorter than this (e.g. one D6 roll) are faster in the plain loop than with vector setup.
+     */
+    private static final int MIN_VECTOR_LENGTH = 4 * SPECIES.length();
+
+    @Override
+    public void multiplyAdd(double scale, double[] source, int sourceFrom, double[] target, int targetFrom, int length) {
+        int upperBound = length < MIN_VECTOR_LENGTH ? 0 : SPECIES.loopBound(length);
+        int i = 0;
+        if (upperBound > 0) {
+            DoubleVector factor = DoubleVector.broadcast(SPECIES, scale);
+            for (; i < upperBound; i += SPECIES.length()) {
+                DoubleVector product = DoubleVector.fromArray(SPECIES, source, sourceFrom + i).mul(factor);
+                DoubleVector.fromArray(SPECIES, target, targetFrom + i).add(product).intoArray(target, targetFrom + i);
+            }
+        }
+        for (; i < length; i++) {
+            target[targetFrom + i] += scale * source[sourceFrom + i];
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector";
+    }
+}
@@ -5,7 +5,7 @@ import com.warhammer.dto.CalculationRequestDTO;
 /**
  * Orchestrates the wounding phase of the combat math pipeline.
  * <p>
- * This utility utilizes iterative convolution to transform a probability distribution 
+ * This utility utilizes binomial thinning to transform a probability distribution 
  * of successful hits into three distinct wound distributions: Standard, Devastating, 
  * and Total. It accounts for complex 10th Edition rules including Anti-X, 
  * Devastating Wounds, and various reroll mechanics.
@@ -18,8 +18,8 @@ public class WoundProcessor {
     /**
      * Projects a hit distribution into a multi-stream wound result.
      * <p>
-     * This method executes an iterative convolution loop. For each possible number of hits, 
-     * it calculates the resulting wound probabilities by siphoning dice into three pools:
+     * Every hit rolls one wound die, so each pool is a binomial thinning of the hit distribution
+     * ({@link ProbabilityMath#thin(double[], double)}). Dice are siphoned into three pools:
      * <ul>
      * <li>Standard Wounds: Successful wounds that allow saving throws.</li>
      * <li>Devastating Wounds: Critical wounds that bypass saving throws.</li>
@@ -33,45 +33,87 @@ public class WoundProcessor {
      */
     public static WoundResult calculateWoundDistribution(double[] hitDist, int targetWoundRoll, CalculationRequestDTO req) {
         if (hitDist == null || hitDist.length == 0) {
-            return new WoundResult(new double[]{1.0}, new double[]{1.0}, new double[]{1.0});
+            return new WoundResult(new double[]{1.0}, new double[]{1.0}, new double[]{1.0},
+                    new double[]{1.0}, JointDistribution.fromDense(new double[][]{{1.0}}));
         }
 
         // Generate the outcome probability for a single D6 roll
         double[] singleDieOutcome = new double[3]; // [0] Fail, [1] Standard Success, [2] Devastating Success
         calculateSingleDieWound(singleDieOutcome, targetWoundRoll, req);
 
-        int maxLen = hitDist.length;
-        double[] totalStdWounds = new double[maxLen];
-        double[] totalDevWounds = new double[maxLen];
-        double[] totalCombinedWounds = new double[maxLen];
+        // Binary siphoning logic: each pool is a binomial thinning of the hit count
+        double stdSuccess = singleDieOutcome[1];
+        double devSuccess = singleDieOutcome[2];
+        double totalSuccess = singleDieOutcome[1] + singleDieOutcome[2];
 
-        double[] currentStdDist = {1.0};
-        double[] currentDevDist = {1.0};
-        double[] currentCombinedDist = {1.0};
+        double[] totalStdWounds = ProbabilityMath.thin(hitDist, stdSuccess);
+        double[] totalDevWounds = ProbabilityMath.thin(hitDist, devSuccess);
+        double[] totalCombinedWounds = ProbabilityMath.thin(hitDist, totalSuccess);
+        
+        JointDistribution singleWound = JointDistribution.multinomial(1, stdSuccess, devSuccess);
+        return new WoundResult(totalStdWounds, totalDevWounds, totalCombinedWounds, hitDist, singleWound);
+    }
 
-        for (int hits = 0; hits < maxLen; hits++) {
-            double probOfHits = hitDist[hits];
+    /**
+     * Projects a unit's hits into exact wound pools, following each attack through the hit
+     * and wound rolls together.
+     * <p>
+     * A single attack produces a joint (standard, lethal) hit outcome. Each of its standard hits
+     * then rolls a wound die that fails, wounds, or triggers Devastating Wounds, so the standard 
+     * hits of one attack expand into a multinomial (standard, devastating) wound outcome. Lethal 
+     * Hits join the standard wound pool since they still allow saves. Because attacks are 
+     * independent, every unit pool is a random sum of this per-attack joint outcome over the 
+     * attack count, with no independence assumption between the pools.
+     *
+     * @param hits The unit's hit result, including its per-attack joint outcome.
+     * @param targetWoundRoll The required D6 result to wound.
+     * @param req The DTO containing active unit modifiers and toggles.
+     * @return A {@link WoundResult} whose pools are exact random sums over the unit's attacks.
+     */
+    public static WoundResult calculateUnitWounds(HitResult hits, int targetWoundRoll, CalculationRequestDTO req) {
+        return calculateUnitWounds(hits, targetWoundRoll, req, ScratchArena.UNPOOLED);
+    }
 
-            if (probOfHits > 0.0000001) {
-                // Apply the Law of Total Probability to weight the current wound distributions
-                for (int i = 0; i < currentStdDist.length; i++) totalStdWounds[i] += currentStdDist[i] * probOfHits;
-                for (int i = 0; i < currentDevDist.length; i++) totalDevWounds[i] += currentDevDist[i] * probOfHits;
-                for (int i = 0; i < currentCombinedDist.length; i++) totalCombinedWounds[i] += currentCombinedDist[i] * probOfHits;
-            }
+    /**
+     * Variant of {@link #calculateUnitWounds(HitResult, int, CalculationRequestDTO)} that keeps the
+     * intermediate arrays of its random sums in a request-scoped arena.
+     */
+    public static WoundResult calculateUnitWounds(HitResult hits, int targetWoundRoll, CalculationRequestDTO req,
+                                                  ScratchArena arena) {
+        double[] singleDieOutcome = new double[3];
+        calculateSingleDieWound(singleDieOutcome, targetWoundRoll, req);
 
-            if (hits < maxLen - 1) {
-                // Binary siphoning logic for independent pool convolution
-                double[] stdBinary = {singleDieOutcome[0] + singleDieOutcome[2], singleDieOutcome[1]};
-                double[] devBinary = {singleDieOutcome[0] + singleDieOutcome[1], singleDieOutcome[2]};
-                double[] totalBinary = {singleDieOutcome[0], singleDieOutcome[1] + singleDieOutcome[2]};
+        JointDistribution singleHit = hits.getSingleAttackOutcome();
+        JointDistribution[] woundsPerStandardHits = new JointDistribution[singleHit.maxFirst() + 1];
+        double[][] grid = new double[singleHit.maxFirst() + singleHit.maxSecond() + 1][singleHit.maxFirst() + 1];
 
-                currentStdDist = ProbabilityMath.convolve(currentStdDist, stdBinary);
-                currentDevDist = ProbabilityMath.convolve(currentDevDist, devBinary);
-                currentCombinedDist = ProbabilityMath.convolve(currentCombinedDist, totalBinary);
+        singleHit.forEachEntry((standard, lethal, prob) -> {
+            if (woundsPerStandardHits[standard] == null) {
+                woundsPerStandardHits[standard] = JointDistribution.multinomial(standard, singleDieOutcome[1], singleDieOutcome[2]);
             }
-        }
-        
-        return new WoundResult(totalStdWounds, totalDevWounds, totalCombinedWounds);
+            woundsPerStandardHits[standard].forEachEntry((wounds, devastating, woundProb) ->
+                    grid[wounds + lethal][devastating] += prob * woundProb);
+        });
+
+        JointDistribution singleAttack = JointDistribution.fromDense(grid);
+        double[] attackDist = hits.getAttackDistribution();
+
+        return new WoundResult(
+            ProbabilityMath.compound(attackDist, singleAttack.marginalFirst(), arena),
+            ProbabilityMath.compound(attackDist, singleAttack.marginalSecond(), arena),
+            ProbabilityMath.compound(attackDist, singleAttack.sumDistribution(), arena),
+            attackDist,
+            singleAttack
+        );
+    }
+
+    /**
+     * @return The outcome of one wound die as {fail, standard wound, devastating wound} probabilities.
+     */
+    static double[] singleDieOutcome(int targetWoundRoll, CalculationRequestDTO req) {
+        double[] outcomes = new double[3];
+        calculateSingleDieWound(outcomes, targetWoundRoll, req);
+        return outcomes;
     }
 
     /**
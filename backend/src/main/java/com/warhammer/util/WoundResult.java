@@ -16,9 +16,34 @@ package com.warhammer.util;
  * @param totalWounds       The consolidated distribution representing the sum of 
  *                          Standard and Devastating results. Used for baseline 
  *                          stat reporting and Toughness Scaling analysis.
+ * @param countDistribution The distribution of independent dice (attacks or hits) that 
+ *                          produced these wounds.
+ * @param singleOutcome     The joint (standard, devastating) wound outcome of one of those 
+ *                          dice. All three pools are random sums of this outcome, which keeps 
+ *                          the correlation between standard and devastating wounds exact.
  */
 public record WoundResult(
     double[] standardWounds, 
     double[] devastatingWounds, 
-    double[] totalWounds
-) {}
\ No newline at end of file
+    double[] totalWounds,
+    double[] countDistribution,
+    JointDistribution singleOutcome
+) {
+
+    /**
+     * Projects the wounds through a saving throw that only standard wounds must take.
+     *
+     * @param failProbability The chance of a single standard wound failing its save.
+     * @return The exact distribution of unsaved wounds, including Devastating Wounds.
+     */
+    public double[] unsavedWounds(double failProbability) {
+        return unsavedWounds(failProbability, ScratchArena.UNPOOLED);
+    }
+
+    /**
+     * Variant of {@link #unsavedWounds(double)} that keeps its intermediate arrays in a request-scoped arena.
+     */
+    public double[] unsavedWounds(double failProbability, ScratchArena arena) {
+        return ProbabilityMath.compound(countDistribution, singleOutcome.thinFirstThenSum(failProbability), arena);
+    }
+}
\ No newline at end of file
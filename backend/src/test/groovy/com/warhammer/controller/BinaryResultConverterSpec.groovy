@@ -0,0 +1,68 @@
+package com.warhammer.controller
+
+import com.warhammer.service.CalculatorService
+import com.warhammer.dto.CalculationRequestDTO
+import spock.lang.Specification
+import spock.lang.Unroll
+import tools.jackson.databind.json.JsonMapper
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.charset.StandardCharsets
+
+class BinaryResultConverterSpec extends Specification {
+
+    def converter = new BinaryResultConverter(JsonMapper.builder().build())
+    def result = new CalculatorService().calculateArmyHits([
+            new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "D6", bsValue: 3, strength: 4, damageValue: "D3")
+    ])
+
+    @Unroll
+    def "A #encoding result should carry the JSON header and every probability array"() {
+        given:
+        def out = new ByteArrayOutputStream()
+
+        when:
+        converter.write(result, encoding, out)
+        def buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN)
+
+        then: "The prefix holds the magic, the version and three blocks"
+        new String(out.toByteArray(), 0, 4, StandardCharsets.US_ASCII) == "WHCR"
+        buffer.get(4) == 1
+        buffer.get(5) == 3
+
+        when:
+        int headerLength = buffer.getInt(8)
+        def header = new String(out.toByteArray(), 12, headerLength, StandardCharsets.UTF_8)
+        buffer.position(12 + headerLength)
+        def arrays = (0..<3).collect { readBlock(buffer) }
+
+        then: "The header has the statistics but not the arrays"
+        header.contains("\"damageAvgValue\"")
+        !header.contains("\"probabilities\"")
+
+        and: "Every block expands to the dense JSON list, within the JSON rounding"
+        [result.probabilities, result.woundProbabilities, result.damageProbabilities].withIndex().every { expected, i ->
+            arrays[i].size() == expected.size() &&
+                    (0..<expected.size()).every { Math.abs(arrays[i][it] - expected[it]) < 1e-4 }
+        }
+        !buffer.hasRemaining()
+
+        where:
+        encoding << BinaryResultConverter.Encoding.values()
+    }
+
+    private static List<Double> readBlock(ByteBuffer buffer) {
+        buffer.get()
+        int encoding = buffer.get()
+        buffer.getShort()
+        int offset = buffer.getInt()
+        int count = buffer.getInt()
+        def values = [0.0d] * offset
+        count.times {
+            values << (encoding == 0 ? buffer.getDouble() : encoding == 1 ? (double) buffer.getFloat()
+                    : (buffer.getShort() & 0xFFFF) / 65535.0d)
+        }
+        return values
+    }
+}
@@ -0,0 +1,100 @@
+package com.warhammer.service
+
+import com.warhammer.dto.BatchArmyDTO
+import com.warhammer.dto.BatchResultDTO
+import com.warhammer.dto.CalculationRequestDTO
+import com.warhammer.util.HitResult
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+
+class BatchCalculationServiceSpec extends Specification {
+
+    def infantry = new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "2", bsValue: 4, strength: 4, ap: 0, damageValue: "1")
+    def tank = new CalculationRequestDTO(numberOfModels: 1, attacksPerModel: "D6", bsValue: 3, strength: 9, ap: 2, damageValue: "D3")
+    def elites = new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "3", bsValue: 3, strength: 5, ap: 1, damageValue: "2")
+
+    def "Every army of a batch should match its standalone calculation"() {
+        given:
+        def calculator = new CalculatorService(new DistributionCache(), new PipelineExecutor(2))
+        def batch = new BatchCalculationService(calculator, new PipelineExecutor(2), 2, 10)
+        def armies = [new BatchArmyDTO("a", [infantry, tank]), new BatchArmyDTO("b", [tank, elites]), new BatchArmyDTO("c", [elites])]
+        def results = new CopyOnWriteArrayList<BatchResultDTO>()
+
+        when:
+        batch.calculateBatch(armies, { results.add(it) }).join()
+
+        then: "One result per army, identified by its index and name"
+        results*.index.sort() == [0, 1, 2]
+        results.every { it.name == armies[it.index].name && it.error == null }
+        results.every { r ->
+            def reference = new CalculatorService().calculateArmyHits(armies[r.index].units)
+            r.result.damageAvgValue == reference.damageAvgValue &&
+                (0..<6).every { r.result.saveScaling[it].average == reference.saveScaling[it].average }
+        }
+    }
+
+    def "Units shared between armies should be computed once per batch"() {
+        given: "Two armies that both field the same tank"
+        def cache = new DistributionCache()
+        def batch = new BatchCalculationService(new CalculatorService(cache), new PipelineExecutor(2), 2, 10)
+
+        when:
+        batch.calculateBatch([new BatchArmyDTO("a", [infantry, tank]), new BatchArmyDTO("b", [tank])], {}).join()
+
+        then: "The shared unit adds no cache misses of its own"
+        def reference = new DistributionCache()
+        new CalculatorService(reference).calculateArmyHits([infantry, tank])
+        cache.stats.misses == reference.stats.misses
+    }
+
+    def "The batch memo should only hold stages that are still running"() {
+        given:
+        def memo = new UnitWorkMemo()
+        def running = new CompletableFuture<HitResult>()
+        int started = 0
+
+        when: "A second army asks for a unit while its stage is running"
+        def first = memo.hits(tank) { started++; running }
+        def second = memo.hits(tank) { started++; new CompletableFuture<HitResult>() }
+
+        then: "Both wait on the same stage"
+        first.is(second)
+        started == 1
+
+        when: "The stage completes and a later army asks again"
+        running.complete(null)
+        memo.hits(tank) { started++; CompletableFuture.completedFuture(null) }
+
+        then: "The memo no longer holds it, so the later army goes to the distribution cache"
+        started == 2
+    }
+
+    def "An invalid army should be reported without failing the batch"() {
+        given:
+        def batch = new BatchCalculationService(new CalculatorService(), new PipelineExecutor(1), 1, 10)
+        def results = new CopyOnWriteArrayList<BatchResultDTO>()
+
+        when:
+        batch.calculateBatch([new BatchArmyDTO("empty", []), new BatchArmyDTO("ok", [infantry])], { results.add(it) }).join()
+
+        then:
+        results.find { it.name == "empty" }.error != null
+        results.find { it.name == "ok" }.result != null
+    }
+
+    def "Empty and oversized batches should be rejected"() {
+        given:
+        def batch = new BatchCalculationService(new CalculatorService(), new PipelineExecutor(1), 1, 1)
+
+        when:
+        batch.calculateBatch(armies, {})
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        armies << [[], [new BatchArmyDTO("a", []), new BatchArmyDTO("b", [])]]
+    }
+}
@@ -1,6 +1,9 @@
 package com.warhammer.service
 
 import com.warhammer.dto.CalculationRequestDTO
+import com.warhammer.dto.CalculationResultDTO
+import com.warhammer.dto.LiveUpdateDTO
+import com.warhammer.util.Distribution
 import spock.lang.Specification
 
 class CalculatorServiceSpec extends Specification {
@@ -374,4 +377,328 @@ class CalculatorServiceSpec extends Specification {
         and: "The 'None' node always shows full damage regardless of AP"
         Math.abs(result.saveScaling[5].average - 2.5) < 0.01
     }
-}
\ No newline at end of file
+
+    def "Repeated army requests should reuse cached unit distributions"() {
+        given: "A service with its own cache and a two-unit army"
+        def cachedService = new CalculatorService(new DistributionCache())
+        def army = [
+            new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "2", bsValue: 3, strength: 4, ap: 1, damageValue: "1"),
+            new CalculationRequestDTO(numberOfModels: 3, attacksPerModel: "D6", bsValue: 4, strength: 6, ap: 2, damageValue: "2")
+        ]
+
+        when: "The same army is calculated twice"
+        def first = cachedService.calculateArmyHits(army)
+        def missesAfterFirst = cachedService.cacheStats.misses
+        def second = cachedService.calculateArmyHits(army)
+
+        then: "The second request is served entirely from the cache with identical results"
+        cachedService.cacheStats.misses == missesAfterFirst
+        cachedService.cacheStats.hits > 0
+        second.avgValue == first.avgValue
+        second.damageAvgValue == first.damageAvgValue
+    }
+
+    def "Wound results should be computed once per wound roll within a request"() {
+        given: "A fresh cache and a single S4 unit"
+        def cachedService = new CalculatorService(new DistributionCache())
+        def unit = new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "2", bsValue: 3, strength: 4, damageValue: "1")
+
+        when:
+        cachedService.calculateArmyHits([unit])
+
+        then: "1 hit result, 5 wound rolls and 6 save profiles are each computed once and never looked up again"
+        cachedService.cacheStats.misses == 12
+        cachedService.cacheStats.hits == 0
+    }
+
+    def "Parallel stages should assemble nodes in a deterministic order"() {
+        given: "A service with a multi-threaded compute pool and a mixed-strength army"
+        def parallelService = new CalculatorService(new DistributionCache(), new PipelineExecutor(4))
+        def army = [
+            new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "2", bsValue: 3, strength: 4, ap: 1, damageValue: "1"),
+            new CalculationRequestDTO(numberOfModels: 3, attacksPerModel: "D6", bsValue: 4, strength: 8, ap: 2, damageValue: "D3")
+        ]
+
+        when: "The army is calculated in parallel and on the default service"
+        def parallel = parallelService.calculateArmyHits(army)
+        def reference = service.calculateArmyHits(army)
+
+        then: "Nodes come back in sweep order with identical values"
+        parallel.toughnessScaling*.toughness == (1..12).toList()
+        parallel.saveScaling*.saveLabel == ["2+", "3+", "4+", "5+", "6+", "None"]
+        parallel.toughnessScaling*.average == reference.toughnessScaling*.average
+        parallel.saveScaling*.average == reference.saveScaling*.average
+        parallel.damageAvgValue == reference.damageAvgValue
+    }
+
+    def "Unit contributions should report the damage lost without each unit"() {
+        given: "Two units where the second deals twice the damage of the first"
+        def light = new CalculationRequestDTO(unitName: "Light", numberOfModels: 5, attacksPerModel: "2", bsValue: 3, strength: 4, damageValue: "1")
+        def heavy = new CalculationRequestDTO(unitName: "Heavy", numberOfModels: 5, attacksPerModel: "2", bsValue: 3, strength: 4, damageValue: "2")
+
+        when:
+        def result = service.calculateArmyHits([light, heavy])
+        def contributions = result.unitContributions
+
+        then: "Each drop equals that unit's own unsaved damage and both add up to the army total"
+        contributions*.unitName == ["Light", "Heavy"]
+        Math.abs(contributions[1].averageDrop - 2 * contributions[0].averageDrop) < 0.001
+        Math.abs(contributions[0].averageDrop + contributions[1].averageDrop - result.saveScaling[5].average) < 0.001
+        contributions.every { it.probAtLeastAvgDrop > 0 }
+    }
+
+    def "Army distributions should stop at their highest significant outcome"() {
+        given: "20 models with 3 attacks each hitting on 2+, so 60 hits are possible but very unlikely"
+        def unit = new CalculationRequestDTO(numberOfModels: 20, attacksPerModel: "3", bsValue: 2, damageValue: "D6")
+
+        when:
+        def result = service.calculateArmyHits([unit])
+
+        then: "The damage list is far shorter than the theoretical 361 outcomes yet still holds all the mass"
+        result.damageProbabilities.size() < 361
+        result.maxHits <= 60
+        Math.abs(result.damageProbabilities.sum() - 1.0) < 0.01
+    }
+
+    def "streamArmyHits should report the cards first and then every node of calculateArmyHits"() {
+        given:
+        def army = [
+                new CalculationRequestDTO(unitName: "Bolters", numberOfModels: 10, attacksPerModel: "2", bsValue: 3, strength: 4, ap: 1, damageValue: "1"),
+                new CalculationRequestDTO(unitName: "Melta", numberOfModels: 2, attacksPerModel: "1", bsValue: 3, strength: 9, ap: 4, damageValue: "D6")
+        ]
+        def events = Collections.synchronizedList([])
+        def sections = [:]
+        def toughness = Collections.synchronizedList([])
+        def saves = Collections.synchronizedList([])
+        def listener = new CalculationProgressListener() {
+            void onHits(LiveUpdateDTO.Section hits) { events << "hits"; sections.hits = hits }
+            void onWounds(LiveUpdateDTO.Section wounds) { events << "wounds"; sections.wounds = wounds }
+            void onDamage(LiveUpdateDTO.Section damage) { events << "damage"; sections.damage = damage }
+            void onToughnessNode(CalculationResultDTO.ToughnessNode node) { events << "toughness"; toughness << node }
+            void onSaveNode(CalculationResultDTO.SaveNode node) { events << "save"; saves << node }
+            void onUnitContributions(List<CalculationResultDTO.UnitContribution> contributions) { events << "contributions" }
+        }
+
+        when:
+        service.streamArmyHits(army, listener).join()
+        def reference = service.calculateArmyHits(army)
+
+        then: "The hit, wound and damage cards come first, in that order, followed by every node"
+        events.take(3) == ["hits", "wounds", "damage"]
+        events.count("toughness") == 12
+        events.count("save") == 6
+        events.count("contributions") == 1
+
+        and: "Each section matches the blocking result"
+        sections.hits.probabilities == reference.probabilities
+        sections.wounds.average == reference.woundAvgValue
+        sections.damage.probabilities == reference.damageProbabilities
+        sections.damage.range80 == reference.damageRange80
+        toughness.sort { it.toughness }*.average == reference.toughnessScaling*.average
+        saves.collectEntries { [it.saveLabel, it.average] } == reference.saveScaling.collectEntries { [it.saveLabel, it.average] }
+    }
+
+    def "streamArmyHits should reject an empty army"() {
+        when:
+        service.streamArmyHits([], Mock(CalculationProgressListener))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "The damage grid should only be present when requested"() {
+        given:
+        def unit = new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "2", bsValue: 3, strength: 4, ap: 1, damageValue: "D3")
+
+        expect:
+        service.calculateArmyHits([unit]).damageGrid == null
+        service.calculateArmyHits([unit], true).damageGrid.size() == 12 * 6 * 6
+    }
+
+    def "Damage grid cells should agree with the save sweep and apply the better save"() {
+        given: "A strength 4 unit, so every unit wounds on 4+ at T4 just like the save sweep"
+        def unit = new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "2", bsValue: 3, strength: 4, ap: 1, damageValue: "D3")
+
+        when:
+        def result = service.calculateArmyHits([unit], true)
+        def cell = { int t, String save, String invuln ->
+            result.damageGrid.find { it.toughness == t && it.saveLabel == save && it.invulnLabel == invuln }
+        }
+
+        then: "Without an invulnerable save the T4 row is the save sweep"
+        result.saveScaling.every { node -> cell(4, node.saveLabel, "None").average == node.average }
+
+        and: "A 4+ invulnerable save ignores AP, so it beats a 6+ armour save and loses to a 2+ one"
+        cell(4, "6+", "4+").average == cell(4, "3+", "None").average
+        cell(4, "2+", "4+").average == cell(4, "2+", "None").average
+
+        and: "Tougher targets never take more damage"
+        (1..<12).every { t -> cell(t, "4+", "None").average >= cell(t + 1, "4+", "None").average }
+    }
+
+    def "Selected sections should match the full result and leave the rest out"() {
+        given:
+        def army = [
+                new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "2", bsValue: 3, strength: 4, ap: 1, damageValue: "D3"),
+                new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "D6", bsValue: 4, strength: 8, damageValue: "2")
+        ]
+        def full = service.calculateArmyHits(army)
+
+        when:
+        def result = service.calculateArmyHits(army, false, ResultFields.parse(["damage", "saveScaling"], false))
+
+        then: "The selected summaries are unchanged"
+        result.damageAvgValue == full.damageAvgValue
+        result.damageRange80 == full.damageRange80
+        result.saveScaling*.average == full.saveScaling*.average
+
+        and: "Everything else, including the probability arrays, is null"
+        result.damageProbabilities == null
+        [result.probabilities, result.maxHits, result.avgValue, result.range80, result.woundAvgValue,
+         result.woundProbabilities, result.toughnessScaling, result.unitContributions].every { it == null }
+    }
+
+    def "Unit contributions should not need the save sweep"() {
+        given:
+        def army = [
+                new CalculationRequestDTO(unitName: "A", numberOfModels: 10, attacksPerModel: "2", bsValue: 3, damageValue: "1"),
+                new CalculationRequestDTO(unitName: "B", numberOfModels: 3, attacksPerModel: "3", bsValue: 3, strength: 6, damageValue: "D3")
+        ]
+
+        when:
+        def result = service.calculateArmyHits(army, false, ResultFields.parse(["unitContributions"], true))
+
+        then:
+        result.saveScaling == null
+        result.unitContributions*.averageDrop == service.calculateArmyHits(army).unitContributions*.averageDrop
+    }
+
+    def "Selecting only #section with grid #grid should run the stages it needs"() {
+        given: "A fresh service, so no stage of an earlier calculation is reused"
+        def army = [
+                new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "2", bsValue: 3, strength: 4, ap: 1, damageValue: "D3"),
+                new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "D6", bsValue: 4, strength: 8, damageValue: "2")
+        ]
+        def full = service.calculateArmyHits(army, true)
+
+        when:
+        def result = new CalculatorService().calculateArmyHits(army, grid, ResultFields.parse([section], true))
+
+        then: "The selected section matches the full result"
+        figure(result) == figure(full)
+
+        and: "The grid is only there when it was requested"
+        grid ? result.damageGrid*.average == full.damageGrid*.average : result.damageGrid == null
+
+        where:
+        section             | figure                                 | grid
+        "hits"              | { it.avgValue }                        | false
+        "wounds"            | { it.woundAvgValue }                   | false
+        "damage"            | { it.damageAvgValue }                  | false
+        "toughnessScaling"  | { it.toughnessScaling*.average }       | false
+        "saveScaling"       | { it.saveScaling*.average }            | false
+        "unitContributions" | { it.unitContributions*.averageDrop }  | false
+        "hits"              | { it.avgValue }                        | true
+        "wounds"            | { it.woundAvgValue }                   | true
+        "damage"            | { it.damageAvgValue }                  | true
+        "toughnessScaling"  | { it.toughnessScaling*.average }       | true
+        "saveScaling"       | { it.saveScaling*.average }            | true
+        "unitContributions" | { it.unitContributions*.averageDrop }  | true
+    }
+
+    def "An unknown result section should be rejected"() {
+        when:
+        ResultFields.parse(["hits", "morale"], true)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("morale")
+    }
+
+    def "No selected sections should mean every section"() {
+        expect:
+        ResultFields.parse(null, true) == ResultFields.ALL
+        ResultFields.parse([" "], true) == ResultFields.ALL
+        ResultFields.parse(["HITS", "toughnessscaling"], true).sections() ==
+                [ResultFields.Section.HITS, ResultFields.Section.TOUGHNESS_SCALING] as Set
+    }
+
+    def "Armies above the approximation threshold should be approximated and flagged"() {
+        given: "The same army for the default service and for one that always approximates"
+        def army = [
+                new CalculationRequestDTO(numberOfModels: 40, attacksPerModel: "D6", bsValue: 3, strength: 4, ap: 1, damageValue: "D3"),
+                new CalculationRequestDTO(numberOfModels: 20, attacksPerModel: "3", bsValue: 4, strength: 8, ap: 2, damageValue: "2", devastatingWounds: true)
+        ]
+        def approximating = new CalculatorService(new DistributionCache(), new PipelineExecutor(), Distribution.DEFAULT_EPSILON, 0)
+
+        when:
+        def exact = service.calculateArmyHits(army)
+        def approximate = approximating.calculateArmyHits(army, true)
+
+        then: "Only the approximate result is flagged, with a bound on its error"
+        exact.approximate == null
+        exact.approximationError == null
+        approximate.approximate
+        approximate.approximationError > 0.0 && approximate.approximationError < 1.0
+
+        and: "Averages, ranges and nodes agree with the exact pipeline"
+        Math.abs(approximate.damageAvgValue - exact.damageAvgValue) < 0.01
+        approximate.range80 == exact.range80
+        (0..<12).every { Math.abs(approximate.toughnessScaling[it].average - exact.toughnessScaling[it].average) < 0.01 }
+        (0..<2).every { Math.abs(approximate.unitContributions[it].averageDrop - exact.unitContributions[it].averageDrop) < 0.01 }
+        approximate.damageGrid.size() == 432
+    }
+
+    def "Feel No Pain should thin every damage figure but no wound figure"() {
+        given: "A one-damage unit, so a 4+ Feel No Pain halves its damage"
+        def army = [new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "D6", bsValue: 3, strength: 4, damageValue: "1")]
+
+        when:
+        def plain = service.calculateArmyHits(army, false, ResultFields.ALL)
+        def feelNoPain = service.calculateArmyHits(army, false, ResultFields.ALL, 4)
+
+        then:
+        feelNoPain.woundAvgValue == plain.woundAvgValue
+        Math.abs(feelNoPain.damageAvgValue - plain.damageAvgValue / 2) < 0.001
+        (0..<6).every { Math.abs(feelNoPain.saveScaling[it].average - plain.saveScaling[it].average / 2) < 0.001 }
+    }
+
+    def "A Feel No Pain roll out of range should be rejected"() {
+        when:
+        service.calculateArmyHits([new CalculationRequestDTO(numberOfModels: 1, attacksPerModel: "1")], false, ResultFields.ALL, 1)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "Models slain should allocate damage model by model against a target unit"() {
+        given: "A one-damage unit against one-wound models, so every unsaved wound slays a model"
+        def army = [new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "2", bsValue: 3, strength: 4, damageValue: "1")]
+
+        when:
+        def plain = service.calculateArmyHits(army, false, ResultFields.ALL)
+        def oneWound = service.calculateArmyHits(army, false, ResultFields.ALL, 7, new TargetUnit(20, 1))
+        def threeWounds = service.calculateArmyHits(army, false, ResultFields.ALL, 7, new TargetUnit(20, 3))
+
+        then: "No target means no models-slain section"
+        plain.modelsSlain == null
+
+        and: "Against one-wound models the models slain are the unsaved damage"
+        oneWound.modelsSlain.models == 20
+        Math.abs(oneWound.modelsSlain.average - oneWound.damageAvgValue) < 0.001
+        oneWound.modelsSlain.saveScaling*.saveLabel == ["2+", "3+", "4+", "5+", "6+", "None"]
+        (0..<6).every { Math.abs(oneWound.modelsSlain.saveScaling[it].average - oneWound.saveScaling[it].average) < 0.001 }
+
+        and: "Three-wound models need three points of damage each"
+        threeWounds.modelsSlain.average < threeWounds.damageAvgValue / 3
+        threeWounds.modelsSlain.probAllSlain == 0.0d
+    }
+
+    def "A target unit without wounds should be rejected"() {
+        when:
+        TargetUnit.of(10, null)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
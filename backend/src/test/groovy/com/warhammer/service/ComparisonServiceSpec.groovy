@@ -0,0 +1,97 @@
+package com.warhammer.service
+
+import com.warhammer.dto.BatchArmyDTO
+import com.warhammer.dto.CalculationRequestDTO
+import spock.lang.Specification
+
+class ComparisonServiceSpec extends Specification {
+
+    def infantry = new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "2", bsValue: 4, strength: 4, ap: 0, damageValue: "1")
+    def tank = new CalculationRequestDTO(numberOfModels: 1, attacksPerModel: "D6", bsValue: 3, strength: 9, ap: 2, damageValue: "D3")
+    def elites = new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "3", bsValue: 3, strength: 5, ap: 1, damageValue: "2")
+
+    def "Each army of a comparison should match its standalone calculation"() {
+        given:
+        def service = new ComparisonService(new CalculatorService(), 8)
+        def armies = [new BatchArmyDTO("a", [infantry, tank]), new BatchArmyDTO("b", [tank, elites])]
+
+        when:
+        def result = service.compare(armies)
+
+        then:
+        result.armies*.name == ["a", "b"]
+        (0..1).every { i ->
+            def reference = new CalculatorService().calculateArmyHits(armies[i].units)
+            result.armies[i].result.damageProbabilities == reference.damageProbabilities &&
+                result.armies[i].result.saveScaling*.average == reference.saveScaling*.average
+        }
+    }
+
+    def "Pairwise chances should add up and follow the stronger army"() {
+        given: "The second army is the first plus an extra unit"
+        def service = new ComparisonService(new CalculatorService(), 8)
+
+        when:
+        def result = service.compare([new BatchArmyDTO("small", [infantry]), new BatchArmyDTO("large", [infantry, elites])])
+        def comparison = result.comparisons[0]
+
+        then:
+        result.comparisons.size() == 1
+        comparison.firstName == "small" && comparison.secondName == "large"
+        Math.abs(comparison.probFirstMoreDamage + comparison.probSecondMoreDamage + comparison.probEqualDamage - 100) < 0.01
+        comparison.probSecondMoreDamage > 85
+        comparison.averageDifference < 0
+        comparison.medianDifference < 0
+
+        and: "The sweeps are compared node by node"
+        comparison.toughnessScaling*.toughness == (1..12).toList()
+        comparison.saveScaling*.saveLabel == ["2+", "3+", "4+", "5+", "6+", "None"]
+        (0..<6).every { Math.abs(comparison.saveScaling[it].averageDifference -
+                (result.armies[0].result.saveScaling[it].average - result.armies[1].result.saveScaling[it].average)) < 0.001 }
+    }
+
+    def "Identical armies should be an even match"() {
+        given:
+        def service = new ComparisonService(new CalculatorService(), 8)
+
+        when:
+        def comparison = service.compare([new BatchArmyDTO("a", [tank]), new BatchArmyDTO("b", [tank])]).comparisons[0]
+
+        then:
+        Math.abs(comparison.probFirstMoreDamage - comparison.probSecondMoreDamage) < 0.001
+        comparison.averageDifference == 0
+        comparison.medianDifference == 0
+    }
+
+    def "Units shared between armies should be computed once per comparison"() {
+        given:
+        def cache = new DistributionCache()
+        def service = new ComparisonService(new CalculatorService(cache), 8)
+
+        when:
+        service.compare([new BatchArmyDTO("a", [infantry, tank]), new BatchArmyDTO("b", [tank])])
+
+        then:
+        def reference = new DistributionCache()
+        new CalculatorService(reference).calculateArmyHits([infantry, tank])
+        cache.stats.misses == reference.stats.misses
+    }
+
+    def "Comparisons should reject fewer than two armies, too many armies and empty armies"() {
+        given:
+        def service = new ComparisonService(new CalculatorService(), 2)
+
+        when:
+        service.compare(armies)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        armies << [
+                [new BatchArmyDTO("a", [tank])],
+                [new BatchArmyDTO("a", [tank]), new BatchArmyDTO("b", [tank]), new BatchArmyDTO("c", [tank])],
+                [new BatchArmyDTO("a", [tank]), new BatchArmyDTO("b", [])]
+        ]
+    }
+}
@@ -0,0 +1,57 @@
+package com.warhammer.service
+
+import com.warhammer.dto.CalculationRequestDTO
+import com.warhammer.util.Distribution
+import com.warhammer.util.HitProcessor
+import com.warhammer.util.StagePlan
+import spock.lang.Specification
+
+class DistributionCacheSpec extends Specification {
+
+    def "A repeated unit profile should be served from the cache"() {
+        given:
+        def cache = new DistributionCache()
+        def unit = new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "D6", bsValue: 3)
+        int loads = 0
+
+        when: "The same unit is requested twice"
+        def first = cache.getHits(unit) { loads++; HitProcessor.calculateUnitDistribution(unit) }
+        def second = cache.getHits(unit) { loads++; HitProcessor.calculateUnitDistribution(unit) }
+
+        then: "The second lookup is a hit and returns the same instance"
+        loads == 1
+        first.is(second)
+        cache.stats.hits == 1
+        cache.stats.misses == 1
+    }
+
+    def "Keys should be canonical over fields the stage does not read"() {
+        expect: "Formatting and inactive options do not change the hit key"
+        DistributionCache.HitKey.of(new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "d6 + 1", bsValue: 3, unitName: "A")) ==
+            DistributionCache.HitKey.of(new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "D6+1", bsValue: 3, sustainedValue: "2", unitName: "B"))
+
+        and: "Strength only matters through the wound roll"
+        DistributionCache.WoundKey.of(new CalculationRequestDTO(strength: 4), 4) ==
+            DistributionCache.WoundKey.of(new CalculationRequestDTO(strength: 5), 4)
+    }
+
+    def "The cache should evict least recently used entries beyond its byte budget"() {
+        given: "A budget that fits roughly two small damage distributions"
+        def cache = new DistributionCache(200)
+        def units = (1..3).collect { new CalculationRequestDTO(numberOfModels: it, bsValue: 3) }
+        def damage = Distribution.of([0.1d] * 10 as double[])
+
+        when: "Three different entries are inserted"
+        units.each { unit -> cache.getDamage(unit, StagePlan.of(unit, 4, 4, 7, 7)) { damage } }
+
+        then: "The oldest entry was evicted"
+        cache.stats.evictions == 1
+        cache.stats.currentBytes <= 200
+
+        when: "The most recent entry is requested again"
+        cache.getDamage(units[2], StagePlan.of(units[2], 4, 4, 7, 7)) { damage }
+
+        then:
+        cache.stats.hits == 1
+    }
+}
@@ -0,0 +1,123 @@
+package com.warhammer.service
+
+import com.warhammer.dto.CalculationRequestDTO
+import com.warhammer.dto.LiveDeltaDTO
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+import static com.warhammer.dto.LiveDeltaDTO.Operation.*
+
+class LiveSessionServiceSpec extends Specification {
+
+    CalculatorService calculator = new CalculatorService()
+    LiveSessionService live = new LiveSessionService(calculator, 1000, 2)
+
+    def infantry = new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "2", bsValue: 4, strength: 4, ap: 0, damageValue: "1")
+    def tank = new CalculationRequestDTO(numberOfModels: 1, attacksPerModel: "D6", bsValue: 3, strength: 9, ap: 2, damageValue: "D3", devastatingWounds: true)
+
+    def "A live session should match the stateless calculation"() {
+        given:
+        live.open("s1", {})
+
+        when: "Units are streamed in one by one"
+        live.apply("s1", new LiveDeltaDTO(ADD, "a", infantry))
+        def update = live.apply("s1", new LiveDeltaDTO(ADD, "b", tank))
+        def reference = calculator.calculateArmyHits([infantry, tank])
+
+        then: "Every section agrees with a full recalculation"
+        update.revision == 2
+        update.unitCount == 2
+        Math.abs(update.hits.average - reference.avgValue) < 1e-9
+        Math.abs(update.wounds.average - reference.woundAvgValue) < 1e-9
+        Math.abs(update.damage.average - reference.damageAvgValue) < 1e-9
+        (0..<12).every { Math.abs(update.toughnessScaling[it].average - reference.toughnessScaling[it].average) < 1e-9 }
+        (0..<6).every { Math.abs(update.saveScaling[it].average - reference.saveScaling[it].average) < 1e-9 }
+    }
+
+    def "Only sections affected by a delta should be pushed"() {
+        given:
+        live.open("s1", {})
+        live.apply("s1", new LiveDeltaDTO(ADD, "a", infantry))
+        live.apply("s1", new LiveDeltaDTO(ADD, "b", tank))
+
+        when: "The damage of the second unit changes"
+        def heavier = new CalculationRequestDTO(numberOfModels: 1, attacksPerModel: "D6", bsValue: 3, strength: 9, ap: 2, damageValue: "D6", devastatingWounds: true)
+        def update = live.apply("s1", new LiveDeltaDTO(UPDATE, "b", heavier))
+
+        then: "Only the save sweep is recomputed"
+        update.hits == null
+        update.wounds == null
+        update.damage == null
+        update.toughnessScaling == null
+        update.saveScaling != null
+
+        when: "The first unit is removed"
+        update = live.apply("s1", new LiveDeltaDTO(REMOVE, "a", null))
+
+        then:
+        update.unitCount == 1
+        Math.abs(update.hits.average - calculator.calculateArmyHits([heavier]).avgValue) < 1e-9
+    }
+
+    def "Malformed deltas and unknown sessions should be rejected"() {
+        given:
+        live.open("s1", {})
+
+        when:
+        live.apply("s1", new LiveDeltaDTO(REMOVE, "missing", null))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        when:
+        live.apply("other", new LiveDeltaDTO(ADD, "a", infantry))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "Idle sessions should be evicted and the session cap enforced"() {
+        given:
+        int evictions = 0
+        live.open("s1", { evictions++ })
+        live.open("s2", { evictions++ })
+
+        expect: "The cap of two sessions is reached"
+        !live.open("s3", {})
+
+        when: "The sweep runs after the idle timeout"
+        int evicted = live.evictIdleSessions(System.nanoTime() + 5_000_000_000L)
+
+        then:
+        evicted == 2
+        evictions == 2
+        live.sessionCount == 0
+    }
+
+    def "Concurrent handshakes should never open more sessions than the cap"() {
+        given:
+        def capped = new LiveSessionService(calculator, 1000, 5)
+        def start = new CountDownLatch(1)
+        def pool = Executors.newFixedThreadPool(8)
+
+        when: "Fifty sessions try to open at once"
+        def opened = (1..50).collect { id -> pool.submit({ start.await(); capped.open("s$id", {}) } as Callable<Boolean>) }
+        start.countDown()
+        def accepted = (1..50).findAll { opened[it - 1].get() }
+        pool.shutdown()
+
+        then:
+        accepted.size() == 5
+        capped.sessionCount == 5
+
+        when: "A session closes"
+        capped.close("s${accepted[0]}")
+
+        then: "Its slot can be taken again"
+        capped.open("late", {})
+        !capped.open("later", {})
+    }
+}
@@ -0,0 +1,58 @@
+package com.warhammer.util
+
+import spock.lang.Specification
+
+class ConvolutionSegmentTreeSpec extends Specification {
+
+    private static final double TOLERANCE = 1e-12
+
+    def "The root should equal the convolution of every added source"() {
+        given:
+        def tree = new ConvolutionSegmentTree()
+        def sources = (1..9).collect { i -> [1 - i / 10.0, i / 10.0] as double[] }
+
+        when: "More sources are added than the initial capacity"
+        sources.each { tree.add(it) }
+
+        then:
+        matches(tree.root(), ProbabilityMath.convolveAll(sources))
+    }
+
+    def "Updating and removing a source should only change its contribution"() {
+        given:
+        def tree = new ConvolutionSegmentTree()
+        def a = [0.5, 0.5] as double[]
+        def b = [0.2, 0.8] as double[]
+        def c = [0.1, 0.3, 0.6] as double[]
+        int slotA = tree.add(a)
+        int slotB = tree.add(b)
+
+        when: "The second source is replaced"
+        boolean changed = tree.set(slotB, c)
+
+        then:
+        changed
+        matches(tree.root(), ProbabilityMath.convolve(a, c))
+
+        when: "The first source is removed and its slot reused"
+        tree.remove(slotA)
+        int reused = tree.add(b)
+
+        then:
+        reused == slotA
+        matches(tree.root(), ProbabilityMath.convolve(b, c))
+    }
+
+    def "Setting an identical distribution should report no change"() {
+        given:
+        def tree = new ConvolutionSegmentTree()
+        int slot = tree.add([0.5, 0.5] as double[])
+
+        expect:
+        !tree.set(slot, [0.5, 0.5] as double[])
+    }
+
+    private static boolean matches(double[] actual, double[] expected) {
+        actual.length == expected.length && (0..<expected.length).every { Math.abs(actual[it] - expected[it]) < TOLERANCE }
+    }
+}
@@ -0,0 +1,75 @@
+package com.warhammer.util
+
+import spock.lang.Specification
+
+class DistributionSpec extends Specification {
+
+    private static final double TOLERANCE = 1e-12
+
+    def "Wrapping a dense array should trim zero tails and keep outcomes in place"() {
+        when:
+        def dist = Distribution.of([0.0, 0.0, 0.25, 0.5, 0.25, 0.0] as double[])
+
+        then:
+        dist.min() == 2
+        dist.max() == 4
+        dist.width() == 3
+        dist.get(3) == 0.5
+        dist.get(7) == 0.0
+        dist.toArray() == [0.0, 0.0, 0.25, 0.5, 0.25] as double[]
+        dist.prunedMass == 0.0
+    }
+
+    def "Tails below epsilon should be pruned and their mass tracked"() {
+        when: "Each tail holds 1e-9 of mass and the budget is 1e-6"
+        def dist = Distribution.of([1e-9, 0.5 - 1e-9, 0.5 - 1e-9, 1e-9] as double[], 1e-6)
+
+        then:
+        dist.min() == 1
+        dist.max() == 2
+        Math.abs(dist.prunedMass - 2e-9) < TOLERANCE
+    }
+
+    def "Moments, CDF and percentiles should match the dense definitions"() {
+        given: "A fair D6"
+        def dist = Distribution.of([0, 1/6, 1/6, 1/6, 1/6, 1/6, 1/6] as double[])
+
+        expect:
+        Math.abs(dist.mean() - 3.5) < TOLERANCE
+        Math.abs(dist.variance() - 35 / 12) < TOLERANCE
+        Math.abs(dist.cumulative(3) - 0.5) < TOLERANCE
+        dist.cumulative(0) == 0.0
+        dist.percentile(0.5) == 3
+        Math.abs(dist.probabilityAtLeast(3.5) - 0.5) < TOLERANCE
+    }
+
+    def "Convolving trimmed distributions should match the dense convolution"() {
+        given:
+        double[] a = [0, 0, 0.2, 0.8]
+        double[] b = [0, 0.5, 0, 0.5]
+
+        when:
+        def result = ProbabilityMath.convolve(Distribution.of(a), Distribution.of(b))
+        double[] dense = ProbabilityMath.convolve(a, b)
+
+        then:
+        result.min() == 3
+        (0..<dense.length).every { Math.abs(result.get(it) - dense[it]) < TOLERANCE }
+    }
+
+    def "Compounding a trimmed count should match the dense compound"() {
+        given: "Between 10 and 12 wounds, each dealing D3 damage"
+        double[] wounds = new double[13]
+        wounds[10] = 0.25; wounds[11] = 0.5; wounds[12] = 0.25
+        double[] d3 = [0, 1/3, 1/3, 1/3]
+
+        when:
+        def result = DamageProcessor.calculateDamageDistribution(Distribution.of(wounds), "D3")
+        double[] dense = ProbabilityMath.compound(wounds, d3)
+
+        then: "The result only stores the reachable damage range"
+        result.min() == 10
+        result.max() == 36
+        (0..<dense.length).every { Math.abs(result.get(it) - dense[it]) < TOLERANCE }
+    }
+}
@@ -0,0 +1,98 @@
+package com.warhammer.util
+
+import spock.lang.Specification
+
+class EdgeworthApproximationSpec extends Specification {
+
+    private static final double TOLERANCE = 1e-9
+
+    def "Cumulants of independent variables should add up to the cumulants of their sum"() {
+        given:
+        def a = Distribution.of([0.2, 0.5, 0.3] as double[])
+        def b = Distribution.of([0.0, 0.6, 0.0, 0.4] as double[])
+
+        when:
+        def summed = Cumulants.of(a).plus(Cumulants.of(b))
+        def exact = Cumulants.of(Distribution.of(ProbabilityMath.convolveDirect(a.toArray(), b.toArray())))
+
+        then:
+        Math.abs(summed.mean() - exact.mean()) < TOLERANCE
+        Math.abs(summed.variance() - exact.variance()) < TOLERANCE
+        Math.abs(summed.thirdCumulant() - exact.thirdCumulant()) < TOLERANCE
+        Math.abs(summed.fourthCumulant() - exact.fourthCumulant()) < TOLERANCE
+        summed.span() == 1
+
+        and: "Removing a summand gives back the other one"
+        Math.abs(summed.minus(Cumulants.of(b)).variance() - Cumulants.of(a).variance()) < TOLERANCE
+    }
+
+    def "A binomial sum should be approximated within the reported bound"() {
+        given: "400 fair coin flips, worked out exactly"
+        def coin = Distribution.of([0.5, 0.5] as double[])
+        double[] exact = [1.0] as double[]
+        400.times { exact = ProbabilityMath.convolveDirect(exact, coin.toArray()) }
+
+        when:
+        def approximation = EdgeworthApproximation.approximate(Cumulants.of(coin).times(400), Distribution.DEFAULT_EPSILON)
+        def dist = approximation.distribution()
+
+        then: "The mean and spread carry over"
+        Math.abs(dist.mean() - 200.0) < 1e-6
+        Math.abs(dist.variance() - 100.0) < 1e-2
+
+        and: "No cumulative probability is further off than the bound, which is small"
+        double worst = (0..400).collect { k ->
+            Math.abs(dist.cumulative(k) - (0..k).sum { exact[it] })
+        }.max()
+        worst <= approximation.errorBound()
+        approximation.errorBound() < 0.05
+    }
+
+    def "Probability should only be placed on the lattice of the sum"() {
+        given: "A variable that is always 0 or 2"
+        def evens = Cumulants.of(Distribution.of([0.5, 0.0, 0.5] as double[])).times(50)
+
+        when:
+        def dist = EdgeworthApproximation.approximate(evens, Distribution.DEFAULT_EPSILON).distribution()
+
+        then:
+        evens.span() == 2
+        (dist.min()..dist.max()).every { it % 2 == 0 || dist.get(it) == 0.0 }
+        Math.abs(dist.mean() - 50.0) < 1e-6
+    }
+
+    def "A constant should be returned exactly"() {
+        when:
+        def approximation = EdgeworthApproximation.approximate(
+                Cumulants.of(Distribution.of([0.0, 0.0, 1.0] as double[])).times(7), Distribution.DEFAULT_EPSILON)
+
+        then:
+        approximation.distribution().min() == 14
+        approximation.distribution().width() == 1
+        approximation.errorBound() == 0.0
+    }
+
+    def "Tail probabilities should agree with the approximated distribution"() {
+        given:
+        def cumulants = Cumulants.of(Distribution.of([0.1, 0.3, 0.4, 0.2] as double[])).times(200)
+        def dist = EdgeworthApproximation.approximate(cumulants, Distribution.DEFAULT_EPSILON).distribution()
+
+        expect:
+        [250.0, 340.0, 340.5, 380.0].every { target ->
+            Math.abs(EdgeworthApproximation.probabilityAtLeast(cumulants, target).value()
+                    - dist.probabilityAtLeast(target)) < 1e-6
+        }
+    }
+
+    def "The normal CDF should match known values"() {
+        expect:
+        Math.abs(EdgeworthApproximation.normalCdf(z) - expected) < 1e-12
+
+        where:
+        z    | expected
+        0.0  | 0.5
+        1.0  | 0.8413447460685429
+        -2.0 | 0.022750131948179195
+        -8.0 | 6.22096057427178e-16
+    }
+}
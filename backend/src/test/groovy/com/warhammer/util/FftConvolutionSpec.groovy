@@ -0,0 +1,77 @@
+package com.warhammer.util
+
+import spock.lang.Specification
+import spock.lang.Title
+import spock.lang.Unroll
+
+/**
+ * Validates that the FFT kernel reproduces the direct convolution within its documented tolerance.
+ */
+@Title("FFT Convolution Kernel Tests")
+class FftConvolutionSpec extends Specification {
+
+    private static double[] randomDistribution(Random random, int length) {
+        double[] dist = new double[length]
+        double total = 0
+        for (int i = 0; i < length; i++) {
+            dist[i] = random.nextDouble()
+            total += dist[i]
+        }
+        for (int i = 0; i < length; i++) dist[i] /= total
+        return dist
+    }
+
+    @Unroll
+    def "FFT convolution should match the direct path for #firstLength x #secondLength outcomes"() {
+        given: "Two random distributions"
+        def random = new Random(firstLength * 31 + secondLength)
+        double[] first = randomDistribution(random, firstLength)
+        double[] second = randomDistribution(random, secondLength)
+
+        when:
+        double[] direct = ProbabilityMath.convolveDirect(first, second)
+        double[] fft = FftConvolution.convolve(first, second)
+
+        then: "Every outcome agrees within the documented tolerance"
+        fft.length == direct.length
+        (0..<direct.length).every { Math.abs(fft[it] - direct[it]) <= FftConvolution.ABSOLUTE_TOLERANCE }
+
+        where:
+        firstLength | secondLength
+        1           | 1
+        2           | 7
+        100         | 37
+        256         | 256
+        1500        | 700
+    }
+
+    def "FFT convolution should clamp round-off below zero"() {
+        given: "Sparse distributions whose convolution has many exactly-zero outcomes"
+        double[] first = new double[300]
+        double[] second = new double[300]
+        first[0] = 0.5; first[299] = 0.5
+        second[0] = 0.25; second[299] = 0.75
+
+        when:
+        double[] result = FftConvolution.convolve(first, second)
+
+        then: "No outcome is negative and the mass is preserved"
+        result.every { it >= 0.0 }
+        Math.abs(result.sum() - 1.0) < 1e-9
+        Math.abs(result[598] - 0.375) < FftConvolution.ABSOLUTE_TOLERANCE
+    }
+
+    @Unroll
+    def "Kernel selection for #firstLength x #secondLength should pick the FFT path: #expected"() {
+        expect:
+        ProbabilityMath.shouldUseFft(firstLength, secondLength) == expected
+
+        where:
+        firstLength | secondLength || expected
+        7           | 7            || false
+        4096        | 7            || false
+        63          | 4096         || false
+        1024        | 1024         || true
+        256         | 256          || true
+    }
+}
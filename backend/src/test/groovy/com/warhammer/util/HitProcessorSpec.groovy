@@ -324,6 +324,51 @@ class HitProcessorSpec extends Specification {
         Math.abs(result.getTotalVisualHits().sum() - 1.0) < 0.000001
     }
 
+    def "Total hits should match the components for lethal #lethal and Sustained #sustainedValue"() {
+        given: "A unit whose hit pools all come from the same joint attack outcome"
+        def request = new CalculationRequestDTO(
+            numberOfModels: 3, attacksPerModel: "D3", bsValue: 4,
+            lethalHits: lethal, sustainedHits: true, sustainedValue: sustainedValue,
+            rerollType: "ONES"
+        )
+
+        when: "The distribution is calculated"
+        HitResult result = HitProcessor.calculateUnitDistribution(request)
+
+        double avgStd = 0; result.getStandardHits().eachWithIndex { v, i -> avgStd += i * v }
+        double avgLethal = 0; result.getLethalHits().eachWithIndex { v, i -> avgLethal += i * v }
+        double avgTotal = 0; result.getTotalVisualHits().eachWithIndex { v, i -> avgTotal += i * v }
+
+        then: "The sum of component averages must equal the total average"
+        Math.abs(avgTotal - (avgStd + avgLethal)) < 0.000001
+
+        and: "The total probability must still sum to 100%"
+        Math.abs(result.getTotalVisualHits().sum() - 1.0) < 0.000001
+
+        where: "Sustained 6 with Lethal Hits gives a critical hit 7 hits in total"
+        lethal | sustainedValue
+        true   | "D3"
+        true   | "6"
+        false  | "1"
+    }
+
+    def "Without Lethal Hits the total pool should be the standard pool itself"() {
+        given:
+        def plain = new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "D6", bsValue: 3, sustainedHits: true)
+        def lethal = new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "D6", bsValue: 3, lethalHits: true)
+
+        when:
+        HitResult plainResult = HitProcessor.calculateUnitDistribution(plain)
+        HitResult lethalResult = HitProcessor.calculateUnitDistribution(lethal)
+
+        then: "Every hit is a standard hit, so both pools are the same array"
+        plainResult.totalVisualHits.is(plainResult.standardHits)
+        plainResult.lethalHits == [1.0] as double[]
+
+        and: "Lethal hits get a total pool of their own"
+        !lethalResult.totalVisualHits.is(lethalResult.standardHits)
+    }
+
     def "BS 6+ with penalties should still hit on natural 6s"() {
         given: "BS 6+, but no modifiers are sent (effectively testing the base failure)"
         def request = new CalculationRequestDTO(
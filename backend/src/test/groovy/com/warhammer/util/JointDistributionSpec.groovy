@@ -0,0 +1,60 @@
+package com.warhammer.util
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class JointDistributionSpec extends Specification {
+
+    private static final double TOLERANCE = 0.000001
+
+    def "fromDense should store only the reachable combinations"() {
+        given: "A die that lands in the first pool, the second pool, or neither"
+        double[][] grid = [[0.5, 0.2], [0.3, 0.0]]
+
+        when:
+        def joint = JointDistribution.fromDense(grid)
+
+        then: "The impossible (1, 1) cell is not stored"
+        joint.size() == 3
+        joint.marginalFirst() == [0.7, 0.3] as double[]
+        joint.marginalSecond() == [0.8, 0.2] as double[]
+    }
+
+    @Unroll
+    def "multinomial of #trials dice should conserve probability and keep the pools exclusive"() {
+        when:
+        def joint = JointDistribution.multinomial(trials, 0.5, 1/6.0)
+
+        then: "The combined pool never exceeds the number of dice"
+        double[] sum = joint.sumDistribution()
+        sum.length == trials + 1
+        Math.abs(sum.sum() - 1.0) < TOLERANCE
+
+        and: "Each marginal is the matching binomial"
+        double[] first = joint.marginalFirst()
+        (0..trials).every { Math.abs(first[it] - ProbabilityMath.calculateBinomialProbability(trials, it, 0.5)) < TOLERANCE }
+
+        where:
+        trials << [0, 1, 3, 6]
+    }
+
+    def "thinFirstThenSum should only save the first pool"() {
+        given: "One die that is either a standard (2/3) or a devastating (1/3) wound"
+        def joint = JointDistribution.fromDense([[0.0, 1/3.0], [2/3.0, 0.0]] as double[][])
+
+        when: "Standard wounds fail their save half the time"
+        double[] unsaved = joint.thinFirstThenSum(0.5)
+
+        then: "Only the standard wound can be saved"
+        Math.abs(unsaved[0] - 1/3.0) < TOLERANCE
+        Math.abs(unsaved[1] - 2/3.0) < TOLERANCE
+    }
+
+    def "multinomial should reject negative trials"() {
+        when:
+        JointDistribution.multinomial(-1, 0.5, 0.5)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,105 @@
+package com.warhammer.util
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ModelsSlainProcessorSpec extends Specification {
+
+    private static final double EPSILON = 1e-12
+
+    private static double[] slain(List<ModelsSlainProcessor.Volley> volleys, int models, int woundsPerModel) {
+        return ModelsSlainProcessor.calculateModelsSlain(volleys, models, woundsPerModel, EPSILON)
+    }
+
+    def "One damage against one-wound models should slay one model per wound, up to the unit size"() {
+        given: "0 to 3 wounds against 2 models"
+        def volley = new ModelsSlainProcessor.Volley([0.1, 0.2, 0.3, 0.4] as double[], [0, 1] as double[])
+
+        when:
+        double[] result = slain([volley], 2, 1)
+
+        then: "2 or 3 wounds both slay the whole unit"
+        result.length == 3
+        Math.abs(result[0] - 0.1) < 1e-12
+        Math.abs(result[1] - 0.2) < 1e-12
+        Math.abs(result[2] - 0.7) < 1e-12
+    }
+
+    def "Damage beyond the wounds a model has left should be wasted"() {
+        given: "Exactly 3 wounds of 3 damage against 2-wound models"
+        def volley = new ModelsSlainProcessor.Volley([0, 0, 0, 1] as double[], [0, 0, 0, 1] as double[])
+
+        when:
+        double[] result = slain([volley], 5, 2)
+
+        then: "Each wound slays one model, although 9 damage would cover 4 models"
+        Math.abs(result[3] - 1.0) < 1e-12
+    }
+
+    def "Damage left on a model should carry over to the next wound and the next volley"() {
+        given: "Two volleys of one 1-damage wound against a single 2-wound model"
+        def volley = new ModelsSlainProcessor.Volley([0, 1] as double[], [0, 1] as double[])
+
+        expect:
+        Math.abs(slain([volley], 1, 2)[0] - 1.0) < 1e-12
+        Math.abs(slain([volley, volley], 1, 2)[1] - 1.0) < 1e-12
+        Math.abs(slain([new ModelsSlainProcessor.Volley([0, 1] as double[], [0, 1] as double[], 2)], 1, 2)[1] - 1.0) < 1e-12
+    }
+
+    @Unroll
+    def "Models slain should match a brute-force allocation for #models models of #woundsPerModel wounds"() {
+        given: "Up to 3 wounds of D3 damage, then up to 2 wounds of 2 damage"
+        double[] first = [0.1, 0.3, 0.4, 0.2]
+        double[] second = [0.5, 0.25, 0.25]
+        double[] d3 = [0, 1 / 3.0d, 1 / 3.0d, 1 / 3.0d]
+        double[] two = [0, 0, 1]
+        double[] expected = new double[models + 1]
+        (0..3).each { n ->
+            (0..2).each { m ->
+                allocate([d3] * n + [two] * m, first[n] * second[m], models, woundsPerModel, expected)
+            }
+        }
+
+        when:
+        double[] result = slain([new ModelsSlainProcessor.Volley(first, d3), new ModelsSlainProcessor.Volley(second, two)],
+                models, woundsPerModel)
+
+        then:
+        (0..models).every { Math.abs(result[it] - expected[it]) < 1e-12 }
+        Math.abs(result.sum() - 1.0) < 1e-12
+
+        where:
+        models | woundsPerModel
+        1      | 1
+        3      | 2
+        2      | 3
+        4      | 5
+    }
+
+    def "A target without models should be rejected"() {
+        when:
+        slain([], 0, 2)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    /**
+     * Enumerates every damage roll of a sequence of wounds and adds the models each outcome slays.
+     */
+    private static void allocate(List<double[]> wounds, double probability, int models, int woundsPerModel,
+                                 double[] slain, int index = 0, int dead = 0, int damage = 0) {
+        if (index == wounds.size() || dead == models) {
+            slain[dead] += probability
+            return
+        }
+        double[] roll = wounds[index]
+        (0..<roll.length).each { d ->
+            if (roll[d] > 0) {
+                int total = damage + d
+                allocate(wounds, probability * roll[d], models, woundsPerModel, slain, index + 1,
+                        total >= woundsPerModel ? dead + 1 : dead, total >= woundsPerModel ? 0 : total)
+            }
+        }
+    }
+}
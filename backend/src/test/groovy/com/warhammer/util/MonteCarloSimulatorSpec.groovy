@@ -0,0 +1,91 @@
+package com.warhammer.util
+
+import com.warhammer.dto.CalculationRequestDTO
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class MonteCarloSimulatorSpec extends Specification {
+
+    private static Distribution analyticDamage(CalculationRequestDTO unit, int woundRoll, double failProbability) {
+        HitResult hits = HitProcessor.calculateUnitDistribution(unit)
+        WoundResult wounds = WoundProcessor.calculateUnitWounds(hits, woundRoll, unit)
+        return Distribution.of(DamageProcessor.calculateDamageDistribution(wounds.unsavedWounds(failProbability), unit.damageValue))
+    }
+
+    @Unroll
+    def "Simulated means should match the analytic pipeline for #description"() {
+        given:
+        def hits = HitProcessor.calculateUnitDistribution(unit)
+        def wounds = WoundProcessor.calculateUnitWounds(hits, woundRoll, unit)
+        def damage = analyticDamage(unit, woundRoll, failProbability)
+
+        when:
+        def result = MonteCarloSimulator.simulate([unit], [woundRoll] as int[], save, MonteCarloSimulator.Options.defaults(1234L))
+
+        then: "Every mean lies within a few standard errors of the exact value"
+        result.converged()
+        Math.abs(result.hits().mean() - Distribution.of(hits.totalVisualHits).mean()) < 0.02 * Distribution.of(hits.totalVisualHits).mean()
+        Math.abs(result.wounds().mean() - Distribution.of(wounds.totalWounds()).mean()) < 0.02 * Distribution.of(wounds.totalWounds()).mean()
+        Math.abs(result.damage().mean() - damage.mean()) < 2 * result.damageMeanHalfWidth()
+
+        where:
+        description                    | unit                                                                                                                                                    | woundRoll | save | failProbability
+        "plain bolters"                | new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "2", bsValue: 3, ap: 1, damageValue: "1")                                               | 4         | 3    | 3 / 6d
+        "sustained D3 with lethals"    | new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "D6", bsValue: 3, ap: 2, damageValue: "D3+1", sustainedHits: true, sustainedValue: "D3", lethalHits: true, rerollType: "ALL") | 3 | 4 | 5 / 6d
+        "anti-4+ devastating wounds"   | new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "3", bsValue: 4, ap: 1, damageValue: "2", devastatingWounds: true, woundRerollType: "FAIL", plusOneToHit: true, critWoundValue: 4) | 5 | 2 | 2 / 6d
+        "torrent with no save"         | new CalculationRequestDTO(numberOfModels: 3, attacksPerModel: "D3", torrent: true, damageValue: "D6", plusOneToWound: true)                              | 2         | 7    | 1d
+    }
+
+    def "The same seed should reproduce the same result"() {
+        given:
+        def unit = new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "D6", bsValue: 4, damageValue: "D3")
+        def options = MonteCarloSimulator.Options.defaults(99L)
+
+        when:
+        def first = MonteCarloSimulator.simulate([unit], [4] as int[], 7, options)
+        def second = MonteCarloSimulator.simulate([unit], [4] as int[], 7, options)
+
+        then:
+        first.trials() == second.trials()
+        first.damage().body() == second.damage().body()
+    }
+
+    def "An army whose damage never varies should stop after the minimum number of trials"() {
+        given: "Flat torrent attacks always score the same number of hits, and no wound deals damage"
+        def unit = new CalculationRequestDTO(numberOfModels: 2, attacksPerModel: "3", torrent: true, damageValue: "0")
+        def options = new MonteCarloSimulator.Options(5L, 100, 4, 400, 100_000, 1.96, 0.005, 0.01)
+
+        when:
+        def result = MonteCarloSimulator.simulate([unit], [4] as int[], 7, options)
+
+        then:
+        result.hits().min() == 6 && result.hits().max() == 6
+        result.damage().min() == 0 && result.damage().max() == 0
+
+        and: "The first round reaches the minimum and already meets the tolerance"
+        result.converged()
+        result.trials() == 400
+    }
+
+    def "The trial limit should stop a simulation that has not converged"() {
+        given:
+        def unit = new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "D6", bsValue: 4, damageValue: "D6")
+        def options = new MonteCarloSimulator.Options(5L, 100, 4, 100, 1_000, 1.96, 0.0001, 0.0)
+
+        when:
+        def result = MonteCarloSimulator.simulate([unit], [4] as int[], 7, options)
+
+        then:
+        result.trials() == 1_000
+        !result.converged()
+    }
+
+    def "An army needs one wound roll per unit"() {
+        when:
+        MonteCarloSimulator.simulate([new CalculationRequestDTO(numberOfModels: 1)], [4, 4] as int[], 7,
+                MonteCarloSimulator.Options.defaults(1L))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,52 @@
+package com.warhammer.util
+
+import spock.lang.Requires
+import spock.lang.Specification
+
+class MultiplyAddKernelSpec extends Specification {
+
+    def "The scalar kernel should add a scaled slice onto the target"() {
+        given:
+        def source = [9.0, 1.0, 2.0, 3.0] as double[]
+        def target = [1.0, 1.0, 1.0, 1.0, 1.0] as double[]
+
+        when: "Three source values starting at index 1 are scaled by 0.5 and added at index 2"
+        MultiplyAddKernel.scalar().multiplyAdd(0.5, source, 1, target, 2, 3)
+
+        then:
+        target == [1.0, 1.0, 1.5, 2.0, 2.5] as double[]
+    }
+
+    @Requires({ MultiplyAddKernel.vector().isPresent() })
+    def "The vector kernel should match the scalar kernel bit for bit"() {
+        given:
+        def random = new Random(13)
+        def vector = MultiplyAddKernel.vector().get()
+
+        expect: "Every length, including the ragged tails, gives identical bits"
+        (0..70).every { int length ->
+            def source = (0..<(length + 3)).collect { random.nextDouble() } as double[]
+            def scalarTarget = (0..<(length + 5)).collect { random.nextDouble() } as double[]
+            def vectorTarget = scalarTarget.clone()
+            double scale = random.nextDouble()
+
+            MultiplyAddKernel.scalar().multiplyAdd(scale, source, 3, scalarTarget, 2, length)
+            vector.multiplyAdd(scale, source, 3, vectorTarget, 2, length)
+            Arrays.equals(scalarTarget, vectorTarget)
+        }
+    }
+
+    def "The direct convolution should give the same bits on every available kernel"() {
+        given:
+        def random = new Random(7)
+        def existing = (0..<300).collect { random.nextDouble() / 150 } as double[]
+        def source = (0..<37).collect { random.nextDouble() / 18 } as double[]
+        def kernels = [MultiplyAddKernel.scalar()] + MultiplyAddKernel.vector().map { [it] }.orElse([])
+
+        when:
+        def results = kernels.collect { ProbabilityMath.convolveDirect(existing, source, it) }
+
+        then:
+        results.every { Arrays.equals(it, ProbabilityMath.convolveDirect(existing, source)) }
+    }
+}
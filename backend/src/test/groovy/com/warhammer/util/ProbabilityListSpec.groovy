@@ -0,0 +1,25 @@
+package com.warhammer.util
+
+import spock.lang.Specification
+
+class ProbabilityListSpec extends Specification {
+
+    def "A probability list should read like a dense rounded list from outcome 0"() {
+        given: "A distribution over outcomes 2 to 4"
+        def list = ProbabilityList.of(Distribution.of([0.0, 0.0, 0.123456, 0.5, 0.376544] as double[]))
+
+        expect:
+        list == [0.0, 0.0, 0.1235, 0.5, 0.3765]
+        list.size() == 5
+        list.offset() == 2
+        list.body() == [0.123456, 0.5, 0.376544] as double[]
+    }
+
+    def "Reading past the last outcome should fail like any list"() {
+        when:
+        ProbabilityList.of(Distribution.neutral()).get(1)
+
+        then:
+        thrown(IndexOutOfBoundsException)
+    }
+}
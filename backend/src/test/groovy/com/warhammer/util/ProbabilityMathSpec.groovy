@@ -154,4 +154,226 @@ class ProbabilityMathSpec extends Specification {
         then: "The result remains identical, confirming zero-weight outcomes were ignored"
         result == [0.5, 0.0, 0.5] as double[]
     }
-}
\ No newline at end of file
+
+    // --- Convolution Power Logic ---
+
+    @Unroll
+    def "power: should match #times repeated convolutions of a D6+1 model"() {
+        given: "A single model with D6+1 attacks"
+        double[] model = [0, 0, 1/6, 1/6, 1/6, 1/6, 1/6, 1/6]
+        double[] iterative = [1.0]
+        times.times { iterative = ProbabilityMath.convolveDirect(iterative, model) }
+
+        when: "Combining the models by repeated squaring"
+        double[] unit = ProbabilityMath.power(model, times)
+
+        then: "The unit distribution is identical to the model-by-model fold"
+        unit.length == iterative.length
+        (0..<unit.length).every { Math.abs(unit[it] - iterative[it]) < TOLERANCE }
+        Math.abs(unit.sum() - 1.0) < TOLERANCE
+
+        where:
+        times << [1, 2, 5, 16, 30]
+    }
+
+    def "power: zero sources should produce the neutral distribution"() {
+        expect:
+        ProbabilityMath.power([0.5, 0.5] as double[], 0) == [1.0] as double[]
+        ProbabilityMath.power(null, 3) == [1.0] as double[]
+    }
+
+    def "power: should not alias the input for a single source"() {
+        given:
+        double[] model = [0.25, 0.75]
+
+        when:
+        double[] unit = ProbabilityMath.power(model, 1)
+        unit[0] = 1.0
+
+        then:
+        model[0] == 0.25
+    }
+
+    def "power: should throw exception for negative counts"() {
+        when:
+        ProbabilityMath.power([1.0] as double[], -1)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    // --- Compound (Random Sum) Logic ---
+
+    /**
+     * Reference random sum: weight every n-fold convolution of the outcome by P(N = n).
+     */
+    private static double[] naiveCompound(double[] countDist, double[] outcome) {
+        int maxCount = countDist.length - 1
+        double[] total = new double[maxCount * (outcome.length - 1) + 1]
+        double[] current = [1.0]
+        for (int n = 0; n <= maxCount; n++) {
+            for (int i = 0; i < current.length; i++) total[i] += current[i] * countDist[n]
+            if (n < maxCount) current = ProbabilityMath.convolveDirect(current, outcome)
+        }
+        return total
+    }
+
+    @Unroll
+    def "compound: should match the step-by-step random sum for #desc"() {
+        given: "A unit with 0 to 40 dice, weighted towards 24"
+        double[] countDist = new double[41]
+        (0..40).each { countDist[it] = Math.exp(-Math.pow((it - 24) / 3.0, 2)) }
+        double mass = countDist.sum()
+        (0..40).each { countDist[it] /= mass }
+
+        when:
+        double[] expected = naiveCompound(countDist, outcome as double[])
+        double[] actual = ProbabilityMath.compound(countDist, outcome as double[])
+
+        then: "The Horner evaluation reproduces every outcome"
+        actual.length == expected.length
+        (0..<actual.length).every { Math.abs(actual[it] - expected[it]) < TOLERANCE }
+
+        where:
+        outcome                          | desc
+        [0.5, 0.5]                       | "a Bernoulli die"
+        [1/6, 3/6, 1/6, 1/6]             | "a Sustained Hits style die"
+        [0, 0, 1/3, 1/3, 1/3]            | "D3+1 damage"
+        [1.0]                            | "an always-zero die"
+    }
+
+    def "compound: should return the neutral distribution for invalid inputs"() {
+        expect:
+        ProbabilityMath.compound(null, [0.5, 0.5] as double[]) == [1.0] as double[]
+        ProbabilityMath.compound([1.0] as double[], [] as double[]) == [1.0] as double[]
+    }
+
+    def "thin: should produce the closed form binomial for a guaranteed dice count"() {
+        given: "Exactly 6 wounds facing a 50% save"
+        double[] woundDist = [0, 0, 0, 0, 0, 0, 1.0]
+
+        when:
+        double[] unsaved = ProbabilityMath.thin(woundDist, 0.5)
+
+        then: "The result is Binomial(6, 0.5)"
+        (0..6).every { Math.abs(unsaved[it] - ProbabilityMath.calculateBinomialProbability(6, it, 0.5)) < TOLERANCE }
+    }
+
+    def "thin: should remain accurate for thousands of dice"() {
+        given: "Exactly 3000 wounds with a 1/3 chance to fail each save"
+        double[] woundDist = new double[3001]
+        woundDist[3000] = 1.0
+
+        when:
+        double[] unsaved = ProbabilityMath.thin(woundDist, 1/3.0)
+        double mean = (0..3000).sum { it * unsaved[it] }
+
+        then: "Probability is conserved and the mean is n·p"
+        Math.abs(unsaved.sum() - 1.0) < 1e-9
+        Math.abs(mean - 1000.0) < 1e-6
+    }
+
+    @Unroll
+    def "thin: should handle certain outcomes: p=#probability"() {
+        expect:
+        ProbabilityMath.thin([0.25, 0.25, 0.5] as double[], probability) == expected as double[]
+
+        where:
+        probability || expected
+        0.0         || [1.0, 0.0, 0.0]
+        1.0         || [0.25, 0.25, 0.5]
+    }
+
+    @Unroll
+    def "convolveAll: should match the left-to-right fold for #count sources (parallel: #parallel)"() {
+        given: "Sources of mixed widths, some wide enough to take the FFT path"
+        def sources = (1..count).collect { i ->
+            double[] dist = new double[1 + (i * 37) % 200]
+            dist.length.times { dist[it] = 1.0 / dist.length }
+            dist
+        }
+
+        when:
+        double[] tree = ProbabilityMath.convolveAll(sources, parallel)
+        double[] fold = sources.inject([1.0] as double[]) { acc, next -> ProbabilityMath.convolveDirect(acc, next) }
+
+        then:
+        tree.length == fold.length
+        (0..<fold.length).every { Math.abs(tree[it] - fold[it]) < 1e-9 }
+
+        where:
+        count | parallel
+        1     | false
+        2     | false
+        7     | false
+        24    | false
+        24    | true
+    }
+
+    def "convolveAll: should return the neutral distribution for no sources"() {
+        expect:
+        ProbabilityMath.convolveAll([]) == [1.0] as double[]
+        ProbabilityMath.convolveAll(null) == [1.0] as double[]
+    }
+
+    def "leaveOneOut: should match merging every other source from scratch"() {
+        given:
+        def sources = [[0.5, 0.5], [0.2, 0.3, 0.5], [0.9, 0.1], [0.25, 0.25, 0.25, 0.25]].collect { it as double[] }
+
+        when:
+        double[][] without = ProbabilityMath.leaveOneOut(sources)
+
+        then:
+        without.length == sources.size()
+        (0..<sources.size()).every { i ->
+            double[] expected = ProbabilityMath.convolveAll(sources.withIndex().findAll { it[1] != i }.collect { it[0] })
+            expected.length == without[i].length && (0..<expected.length).every { Math.abs(without[i][it] - expected[it]) < TOLERANCE }
+        }
+    }
+
+    def "leaveOneOut: should leave the neutral distribution for a single source"() {
+        expect:
+        ProbabilityMath.leaveOneOut([[0.5, 0.5] as double[]])[0] == [1.0] as double[]
+        ProbabilityMath.leaveOneOut([]).length == 0
+    }
+
+    def "convolveInto: should write the convolution into a larger caller buffer: #existingLength x #sourceLength"() {
+        given:
+        def random = new Random(existingLength)
+        def existing = (0..<existingLength).collect { random.nextDouble() / existingLength } as double[]
+        def source = (0..<sourceLength).collect { random.nextDouble() / sourceLength } as double[]
+        double[] target = new double[existingLength + sourceLength + 10]
+        Arrays.fill(target, 7.0)
+
+        when:
+        int length = ProbabilityMath.convolveInto(existing, existingLength, source, sourceLength, target, new ScratchArena())
+
+        then: "The result matches the allocating variant and entries past it are untouched"
+        double[] expected = ProbabilityMath.convolve(existing, source)
+        length == expected.length
+        (0..<length).every { Math.abs(target[it] - expected[it]) < TOLERANCE }
+        (length..<target.length).every { target[it] == 7.0 }
+
+        where:
+        existingLength | sourceLength
+        20             | 7
+        300            | 200
+    }
+
+    def "Arena variants should match the allocating variants and leave their inputs untouched"() {
+        given:
+        def arena = new ScratchArena()
+        double[] counts = ProbabilityMath.power([0.0, 1 / 6, 1 / 6, 1 / 6, 1 / 6, 1 / 6, 1 / 6] as double[], 10)
+        double[] countsBefore = counts.clone()
+        double[] die = [0.0, 1 / 3, 1 / 3, 1 / 3] as double[]
+
+        expect: "Results are bit-identical, whether or not the arena already holds released buffers"
+        (1..2).every {
+            Arrays.equals(ProbabilityMath.compound(counts, die, arena), ProbabilityMath.compound(counts, die)) &&
+                Arrays.equals(ProbabilityMath.thin(counts, 0.4, arena), ProbabilityMath.thin(counts, 0.4)) &&
+                Arrays.equals(ProbabilityMath.power(die, 9, arena), ProbabilityMath.power(die, 9))
+        }
+        Arrays.equals(counts, countsBefore)
+        arena.getReuses() > 0
+    }
+}
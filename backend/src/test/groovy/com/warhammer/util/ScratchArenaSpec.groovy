@@ -0,0 +1,63 @@
+package com.warhammer.util
+
+import spock.lang.Specification
+
+class ScratchArenaSpec extends Specification {
+
+    def "Acquired buffers should be zeroed up to the requested length"() {
+        given:
+        def arena = new ScratchArena()
+        double[] first = arena.acquire(20)
+        Arrays.fill(first, 3.0)
+        arena.release(first)
+
+        when:
+        double[] second = arena.acquire(18)
+
+        then: "The released buffer is handed out again, cleared over the requested range"
+        second.is(first)
+        second.length >= 18
+        (0..<18).every { second[it] == 0.0 }
+        arena.allocations == 1
+        arena.reuses == 1
+    }
+
+    def "Buffers should be pooled by power-of-two capacity"() {
+        given:
+        def arena = new ScratchArena()
+
+        expect:
+        arena.acquire(length).length == capacity
+
+        where:
+        length | capacity
+        0      | 16
+        16     | 16
+        17     | 32
+        1000   | 1024
+    }
+
+    def "Releasing a buffer that did not come from an arena should be rejected"() {
+        when:
+        new ScratchArena().release(new double[7])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "The unpooled arena should allocate every buffer at its length and keep nothing"() {
+        given:
+        double[] first = ScratchArena.UNPOOLED.acquire(20)
+        ScratchArena.UNPOOLED.release(first)
+        ScratchArena.UNPOOLED.release(new double[7])
+
+        when:
+        double[] second = ScratchArena.UNPOOLED.acquire(20)
+
+        then: "Released buffers are dropped, whatever their length"
+        first.length == 20
+        !second.is(first)
+        ScratchArena.UNPOOLED.allocations == 0
+        ScratchArena.UNPOOLED.reuses == 0
+    }
+}
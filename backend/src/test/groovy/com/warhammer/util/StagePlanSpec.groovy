@@ -0,0 +1,93 @@
+package com.warhammer.util
+
+import com.warhammer.dto.CalculationRequestDTO
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class StagePlanSpec extends Specification {
+
+    def "Armour and invulnerable saves should fuse into the better save"() {
+        when: "A 3+ armour save at AP-2 (5+) against a 4+ invulnerable save"
+        def plan = StagePlan.of([new Stage.Hit(), new Stage.Wound(4), new Stage.ArmourSave(3, -2),
+                                 new Stage.InvulnerableSave(4), new Stage.Damage("2")])
+
+        then: "Only the invulnerable save is rolled"
+        plan.saveFailProbability() == 3 / 6.0d
+        plan.feelNoPainFailProbability() == 1.0d
+        plan.damageExpression() == "2"
+    }
+
+    def "Feel No Pain may come on either side of the damage stage"() {
+        expect:
+        StagePlan.of([new Stage.Hit(), new Stage.Wound(4), new Stage.FeelNoPain(5), new Stage.Damage("1")]) ==
+                StagePlan.of([new Stage.Hit(), new Stage.Wound(4), new Stage.Damage("1"), new Stage.FeelNoPain(5)])
+    }
+
+    @Unroll
+    def "Folding Feel No Pain into each wound should match thinning the unit's damage for #damage damage"() {
+        given:
+        def request = new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: "D6", bsValue: 3, ap: -1,
+                damageValue: damage, devastatingWounds: true)
+        def arena = new ScratchArena()
+
+        when: "Feel No Pain is planned, or applied afterwards to the whole damage distribution"
+        double[] fused = StagePlan.of(request, 3, 4, 7, 5).execute(request, arena)
+        double[] thinned = ProbabilityMath.thin(StagePlan.of(request, 3, 4, 7, 7).execute(request, arena), 4 / 6.0d)
+
+        then:
+        (0..<Math.max(fused.length, thinned.length)).every {
+            Math.abs((it < fused.length ? fused[it] : 0.0d) - (it < thinned.length ? thinned[it] : 0.0d)) < 1e-12
+        }
+
+        where:
+        damage << ["1", "2", "D3", "D6+1"]
+    }
+
+    def "With one damage per wound a save and Feel No Pain should act as one thinning with the product chance"() {
+        given:
+        def request = new CalculationRequestDTO(numberOfModels: 3, attacksPerModel: "4", bsValue: 3, damageValue: "1")
+        def arena = new ScratchArena()
+        def wounds = WoundProcessor.calculateUnitWounds(HitProcessor.calculateUnitDistribution(request), 4, request)
+
+        when:
+        double[] planned = StagePlan.of(request, 4, 3, 7, 4).execute(request, arena)
+        double[] single = wounds.unsavedWounds((2 / 6.0d) * (3 / 6.0d))
+
+        then:
+        (0..<single.length).every { Math.abs(planned[it] - single[it]) < 1e-12 }
+    }
+
+    def "The damage stage should only keep the significant outcomes of the unit's damage"() {
+        given:
+        def request = new CalculationRequestDTO(numberOfModels: 10, attacksPerModel: "D6", bsValue: 3, damageValue: "D6+1")
+        def plan = StagePlan.of(request, 4, 4, 7, 7)
+        def arena = new ScratchArena()
+        def wounds = WoundProcessor.calculateUnitWounds(HitProcessor.calculateUnitDistribution(request), 4, request)
+
+        when:
+        Distribution trimmed = plan.damage(wounds, Distribution.DEFAULT_EPSILON, arena)
+        double[] full = plan.execute(request, arena)
+
+        then: "The stored window is far narrower than (max wounds)·(max damage)"
+        trimmed.width() < full.length / 2
+
+        and: "Every outcome it keeps matches the untrimmed damage"
+        (trimmed.min()..trimmed.max()).every { Math.abs(trimmed.get(it) - full[it]) < 1e-12 }
+    }
+
+    @Unroll
+    def "An invalid stage sequence should be rejected: #description"() {
+        when:
+        StagePlan.of(stages)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        description            | stages
+        "no hit stage"         | [new Stage.Wound(4), new Stage.Damage("1"), new Stage.FeelNoPain(5)]
+        "no damage stage"      | [new Stage.Hit(), new Stage.Wound(4), new Stage.ArmourSave(3, 0)]
+        "save after damage"    | [new Stage.Hit(), new Stage.Wound(4), new Stage.Damage("1"), new Stage.ArmourSave(3, 0)]
+        "second wound stage"   | [new Stage.Hit(), new Stage.Wound(4), new Stage.Wound(3), new Stage.Damage("1")]
+    }
+}
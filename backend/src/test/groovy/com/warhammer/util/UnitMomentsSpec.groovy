@@ -0,0 +1,58 @@
+package com.warhammer.util
+
+import com.warhammer.dto.CalculationRequestDTO
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class UnitMomentsSpec extends Specification {
+
+    private static boolean matches(Moments moments, double[] exact) {
+        Moments expected = Moments.of(exact)
+        return Math.abs(moments.mean() - expected.mean()) < 1e-9 &&
+                Math.abs(moments.variance() - expected.variance()) < 1e-9 * Math.max(1.0, expected.variance())
+    }
+
+    def "A random sum of a fixed count is a plain sum of copies"() {
+        given: "Exactly 10 draws of a D6"
+        Moments count = new Moments(10.0, 0.0)
+        Moments d6 = Moments.of([0, 1, 1, 1, 1, 1, 1].collect { it / 6.0 } as double[])
+
+        expect:
+        Moments.randomSum(count, d6) == d6.times(10)
+        Math.abs(d6.times(10).mean() - 35.0) < 1e-12
+        Math.abs(d6.times(10).variance() - 10 * 35.0 / 12.0) < 1e-9
+    }
+
+    @Unroll
+    def "Moments match the exact distributions for #attacks attacks, lethal #lethal, sustained #sustained, devastating #devastating"() {
+        given:
+        def request = new CalculationRequestDTO(numberOfModels: 5, attacksPerModel: attacks, bsValue: 3,
+                damageValue: damage, lethalHits: lethal, sustainedHits: sustained, sustainedValue: "D3",
+                devastatingWounds: devastating, rerollType: "ONES", woundRerollType: "NONE")
+        UnitMoments moments = UnitMoments.of(request)
+        HitResult hits = HitProcessor.calculateUnitDistribution(request)
+        WoundResult wounds = WoundProcessor.calculateUnitWounds(hits, woundRoll, request)
+
+        expect: "Hits, wounds and unsaved damage have the mean and variance of their distributions"
+        matches(moments.hits(), hits.getTotalVisualHits())
+        matches(moments.totalWounds(woundRoll), wounds.totalWounds())
+        matches(moments.damage(new StagePlan(woundRoll, 0.5, damage, 1.0)),
+                DamageProcessor.calculateDamageDistribution(wounds.unsavedWounds(0.5), damage))
+
+        where:
+        attacks | damage | lethal | sustained | devastating | woundRoll
+        "2"     | "1"    | false  | false     | false       | 4
+        "D6"    | "D3"   | true   | false     | true        | 3
+        "D3+1"  | "D6+1" | true   | true      | false       | 5
+        "4"     | "2"    | false  | true      | true        | 2
+    }
+
+    def "A unit without models has no hits, wounds or damage"() {
+        given:
+        UnitMoments moments = UnitMoments.of(new CalculationRequestDTO(numberOfModels: 0, attacksPerModel: "D6"))
+
+        expect:
+        moments.hits() == Moments.ZERO
+        moments.damage(new StagePlan(4, 1.0, "1", 1.0)) == Moments.ZERO
+    }
+}
@@ -330,4 +330,34 @@ class WoundProcessorSpec extends Specification {
         then: "Even though 1 + 1 = 2, the natural 1 must still fail"
         Math.abs(result.totalWounds()[1] - 5/6.0) < 0.001
     }
-}
\ No newline at end of file
+
+    def "calculateUnitWounds should keep standard and devastating wounds mutually exclusive per die"() {
+        given: "A single attack hitting on 2+ with Devastating Wounds"
+        def request = new CalculationRequestDTO(numberOfModels: 1, attacksPerModel: 1, bsValue: 2, devastatingWounds: true)
+        HitResult hits = HitProcessor.calculateUnitDistribution(request)
+
+        when: "Wounding on a 4+"
+        WoundResult result = WoundProcessor.calculateUnitWounds(hits, 4, request)
+
+        then: "One attack can never produce two wounds"
+        result.totalWounds().length == 2
+        Math.abs(result.totalWounds()[1] - (5/6.0) * 0.5) < 0.0001
+
+        and: "The pools still carry the right averages"
+        Math.abs(result.standardWounds()[1] - (5/6.0) * (2/6.0)) < 0.0001
+        Math.abs(result.devastatingWounds()[1] - (5/6.0) * (1/6.0)) < 0.0001
+    }
+
+    def "calculateUnitWounds should route Lethal Hits into the saveable pool"() {
+        given: "A single attack with Lethal Hits that only hits on a 6"
+        def request = new CalculationRequestDTO(numberOfModels: 1, attacksPerModel: 1, bsValue: 6, lethalHits: true)
+        HitResult hits = HitProcessor.calculateUnitDistribution(request)
+
+        when:
+        WoundResult result = WoundProcessor.calculateUnitWounds(hits, 4, request)
+
+        then: "Every hit is a lethal auto-wound that must still take a save"
+        Math.abs(result.standardWounds()[1] - 1/6.0) < 0.0001
+        Math.abs(result.unsavedWounds(0.5)[1] - 1/12.0) < 0.0001
+    }
+}
@@ -1,6 +1,6 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { Observable, map } from 'rxjs';
 
 // Node for Toughness scaling
 export interface ToughnessNode {
@@ -18,6 +18,16 @@ export interface SaveNode {
   upper80: number;
 }
 
+// Models of the target unit slain, with damage allocated model by model
+export interface ModelsSlain {
+  models: number;
+  woundsPerModel: number;
+  probabilities: number[];
+  average: number;
+  probAllSlain: number;
+  saveScaling: SaveNode[];
+}
+
 export interface CalcResult {
   // Hit Stats
   avgValue: number;
@@ -46,6 +56,80 @@ export interface CalcResult {
 
   // Save Scaling Data
   saveScaling?: SaveNode[];
+
+  // Only set against a target unit
+  modelsSlain?: ModelsSlain;
+
+  // Only set for very large armies, approximated instead of calculated exactly
+  approximate?: boolean;
+  approximationError?: number;
+}
+
+// Mean, variance and a normal 80% range of one card, from the preview endpoint
+export interface PreviewCard {
+  average: number;
+  variance: number;
+  standardDeviation: number;
+  lower80: number;
+  upper80: number;
+}
+
+// Exact moments of every card and graph node, cheap enough to request on every edit
+export interface PreviewResult {
+  hits: PreviewCard;
+  wounds: PreviewCard;
+  damage: PreviewCard;
+  toughnessScaling: ToughnessNode[];
+  saveScaling: SaveNode[];
+}
+
+// Compact binary result, negotiated with the Accept header (see BinaryResultConverter on the backend)
+export const BINARY_RESULT_TYPE = 'application/vnd.warhammer.calc+binary';
+export type BinaryEncoding = 'float32' | 'float64' | 'uint16';
+
+const BINARY_MAGIC = 'WHCR';
+const BINARY_FIELDS = ['probabilities', 'woundProbabilities', 'damageProbabilities'] as const;
+
+/**
+ * Decodes a binary result into the same shape as the JSON response.
+ * Layout (little-endian): "WHCR", u8 version, u8 block count, u16 reserved, u32 header length,
+ * the JSON header, then per block: u8 field, u8 encoding, u16 reserved, u32 offset, u32 count, values.
+ */
+export function decodeBinaryResult(buffer: ArrayBuffer): CalcResult {
+  const view = new DataView(buffer);
+  const magic = String.fromCharCode(...new Uint8Array(buffer, 0, 4));
+  if (magic !== BINARY_MAGIC || view.getUint8(4) !== 1) {
+    throw new Error('Not a version 1 binary calculation result');
+  }
+  const blockCount = view.getUint8(5);
+  const headerLength = view.getUint32(8, true);
+  const result = JSON.parse(new TextDecoder().decode(new Uint8Array(buffer, 12, headerLength)));
+
+  let position = 12 + headerLength;
+  for (let block = 0; block < blockCount; block++) {
+    const field = BINARY_FIELDS[view.getUint8(position)];
+    const encoding = view.getUint8(position + 1);
+    const offset = view.getUint32(position + 4, true);
+    const count = view.getUint32(position + 8, true);
+    position += 12;
+
+    // Outcomes before the offset have probability 0, as in the dense JSON lists
+    const values = new Array<number>(offset + count).fill(0);
+    for (let i = 0; i < count; i++) {
+      if (encoding === 0) {
+        values[offset + i] = view.getFloat64(position, true);
+        position += 8;
+      } else if (encoding === 1) {
+        values[offset + i] = view.getFloat32(position, true);
+        position += 4;
+      } else {
+        values[offset + i] = view.getUint16(position, true) / 0xffff;
+        position += 2;
+      }
+    }
+    result[field] = values;
+  }
+  return result as CalcResult;
 }
 
 @Injectable({
@@ -55,7 +139,31 @@ export class CalculatorService {
   private http = inject(HttpClient);
   private apiUrl = 'http://localhost:8080/api/calculate';
 
-  calculate(requests: any[]): Observable<CalcResult> {
-    return this.http.post<CalcResult>(this.apiUrl, requests);
+  // feelNoPain: the target's Feel No Pain roll (2-6); omitted means none
+  // target: the defending unit to count models slain against; omitted leaves out modelsSlain
+  calculate(requests: any[], feelNoPain?: number,
+            target?: { models: number; woundsPerModel: number }): Observable<CalcResult> {
+    const params: Record<string, number> = feelNoPain ? { feelNoPain } : {};
+    if (target) {
+      params['targetModels'] = target.models;
+      params['targetWounds'] = target.woundsPerModel;
+    }
+    return this.http.post<CalcResult>(this.apiUrl, requests, { params });
+  }
+
+  // Moments-only preview for live input; follow up with calculate() once the input settles
+  preview(requests: any[], feelNoPain?: number): Observable<PreviewResult> {
+    const params: Record<string, number> = feelNoPain ? { feelNoPain } : {};
+    return this.http.post<PreviewResult>(`${this.apiUrl}/preview`, requests, { params });
+  }
+
+  // Same result as calculate(), with the probability arrays sent as packed binary blocks
+  calculateBinary(requests: any[], encoding: BinaryEncoding = 'float32'): Observable<CalcResult> {
+    return this.http
+      .post(this.apiUrl, requests, {
+        headers: { Accept: `${BINARY_RESULT_TYPE};encoding=${encoding}` },
+        responseType: 'arraybuffer',
+      })
+      .pipe(map(decodeBinaryResult));
   }
 }
\ No newline at end of file